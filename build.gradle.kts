@@ -9,6 +9,14 @@ repositories {
     mavenCentral()
 }
 
+val jmh by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     implementation("org.slf4j:slf4j-api:1.7.36")
     implementation("ch.qos.logback:logback-core:1.2.11")
@@ -17,8 +25,29 @@ dependencies {
     testRuntimeOnly("ch.qos.logback:logback-classic:1.2.11")
     testImplementation("org.apache.camel:camel-test-junit5:3.18.1")
     testImplementation("org.apache.camel:camel-endpointdsl:3.18.1")
+    testImplementation("com.h2database:h2:2.2.224")
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks, pass extra JMH options with -PjmhArgs=\"...\""
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args("-prof", "gc")
+    (findProperty("jmhArgs") as String?)?.let { args(it.split(" ").filter(String::isNotBlank)) }
+}
+
+tasks.register<JavaExec>("simulate") {
+    group = "benchmark"
+    description = "Runs the in-process convergence simulation, pass nodes, items, loss and churn with -PsimulateArgs=\"4,16 1000 0.05 0.01\""
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.example.catalog.bench.ConvergenceSimulator")
+    jvmArgs("-Xmx4g")
+    (findProperty("simulateArgs") as String?)?.let { args(it.split(" ").filter(String::isNotBlank)) }
+}
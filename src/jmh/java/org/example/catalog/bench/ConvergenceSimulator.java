@@ -0,0 +1,285 @@
+package org.example.catalog.bench;
+
+import org.example.catalog.AckStatus;
+import org.example.catalog.CatalogItem;
+import org.example.catalog.CatalogMetrics;
+import org.example.catalog.CatalogWireFormat;
+import org.example.catalog.bench.mock.BenchCatalog;
+import org.example.catalog.bench.mock.BenchItem;
+import org.example.catalog.bench.mock.BenchSubject;
+import org.example.catalog.bench.mock.BenchWireCodec;
+import org.example.catalog.bench.mock.Mix;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+public class ConvergenceSimulator {
+
+    private static final long BASE_TIME = 1_000_000L;
+
+    public record Config(int nodes, int itemsPerNode, Duration latency, Duration jitter, double loss, double churn,
+                         Duration churnWindow, Duration gossipInterval, Duration timeout, long seed) {
+
+        public Config {
+            if (nodes < 2 || itemsPerNode < 1) {
+                throw new IllegalArgumentException("At least two nodes with one item each are required");
+            }
+            if (loss < 0 || loss >= 1 || churn < 0 || churn > 1) {
+                throw new IllegalArgumentException("Loss and churn must be probabilities, loss below 1");
+            }
+            if (gossipInterval.isZero() || gossipInterval.isNegative()) {
+                throw new IllegalArgumentException("Gossip interval must be positive: " + gossipInterval);
+            }
+        }
+
+        public static Config of(int nodes, int itemsPerNode) {
+            return new Config(nodes, itemsPerNode, Duration.ofMillis(20), Duration.ofMillis(10), 0.0, 0.0,
+                    Duration.ZERO, Duration.ofSeconds(1), Duration.ofMinutes(10), 42L);
+        }
+
+        public Config withLoss(double loss) {
+            return new Config(nodes, itemsPerNode, latency, jitter, loss, churn, churnWindow, gossipInterval, timeout, seed);
+        }
+
+        public Config withChurn(double churn, Duration churnWindow) {
+            return new Config(nodes, itemsPerNode, latency, jitter, loss, churn, churnWindow, gossipInterval, timeout, seed);
+        }
+    }
+
+    public record Result(Config config, boolean converged, long virtualMillis, long wallMillis, long messages,
+                         long bytes, long dropped, int restarts, long peakHeapBytes) {
+
+        @Override
+        public String toString() {
+            return String.format("nodes=%d items=%d loss=%.2f churn=%.2f converged=%s virtual=%dms wall=%dms "
+                            + "messages=%d bytes=%d dropped=%d restarts=%d peakHeap=%dMB",
+                    config.nodes(), config.itemsPerNode(), config.loss(), config.churn(), converged, virtualMillis,
+                    wallMillis, messages, bytes, dropped, restarts, peakHeapBytes >> 20);
+        }
+    }
+
+    private enum Kind {
+        HELLO,
+        CATALOG,
+        CONFIRM,
+        REQUEST,
+        ITEMS
+    }
+
+    private record Event(long time, long sequence, Runnable action) {
+    }
+
+    public ConvergenceSimulator(Config config) {
+        this.config = config;
+        this.random = new Random(config.seed());
+        for (int i = 0; i < config.nodes(); i++) {
+            final Node node = new Node("node" + i, items(i, config.itemsPerNode()));
+            nodes.add(node);
+            byOwner.put(node.owner, node);
+        }
+    }
+
+    public static void main(String[] args) {
+        final int[] sizes = args.length > 0 ? Arrays.stream(args[0].split(",")).mapToInt(Integer::parseInt).toArray() : new int[]{4, 8, 16};
+        final int[] items = args.length > 1 ? Arrays.stream(args[1].split(",")).mapToInt(Integer::parseInt).toArray() : new int[]{1000, 10_000};
+        final double loss = args.length > 2 ? Double.parseDouble(args[2]) : 0.0;
+        final double churn = args.length > 3 ? Double.parseDouble(args[3]) : 0.0;
+        for (int nodes : sizes) {
+            for (int itemsPerNode : items) {
+                final Config config = Config.of(nodes, itemsPerNode).withLoss(loss).withChurn(churn, Duration.ofSeconds(5));
+                System.out.println(new ConvergenceSimulator(config).run());
+            }
+        }
+    }
+
+    public Result run() {
+        System.gc();
+        final List<MemoryPoolMXBean> heap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heap.forEach(MemoryPoolMXBean::resetPeakUsage);
+        final long started = System.nanoTime();
+        nodes.forEach(Node::start);
+        nodes.forEach(node -> schedule(random.nextInt((int) config.gossipInterval().toMillis()), () -> gossip(node)));
+        final long deadline = config.timeout().toMillis();
+        while (converged < nodes.size() && !events.isEmpty() && events.peek().time() <= deadline) {
+            final Event event = events.poll();
+            now = event.time();
+            event.action().run();
+        }
+        final long peak = heap.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        return new Result(config, converged == nodes.size(), now, (System.nanoTime() - started) / 1_000_000,
+                messages, bytes, dropped, restarts, peak);
+    }
+
+    private void gossip(Node node) {
+        if (now < config.churnWindow().toMillis() && random.nextDouble() < config.churn()) {
+            node.restart();
+            restarts++;
+        }
+        if (!node.unconfirmed.isEmpty()) {
+            final Collection<CatalogItem<BenchSubject, String>> shared = node.catalog.getItemsToShare();
+            node.unconfirmed.forEach((peer, kind) -> send(node, peer, kind, shared));
+        }
+        final Map<String, List<CatalogItem<BenchSubject, String>>> pending = new HashMap<>();
+        node.catalog.getAckReport().stream(AckStatus.PENDING, null).forEach(entry -> pending
+                .computeIfAbsent(entry.getValue().by(), owner -> new ArrayList<>())
+                .add(new BenchItem(entry.getKey(), entry.getValue().version(), entry.getValue().deleted(), entry.getValue().by())));
+        request(node, pending);
+        schedule(now + config.gossipInterval().toMillis(), () -> gossip(node));
+    }
+
+    private void request(Node node, Map<String, List<CatalogItem<BenchSubject, String>>> wanted) {
+        wanted.forEach((owner, items) -> {
+            final Node peer = byOwner.get(owner);
+            if (peer != null) {
+                send(node, peer, Kind.REQUEST, items);
+            }
+        });
+    }
+
+    private void receive(Node from, Node to, Kind kind, byte[] message) {
+        final List<CatalogItem<BenchSubject, String>> items = wire.readItems(ByteBuffer.wrap(message));
+        switch (kind) {
+            case HELLO, CATALOG -> {
+                if (kind == Kind.HELLO) {
+                    to.unconfirmed.putIfAbsent(from, Kind.CATALOG);
+                }
+                final Map<String, List<CatalogItem<BenchSubject, String>>> wanted = new HashMap<>();
+                to.catalog.reconcileForeignCatalog(items).toExpect().forEach(item -> wanted
+                        .computeIfAbsent(item.owner(), owner -> new ArrayList<>())
+                        .add(item));
+                request(to, wanted);
+                send(to, from, Kind.CONFIRM, List.of());
+                to.checkConverged();
+            }
+            case CONFIRM -> to.unconfirmed.remove(from);
+            case REQUEST -> send(to, from, Kind.ITEMS, items);
+            case ITEMS -> {
+                items.forEach(to.catalog::acknowledgeReceivedItem);
+                to.checkConverged();
+            }
+        }
+    }
+
+    private void send(Node from, Node to, Kind kind, Collection<CatalogItem<BenchSubject, String>> items) {
+        final byte[] message = encode(items);
+        messages++;
+        bytes += message.length;
+        if (random.nextDouble() < config.loss()) {
+            dropped++;
+            return;
+        }
+        final long jitter = config.jitter().toMillis();
+        final long delay = config.latency().toMillis() + (jitter > 0 ? random.nextLong(jitter + 1) : 0);
+        schedule(now + delay, () -> receive(from, to, kind, message));
+    }
+
+    private byte[] encode(Collection<CatalogItem<BenchSubject, String>> items) {
+        final ByteBuffer buffer = ByteBuffer.allocate(wire.encodedSize(items));
+        wire.writeItems(buffer, items);
+        return buffer.array();
+    }
+
+    private void schedule(long time, Runnable action) {
+        events.add(new Event(time, sequence++, action));
+    }
+
+    private static List<CatalogItem<BenchSubject, String>> items(int node, int count) {
+        final List<CatalogItem<BenchSubject, String>> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new BenchItem(new BenchSubject(Mix.TOPIC, "n" + node + "-" + i),
+                    Instant.ofEpochMilli(BASE_TIME + i), false, "node" + node));
+        }
+        return items;
+    }
+
+    private class Node {
+
+        private final String owner;
+
+        private final List<CatalogItem<BenchSubject, String>> items;
+
+        private final Map<Node, Kind> unconfirmed = new HashMap<>();
+
+        private BenchCatalog catalog;
+
+        private CatalogMetrics metrics;
+
+        private boolean done;
+
+        private Node(String owner, List<CatalogItem<BenchSubject, String>> items) {
+            this.owner = owner;
+            this.items = items;
+        }
+
+        private void start() {
+            catalog = new BenchCatalog(owner, items);
+            metrics = catalog.enableMetrics();
+            catalog.start();
+            nodes.forEach(peer -> {
+                if (peer != this) {
+                    unconfirmed.put(peer, Kind.HELLO);
+                }
+            });
+        }
+
+        private void restart() {
+            if (done) {
+                done = false;
+                converged--;
+            }
+            start();
+        }
+
+        private void checkConverged() {
+            final boolean current = catalog.acknowledged()
+                    && metrics.gauge(CatalogMetrics.ACK) == (long) (nodes.size() - 1) * config.itemsPerNode();
+            if (current != done) {
+                done = current;
+                converged += current ? 1 : -1;
+            }
+        }
+    }
+
+    private final Config config;
+
+    private final Random random;
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    private final Map<String, Node> byOwner = new HashMap<>();
+
+    private final PriorityQueue<Event> events = new PriorityQueue<>(
+            Comparator.comparingLong(Event::time).thenComparingLong(Event::sequence));
+
+    private final CatalogWireFormat<BenchSubject, String, String> wire = new CatalogWireFormat<>(new BenchWireCodec());
+
+    private long now;
+
+    private long sequence;
+
+    private long messages;
+
+    private long bytes;
+
+    private long dropped;
+
+    private int restarts;
+
+    private int converged;
+
+}
@@ -0,0 +1,85 @@
+package org.example.catalog.bench;
+
+import org.example.catalog.CatalogExecution;
+import org.example.catalog.CatalogItem;
+import org.example.catalog.bench.mock.BenchSubject;
+import org.example.catalog.bench.mock.BlockingCompactCatalog;
+import org.example.catalog.bench.mock.ExecutionMode;
+import org.example.catalog.bench.mock.Mix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx4g"})
+public class ExecutionBenchmark {
+
+    @State(Scope.Group)
+    public static class Catalog {
+
+        @Param({"10000"})
+        public int subjects;
+
+        @Param({"20"})
+        public long blockMicros;
+
+        @Param({"4"})
+        public int parallelism;
+
+        @Param({"COMMON_POOL", "FORK_JOIN_POOL", "EXECUTOR", "VIRTUAL_THREADS"})
+        public ExecutionMode mode;
+
+        List<CatalogItem<BenchSubject, String>> foreignItems;
+
+        BlockingCompactCatalog catalog;
+
+        CatalogExecution execution;
+
+        @Setup(Level.Trial)
+        public void startCatalog() {
+            foreignItems = Mix.MIXED.foreignItems(subjects);
+            execution = mode.create(parallelism);
+            catalog = new BlockingCompactCatalog(Mix.OWNER, Mix.ownItems(subjects), blockMicros);
+            catalog.executeWith(execution);
+            catalog.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void stopCatalog() {
+            execution.close();
+        }
+    }
+
+    @Benchmark
+    @Group("blockingHooks")
+    @GroupThreads(1)
+    public void acceptForeignCatalog(Catalog state) {
+        state.catalog.acceptForeignCatalog(state.foreignItems);
+    }
+
+    @Benchmark
+    @Group("blockingHooks")
+    @GroupThreads(1)
+    public Integer commonPoolTask() {
+        return CompletableFuture.supplyAsync(() -> 1).join();
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.catalog.bench;
+
+import org.example.catalog.AckReport;
+import org.example.catalog.CatalogItem;
+import org.example.catalog.ReconcilingCatalog;
+import org.example.catalog.ReconciliationDelta;
+import org.example.catalog.bench.mock.Backend;
+import org.example.catalog.bench.mock.BenchSubject;
+import org.example.catalog.bench.mock.Mix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx16g"})
+public class SharedCatalogBenchmark {
+
+    /**
+     * Acknowledgements timed together by each single-shot iteration; no more than the smallest catalog, so every one
+     * finds a pending item.
+     */
+    private static final int ACK_BATCH = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class Catalog {
+
+        @Param({"10000", "1000000", "10000000"})
+        public int subjects;
+
+        @Param({"MIXED", "NEWER", "OLDER", "DELETED", "UNKNOWN"})
+        public Mix mix;
+
+        @Param({"DEFAULT", "COMPACT", "SHARDED"})
+        public Backend backend;
+
+        List<CatalogItem<BenchSubject, String>> ownItems;
+
+        List<CatalogItem<BenchSubject, String>> foreignItems;
+
+        ReconcilingCatalog<BenchSubject, String> catalog;
+
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void createItems() {
+            ownItems = Mix.ownItems(subjects);
+            foreignItems = mix.foreignItems(subjects);
+        }
+
+        @Setup(Level.Iteration)
+        public void startCatalog() {
+            catalog = backend.create(ownItems);
+            catalog.start();
+            cursor = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void stopCatalog() throws IOException {
+            if (catalog instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+
+        CatalogItem<BenchSubject, String> nextForeignItem() {
+            final CatalogItem<BenchSubject, String> item = foreignItems.get(cursor);
+            cursor = cursor + 1 == foreignItems.size() ? 0 : cursor + 1;
+            return item;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PendingAcks extends Catalog {
+
+        @Setup(Level.Iteration)
+        public void expectForeignCatalog() {
+            catalog.acceptForeignCatalog(foreignItems);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PartiallyAcknowledged extends Catalog {
+
+        @Setup(Level.Iteration)
+        public void acknowledgeHalf() {
+            catalog.acceptForeignCatalog(foreignItems);
+            for (int i = 0; i < foreignItems.size(); i += 2) {
+                catalog.acknowledgeReceivedItem(foreignItems.get(i));
+            }
+        }
+    }
+
+    @Benchmark
+    public void acceptForeignCatalogItem(Catalog state) {
+        state.catalog.acceptForeignCatalogItem(state.nextForeignItem());
+    }
+
+    @Benchmark
+    public void acceptForeignCatalog(Catalog state) {
+        state.catalog.acceptForeignCatalog(state.foreignItems);
+    }
+
+    @Benchmark
+    public ReconciliationDelta<BenchSubject, String> reconcileForeignCatalog(Catalog state) {
+        return state.catalog.reconcileForeignCatalog(state.foreignItems);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = ACK_BATCH)
+    @Measurement(iterations = 5, batchSize = ACK_BATCH)
+    public void acknowledgeReceivedItem(PendingAcks state) {
+        state.catalog.acknowledgeReceivedItem(state.nextForeignItem());
+    }
+
+    @Benchmark
+    public AckReport<BenchSubject, String> getAckReport(PartiallyAcknowledged state) {
+        return state.catalog.getAckReport();
+    }
+
+    @Benchmark
+    public void start(Catalog state, Blackhole blackhole) {
+        state.catalog.start();
+        blackhole.consume(state.catalog.getItemsToShare().size());
+    }
+}
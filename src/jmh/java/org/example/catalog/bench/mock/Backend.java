@@ -0,0 +1,21 @@
+package org.example.catalog.bench.mock;
+
+import org.example.catalog.CatalogItem;
+import org.example.catalog.ReconcilingCatalog;
+
+import java.util.List;
+
+public enum Backend {
+
+    DEFAULT,
+    COMPACT,
+    SHARDED;
+
+    public ReconcilingCatalog<BenchSubject, String> create(List<CatalogItem<BenchSubject, String>> myItems) {
+        return switch (this) {
+            case DEFAULT -> new BenchCatalog(Mix.OWNER, myItems);
+            case COMPACT -> new BenchCompactCatalog(Mix.OWNER, myItems);
+            case SHARDED -> new BenchShardedCatalog(Mix.OWNER, myItems);
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.catalog.bench.mock;
+
+import org.example.catalog.AckItem;
+import org.example.catalog.CatalogItem;
+import org.example.catalog.DefaultSharedCatalog;
+
+import java.util.Collection;
+import java.util.List;
+
+public class BenchCatalog extends DefaultSharedCatalog<BenchSubject, String> {
+
+    private final List<CatalogItem<BenchSubject, String>> myItems;
+
+    private long acknowledgedCount;
+
+    public BenchCatalog(String owner, List<CatalogItem<BenchSubject, String>> myItems) {
+        super(owner);
+        this.myItems = myItems;
+        topics.put(Mix.TOPIC, true);
+    }
+
+    @Override
+    protected Collection<CatalogItem<BenchSubject, String>> fetchMyItems() {
+        return myItems;
+    }
+
+    @Override
+    public void onAcknowledged(BenchSubject key, AckItem<String> ackItem) {
+        acknowledgedCount++;
+    }
+
+    public long getAcknowledgedCount() {
+        return acknowledgedCount;
+    }
+}
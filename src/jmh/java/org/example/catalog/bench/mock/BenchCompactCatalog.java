@@ -0,0 +1,34 @@
+package org.example.catalog.bench.mock;
+
+import org.example.catalog.AckItem;
+import org.example.catalog.CatalogItem;
+import org.example.catalog.CompactSharedCatalog;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public class BenchCompactCatalog extends CompactSharedCatalog<BenchSubject, String> {
+
+    private final List<CatalogItem<BenchSubject, String>> myItems;
+
+    public BenchCompactCatalog(String owner, List<CatalogItem<BenchSubject, String>> myItems) {
+        super(owner);
+        this.myItems = myItems;
+        topics.put(Mix.TOPIC, true);
+    }
+
+    @Override
+    protected CatalogItem<BenchSubject, String> loadItem(BenchSubject subject, String owner, Instant timestamp, boolean deleted) {
+        return new BenchItem(subject, timestamp, deleted, owner);
+    }
+
+    @Override
+    protected Collection<CatalogItem<BenchSubject, String>> fetchMyItems() {
+        return myItems;
+    }
+
+    @Override
+    public void onAcknowledged(BenchSubject key, AckItem<String> ackItem) {
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.catalog.bench.mock;
+
+import org.example.catalog.DefaultCatalogItem;
+
+import java.time.Instant;
+
+public class BenchItem extends DefaultCatalogItem<BenchSubject, String, String> {
+
+    private final BenchSubject subject;
+
+    public BenchItem(BenchSubject subject, Instant timestamp, boolean deleted, String owner) {
+        super(timestamp, deleted, owner, subject.id());
+        this.subject = subject;
+    }
+
+    public BenchItem(BenchSubject subject, long version, boolean deleted, String owner) {
+        super(version, deleted, owner, subject.id());
+        this.subject = subject;
+    }
+
+    @Override
+    public BenchSubject subject() {
+        return subject;
+    }
+
+    @Override
+    public String toString() {
+        return "BenchItem{" +
+                "subject=" + subject +
+                ", timestamp=" + getTimestamp() +
+                ", deleted=" + isDeleted() +
+                '}';
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.catalog.bench.mock;
+
+import org.example.catalog.AckItem;
+import org.example.catalog.CatalogItem;
+import org.example.catalog.ShardedSharedCatalog;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+public class BenchShardedCatalog extends ShardedSharedCatalog<BenchSubject, String> {
+
+    private final List<CatalogItem<BenchSubject, String>> myItems;
+
+    private final LongAdder acknowledgedCount = new LongAdder();
+
+    public BenchShardedCatalog(String owner, List<CatalogItem<BenchSubject, String>> myItems) {
+        super(owner);
+        this.myItems = myItems;
+        topics.put(Mix.TOPIC, true);
+    }
+
+    @Override
+    protected Collection<CatalogItem<BenchSubject, String>> fetchMyItems() {
+        return myItems;
+    }
+
+    @Override
+    public void onAcknowledged(BenchSubject key, AckItem<String> ackItem) {
+        acknowledgedCount.increment();
+    }
+
+    public long getAcknowledgedCount() {
+        return acknowledgedCount.sum();
+    }
+}
@@ -0,0 +1,6 @@
+package org.example.catalog.bench.mock;
+
+import org.example.catalog.Subject;
+
+public record BenchSubject(String topic, String id) implements Subject {
+}
@@ -0,0 +1,71 @@
+package org.example.catalog.bench.mock;
+
+import org.example.catalog.CatalogItem;
+import org.example.catalog.WireCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class BenchWireCodec implements WireCodec<BenchSubject, String, String> {
+
+    @Override
+    public BenchSubject subject(String topic, String id) {
+        return new BenchSubject(topic, id);
+    }
+
+    @Override
+    public void writeOwner(ByteBuffer buffer, String owner) {
+        putString(buffer, owner);
+    }
+
+    @Override
+    public String readOwner(ByteBuffer buffer) {
+        return getString(buffer);
+    }
+
+    @Override
+    public void writePayload(ByteBuffer buffer, String payload) {
+        putString(buffer, payload);
+    }
+
+    @Override
+    public String readPayload(ByteBuffer buffer, BenchSubject subject) {
+        return getString(buffer);
+    }
+
+    @Override
+    public CatalogItem<BenchSubject, String> item(BenchSubject subject, long version, boolean deleted, String owner, String payload) {
+        return new BenchItem(subject, version, deleted, owner);
+    }
+
+    @Override
+    public String payloadOf(CatalogItem<BenchSubject, String> item) {
+        return ((BenchItem) item).getPayload();
+    }
+
+    @Override
+    public int ownerSize(String owner) {
+        return stringSize(owner);
+    }
+
+    @Override
+    public int payloadSize(String payload) {
+        return stringSize(payload);
+    }
+
+    private static int stringSize(String value) {
+        return Short.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
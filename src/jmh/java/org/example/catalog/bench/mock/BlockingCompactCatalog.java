@@ -0,0 +1,36 @@
+package org.example.catalog.bench.mock;
+
+import org.example.catalog.AckItem;
+import org.example.catalog.CatalogItem;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public class BlockingCompactCatalog extends BenchCompactCatalog {
+
+    private final long blockNanos;
+
+    public BlockingCompactCatalog(String owner, List<CatalogItem<BenchSubject, String>> myItems, long blockMicros) {
+        super(owner, myItems);
+        this.blockNanos = TimeUnit.MICROSECONDS.toNanos(blockMicros);
+    }
+
+    @Override
+    protected void addToExpectedList(CatalogItem<BenchSubject, String> item) {
+        LockSupport.parkNanos(blockNanos);
+        super.addToExpectedList(item);
+    }
+
+    @Override
+    protected void removeFromSendList(CatalogItem<BenchSubject, String> item) {
+        LockSupport.parkNanos(blockNanos);
+        super.removeFromSendList(item);
+    }
+
+    @Override
+    protected boolean saveAckStatus(BenchSubject subject, AckItem<String> status) {
+        LockSupport.parkNanos(blockNanos);
+        return super.saveAckStatus(subject, status);
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.catalog.bench.mock;
+
+import org.example.catalog.CatalogExecution;
+
+import java.util.concurrent.Executors;
+
+public enum ExecutionMode {
+
+    COMMON_POOL,
+    FORK_JOIN_POOL,
+    EXECUTOR,
+    VIRTUAL_THREADS;
+
+    public CatalogExecution create(int parallelism) {
+        return switch (this) {
+            case COMMON_POOL -> CatalogExecution.commonPool();
+            case FORK_JOIN_POOL -> CatalogExecution.forkJoinPool(parallelism);
+            case EXECUTOR -> CatalogExecution.using(Executors.newFixedThreadPool(parallelism, task -> {
+                final Thread thread = new Thread(task, "bench-executor");
+                thread.setDaemon(true);
+                return thread;
+            }), parallelism);
+            case VIRTUAL_THREADS -> CatalogExecution.virtualThreads(parallelism);
+        };
+    }
+}
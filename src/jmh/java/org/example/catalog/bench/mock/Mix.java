@@ -0,0 +1,53 @@
+package org.example.catalog.bench.mock;
+
+import org.example.catalog.CatalogItem;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public enum Mix {
+
+    NEWER,
+    OLDER,
+    DELETED,
+    UNKNOWN,
+    MIXED;
+
+    public static final String TOPIC = "benchTopic";
+
+    public static final String OWNER = "owner";
+
+    public static final String FOREIGN = "foreign";
+
+    private static final long BASE_TIME = 1_000_000L;
+
+    public static List<CatalogItem<BenchSubject, String>> ownItems(int subjects) {
+        final List<CatalogItem<BenchSubject, String>> items = new ArrayList<>(subjects);
+        for (int i = 0; i < subjects; i++) {
+            items.add(new BenchItem(subject(i), Instant.ofEpochMilli(BASE_TIME + i), false, OWNER));
+        }
+        return items;
+    }
+
+    public List<CatalogItem<BenchSubject, String>> foreignItems(int subjects) {
+        final List<CatalogItem<BenchSubject, String>> items = new ArrayList<>(subjects);
+        for (int i = 0; i < subjects; i++) {
+            items.add(foreignItem(this == MIXED ? values()[i % 4] : this, i, subjects));
+        }
+        return items;
+    }
+
+    private static CatalogItem<BenchSubject, String> foreignItem(Mix mix, int i, int subjects) {
+        return switch (mix) {
+            case NEWER -> new BenchItem(subject(i), Instant.ofEpochMilli(BASE_TIME + i + 1), false, FOREIGN);
+            case OLDER -> new BenchItem(subject(i), Instant.ofEpochMilli(BASE_TIME + i - 1), false, FOREIGN);
+            case DELETED -> new BenchItem(subject(i), Instant.ofEpochMilli(BASE_TIME + i - 1), true, FOREIGN);
+            case UNKNOWN, MIXED -> new BenchItem(subject(subjects + i), Instant.ofEpochMilli(BASE_TIME + i), false, FOREIGN);
+        };
+    }
+
+    private static BenchSubject subject(int i) {
+        return new BenchSubject(TOPIC, "id" + i);
+    }
+}
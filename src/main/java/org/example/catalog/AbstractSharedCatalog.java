@@ -3,29 +3,61 @@ package org.example.catalog;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
-public abstract class AbstractSharedCatalog<K extends Subject, T> implements SharedCatalog<K, T> {
+public abstract class AbstractSharedCatalog<K extends Subject, T> implements ReconcilingCatalog<K, T>, PublishingCatalog<K, T>,
+        ChangeFeedCatalog<K, T>, SnapshotCatalog<K, T>, AwaitableCatalog<K, T>, Closeable {
 
     private final static Logger LOGGER = LoggerFactory.getLogger(AbstractSharedCatalog.class);
 
     protected final T owner;
 
+    protected final HybridLogicalClock clock = new HybridLogicalClock();
+
+    private final CatalogReconciler<K, T> reconciler;
+
+    private final CatalogBootstrap<K, T> bootstrap;
+
+    private final SharePublisher<K, T> sharePublisher;
+
+    private final AckRouting<K, T> acks = new AckRouting<>(this, true);
+
+    private volatile CatalogMetrics metrics = CatalogMetrics.disabled();
+
+    private volatile CatalogExecution execution = CatalogExecution.commonPool();
+
+    private volatile boolean dedupe;
+
+    private volatile int digestDepth = MerkleDigestTree.DEFAULT_DEPTH;
+
+    private final AckWaiters<K> waiters = new AckWaiters<>();
+
+    private final Queue<CatalogItem<K, T>> bootstrapped = new ConcurrentLinkedQueue<>();
+
     public AbstractSharedCatalog(final T owner) {
         this.owner = owner;
+        this.reconciler = new CatalogReconciler<>(this);
+        this.bootstrap = new CatalogBootstrap<>(this);
+        this.sharePublisher = new SharePublisher<>(this::getItemsToShare, () -> execution.executor());
     }
 
     public void start() {
         LOGGER.debug("Starting catalog");
-        setMyOwnList(fetchMyItems()).forEach(item -> {
-                if (isTopicSupported(item) && !item.isDeleted()) {
-                    addToSendList(item);
-                }
-            }
-        );
+        clearMyOwnList();
+        final long loaded = bootstrap.load(streamMyItems(), bootstrapChunkSize());
+        completeMyOwnList();
+        LOGGER.debug("Catalog started with {} own items", loaded);
     }
 
     private boolean isTopicSupported(CatalogItem<K, T> item) {
@@ -39,61 +71,248 @@ public abstract class AbstractSharedCatalog<K extends Subject, T> implements Sha
     public void acceptForeignCatalogItem(CatalogItem<K, T> otherItem) {
         LOGGER.debug("Accepting foreign item {}", otherItem);
         if (!isTopicSupported(otherItem)) {
+            metrics.outcome(ReconcileOutcome.UNSUPPORTED_TOPIC);
             return;
         }
         if(otherItem.owner().equals(owner)) {
             LOGGER.warn("The owners are identical: {}", owner);
+            metrics.outcome(ReconcileOutcome.SAME_OWNER);
             return;
         }
-        Optional<CatalogItem<K, T>> found = findInMyList(otherItem);
-        if (found.isPresent()) {
-            CatalogItem<K, T> myItem = found.get();
-            if (otherItem.isNewerThan(myItem)) {
+        clock.observe(otherItem.version());
+        metrics.outcome(reconcileItem(otherItem, DefaultReconciliationDelta.discarding()));
+    }
+
+    protected ReconcileOutcome reconcileItem(CatalogItem<K, T> otherItem, DefaultReconciliationDelta<K, T> delta) {
+        final CatalogItem<K, T> myItem = findInMyList(otherItem).orElse(null);
+        final ReconcileOutcome outcome = ReconcileOutcome.of(otherItem, myItem, holdsContentOf(otherItem) ? myItem : null);
+        switch (outcome) {
+            case NEWER_FOREIGN -> {
+                removeFromSendList(myItem);
+                if (supersedesExpectation(otherItem)) {
+                    addToNewerList(otherItem);
+                    addToExpectedList(otherItem);
+                    delta.supersede(myItem);
+                    delta.expect(otherItem);
+                    expecting(otherItem);
+                }
+            }
+            case TOUCHED_FOREIGN -> {
                 removeFromSendList(myItem);
                 addToNewerList(otherItem);
-                addToExpectedList(otherItem);
-            } else {
-                if (!otherItem.isDeleted()) {
-                    removeFromSendList(myItem);
-                } else {
-                    if(!existsInNewerList(otherItem)) {
-                        addToSendList(myItem);
-                    }
+                acknowledgeTouched(otherItem);
+                delta.supersede(myItem);
+                delta.touch(otherItem);
+            }
+            case OLDER_FOREIGN -> removeFromSendList(myItem);
+            case DELETED_FOREIGN -> {
+                if (!existsInNewerList(otherItem)) {
+                    addToSendList(myItem);
+                    delta.send(myItem);
+                }
+            }
+            case UNKNOWN -> {
+                if (!otherItem.isDeleted() && supersedesExpectation(otherItem)) {
+                    addToExpectedList(otherItem);
+                    delta.expect(otherItem);
+                    expecting(otherItem);
                 }
             }
-        } else {
-            if (!otherItem.isDeleted()) {
-                addToExpectedList(otherItem);
+            default -> {
             }
         }
+        return outcome;
+    }
+
+    boolean holdsContentOf(CatalogItem<K, T> otherItem) {
+        return dedupe && !existsInNewerList(otherItem) && fromExpectedList(otherItem).isEmpty();
+    }
+
+    void acknowledgeTouched(CatalogItem<K, T> otherItem) {
+        final AckItem<T> ackItem = new DefaultAckItem<>(true, otherItem.isDeleted(), otherItem.owner(), otherItem.version());
+        saveAckStatus(otherItem.subject(), ackItem);
+        acknowledge(otherItem.subject(), ackItem);
+    }
+
+    /**
+     * An expectation is only replaced by a strictly newer foreign item, so an older copy arriving late from another
+     * peer never rewinds what the catalog waits for. This holds for single items as well as bulk reconciles.
+     */
+    protected boolean supersedesExpectation(CatalogItem<K, T> otherItem) {
+        return fromExpectedList(otherItem).map(otherItem::isNewerThan).orElse(true);
+    }
+
+    protected boolean reconcilesAtomically() {
+        return false;
     }
 
     @Override
     public void acceptForeignCatalog(List<CatalogItem<K, T>> otherItem) {
-        otherItem.parallelStream().forEach(this::acceptForeignCatalogItem);
+        reconcileForeignCatalog(otherItem);
+    }
+
+    @Override
+    public ReconciliationDelta<K, T> reconcileForeignCatalog(List<CatalogItem<K, T>> otherItems) {
+        final CatalogMetrics current = metrics;
+        final long started = current.start();
+        final CatalogSyncEvent event = new CatalogSyncEvent();
+        event.begin();
+        final DefaultReconciliationDelta<K, T> delta = reconciler.reconcile(otherItems);
+        current.outcomes(delta.outcomes());
+        current.accepted(started);
+        delta.commit(event, otherItems.size());
+        return delta;
     }
 
     @Override
     public void acknowledgeReceivedItem(CatalogItem<K, T> otherItem) {
         LOGGER.trace("Acknowledging received item {}", otherItem);
-        fromExpectedList(otherItem).ifPresent(found -> {
-            if (found.isDeleted() == otherItem.isDeleted()) {
-                    removeFromExpectedList(found).ifPresent(item -> {
-                            final DefaultAckItem<T> ackItem = new DefaultAckItem<>(true,
-                                    otherItem.isDeleted(),
-                                    item.owner(), item.getTimestamp());
-                            saveAckStatus(otherItem.subject(), ackItem);
-                            onAcknowledged(otherItem.subject(), ackItem);
-                        }
-                    );
-                }
-            }
-        );
+        final CatalogMetrics current = metrics;
+        final long started = current.start();
+        final AckItem<T> ackItem = completeExpectation(otherItem);
+        if (ackItem != null) {
+            acknowledge(otherItem.subject(), ackItem);
+        }
+        current.acknowledged(started);
+    }
+
+    @Override
+    public ChangePage<K, T> getItemsChangedSince(ChangeCursor cursor, int limit) {
+        return ChangeIndex.page(fetchMyItems(), cursor, limit);
+    }
+
+    @Override
+    public CatalogMetrics metrics() {
+        return metrics;
+    }
+
+    public CatalogMetrics enableMetrics() {
+        final CatalogMetrics enabled = new CatalogMetrics();
+        registerGauges(enabled);
+        metrics = enabled;
+        return enabled;
+    }
+
+    protected void registerGauges(CatalogMetrics metrics) {
+        metrics.registerGauge(CatalogMetrics.SEND, () -> getItemsToShare().size());
+        metrics.registerGauge(CatalogMetrics.EXPECTED, this::expectedCount);
+        metrics.registerGauge(CatalogMetrics.ACK, () -> fetchAckState().size());
+    }
+
+    public void dedupeUnchangedPayloads() {
+        dedupe = true;
+    }
+
+    boolean dedupesPayloads() {
+        return dedupe;
+    }
+
+    /**
+     * Sets the depth of the digest trees, before {@link #start()}. Peers comparing digests must use the same depth; each
+     * level multiplies the leaves by 16, so pick the depth that keeps a few subjects per leaf for the largest topic.
+     */
+    public void digestDepth(int depth) {
+        digestDepth = MerkleDigestTree.checkDepth(depth);
+    }
+
+    int digestDepth() {
+        return digestDepth;
+    }
+
+    public CatalogExecution executeWith(CatalogExecution execution) {
+        final CatalogExecution previous = this.execution;
+        this.execution = execution;
+        if (previous != execution) {
+            previous.close();
+        }
+        return execution;
+    }
+
+    CatalogExecution execution() {
+        return execution;
+    }
+
+    /**
+     * Routes acknowledgements through a batching dispatcher, closing (and draining) any previously installed one.
+     * When {@code capacity} subjects are queued, the acknowledging thread blocks until the listener catches up.
+     */
+    public AckDispatcher<K, T> dispatchAcknowledgements(int batchSize, Duration maxLatency, int capacity) {
+        return acks.dispatch(batchSize, maxLatency, capacity);
+    }
+
+    public RetransmissionScheduler<K, T> scheduleRetransmissions(Duration initialTimeout, Duration maxTimeout,
+                                                                 BiConsumer<T, List<CatalogItem<K, T>>> listener) {
+        return acks.retransmit(initialTimeout, maxTimeout, listener, items -> items.stream().filter(this::isExpected).toList(),
+                this::pendingPeers, () -> List.copyOf(fetchExpectedList()));
+    }
+
+    Collection<T> pendingPeers(CatalogItem<K, T> item) {
+        return List.of(item.owner());
+    }
+
+    void expecting(CatalogItem<K, T> item) {
+        acks.expecting(item);
+    }
+
+    boolean isExpected(CatalogItem<K, T> item) {
+        return fromExpectedList(item).map(found -> found.version() == item.version()).orElse(false);
+    }
+
+    void acknowledge(K subject, AckItem<T> ackItem) {
+        acks.acknowledge(subject, ackItem);
+        if (waiters.acknowledged(subject) && acknowledged()) {
+            waiters.drained();
+        }
+    }
+
+    protected AckItem<T> completeExpectation(CatalogItem<K, T> otherItem) {
+        return fromExpectedList(otherItem)
+                .filter(found -> found.isDeleted() == otherItem.isDeleted())
+                .flatMap(this::removeFromExpectedList)
+                .map(item -> {
+                    final AckItem<T> ackItem = new DefaultAckItem<>(true,
+                            otherItem.isDeleted(),
+                            item.owner(), item.version());
+                    saveAckStatus(otherItem.subject(), ackItem);
+                    return ackItem;
+                })
+                .orElse(null);
     }
 
     @Override
     public boolean acknowledged() {
-        return fetchExpectedList().isEmpty();
+        return expectedCount() == 0;
+    }
+
+    @Override
+    public CompletableFuture<Void> awaitAcknowledged(Duration timeout) {
+        final CompletableFuture<Void> future = waiters.drain(timeout);
+        if (acknowledged()) {
+            waiters.drained();
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Void> awaitAcknowledged(K subject, Duration timeout) {
+        final CompletableFuture<Void> future = waiters.subject(subject, timeout);
+        if (!expects(subject)) {
+            waiters.acknowledged(subject);
+        }
+        return future;
+    }
+
+    protected boolean expects(K subject) {
+        return fetchExpectedList().stream().anyMatch(item -> item.subject().equals(subject));
+    }
+
+    protected long expectedCount() {
+        return fetchExpectedList().size();
+    }
+
+    @Override
+    public CatalogSnapshot<K, T> snapshot() {
+        return CatalogSnapshot.of(getItemsToShare(), fetchExpectedList(), fetchAckState());
     }
 
     @Override
@@ -104,12 +323,76 @@ public abstract class AbstractSharedCatalog<K extends Subject, T> implements Sha
                 false,
                 item.isDeleted(),
                 item.owner(),
-                item.getTimestamp())
+                item.version())
         ));
         return new DefaultAckReport<>(expected.isEmpty(), ackStatus);
     }
 
-    protected abstract Collection<CatalogItem<K, T>> setMyOwnList(Collection<CatalogItem<K, T>> items);
+    @Override
+    public Flow.Publisher<ShareEvent<K, T>> shareEvents() {
+        return sharePublisher;
+    }
+
+    @Override
+    public void close() {
+        sharePublisher.complete();
+        acks.close();
+        execution.close();
+    }
+
+    boolean isSharing() {
+        return sharePublisher.hasSubscribers();
+    }
+
+    protected void shareAdded(CatalogItem<K, T> item) {
+        sharePublisher.added(item);
+    }
+
+    protected void shareRemoved(CatalogItem<K, T> item) {
+        sharePublisher.removed(item);
+    }
+
+    /**
+     * @deprecated override {@link #clearMyOwnList()} and {@link #addToMyOwnList(CatalogItem)} instead; items are
+     * streamed into the own list during {@link #start()}. Subclasses must override either this method or both hooks.
+     */
+    @Deprecated
+    protected Collection<CatalogItem<K, T>> setMyOwnList(Collection<CatalogItem<K, T>> items) {
+        clearMyOwnList();
+        items.forEach(this::addToMyOwnList);
+        return items;
+    }
+
+    protected void clearMyOwnList() {
+        bootstrapped.clear();
+        setMyOwnList(List.of());
+    }
+
+    protected void addToMyOwnList(CatalogItem<K, T> item) {
+        bootstrapped.add(item);
+    }
+
+    protected void bootstrapItem(CatalogItem<K, T> item, boolean share) {
+        addToMyOwnList(item);
+        if (share) {
+            addToSendList(item);
+        }
+    }
+
+    protected void completeMyOwnList() {
+        if (!bootstrapped.isEmpty()) {
+            setMyOwnList(List.copyOf(bootstrapped));
+            bootstrapped.clear();
+        }
+    }
+
+    protected void onBootstrapProgress(long loaded) {
+        LOGGER.debug("Bootstrapped {} own items", loaded);
+    }
+
+    protected int bootstrapChunkSize() {
+        return CatalogBootstrap.DEFAULT_CHUNK_SIZE;
+    }
 
     protected abstract Optional<CatalogItem<K, T>> findInMyList(CatalogItem<K, T> otherItem);
 
@@ -121,6 +404,22 @@ public abstract class AbstractSharedCatalog<K extends Subject, T> implements Sha
 
     protected abstract void removeFromSendList(CatalogItem<K, T> item);
 
+    protected void addAllToSendList(Collection<CatalogItem<K, T>> items) {
+        items.forEach(this::addToSendList);
+    }
+
+    protected void removeAllFromSendList(Collection<CatalogItem<K, T>> items) {
+        items.forEach(this::removeFromSendList);
+    }
+
+    protected void addAllToNewerList(Collection<CatalogItem<K, T>> items) {
+        items.forEach(this::addToNewerList);
+    }
+
+    protected void addAllToExpectedList(Collection<CatalogItem<K, T>> items) {
+        items.forEach(this::addToExpectedList);
+    }
+
     protected abstract Optional<CatalogItem<K, T>> removeFromExpectedList(CatalogItem<K, T> item);
 
     protected abstract void addToExpectedList(CatalogItem<K, T> item);
@@ -135,5 +434,9 @@ public abstract class AbstractSharedCatalog<K extends Subject, T> implements Sha
 
     protected abstract Collection<CatalogItem<K, T>> fetchMyItems();
 
+    protected Stream<CatalogItem<K, T>> streamMyItems() {
+        return fetchMyItems().stream();
+    }
+
     protected abstract Collection<String> getAvailableTopics();
 }
@@ -0,0 +1,174 @@
+package org.example.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+public class AckDispatcher<K extends Subject, T> implements Closeable {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(AckDispatcher.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    public static final Duration DEFAULT_MAX_LATENCY = Duration.ofMillis(50);
+
+    public static final int DEFAULT_CAPACITY = 65536;
+
+    private final Consumer<List<Acknowledgement<K, T>>> listener;
+
+    private final int batchSize;
+
+    private final long maxLatency;
+
+    private final int capacity;
+
+    private final ExecutorService executor;
+
+    AckDispatcher(Consumer<List<Acknowledgement<K, T>>> listener, int batchSize, Duration maxLatency, int capacity) {
+        this.listener = listener;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxLatency = maxLatency.toNanos();
+        this.capacity = Math.max(this.batchSize, capacity);
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            final Thread thread = new Thread(task, "catalog-ack-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::run);
+    }
+
+    boolean offer(K subject, AckItem<T> ackItem) {
+        lock.lock();
+        try {
+            while (!closed && queue.size() >= capacity && !queue.containsKey(subject)) {
+                notFull.awaitUninterruptibly();
+            }
+            if (closed) {
+                return false;
+            }
+            enqueue(subject, ackItem);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean tryOffer(K subject, AckItem<T> ackItem) {
+        lock.lock();
+        try {
+            if (closed || queue.size() >= capacity && !queue.containsKey(subject)) {
+                return false;
+            }
+            enqueue(subject, ackItem);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(K subject, AckItem<T> ackItem) {
+        if (queue.isEmpty()) {
+            oldest = System.nanoTime();
+        }
+        queue.put(subject, ackItem);
+        if (queue.size() == 1 || queue.size() >= batchSize) {
+            notEmpty.signal();
+        }
+    }
+
+    public int pending() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.warn("Acknowledgement dispatcher did not drain in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Acknowledgement<K, T>> batch;
+        while ((batch = take()) != null) {
+            try {
+                listener.accept(batch);
+            } catch (RuntimeException e) {
+                LOGGER.error("Acknowledgement listener failed for {} items", batch.size(), e);
+            }
+        }
+    }
+
+    private List<Acknowledgement<K, T>> take() {
+        lock.lock();
+        try {
+            while (!closed && queue.isEmpty()) {
+                notEmpty.awaitUninterruptibly();
+            }
+            long remaining = oldest + maxLatency - System.nanoTime();
+            while (!closed && queue.size() < batchSize && remaining > 0) {
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+            if (queue.isEmpty()) {
+                return null;
+            }
+            final List<Acknowledgement<K, T>> batch = new ArrayList<>(Math.min(batchSize, queue.size()));
+            final Iterator<Map.Entry<K, AckItem<T>>> entries = queue.entrySet().iterator();
+            while (batch.size() < batchSize && entries.hasNext()) {
+                final Map.Entry<K, AckItem<T>> entry = entries.next();
+                batch.add(new Acknowledgement<>(entry.getKey(), entry.getValue()));
+                entries.remove();
+            }
+            notFull.signalAll();
+            return batch;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final Condition notFull = lock.newCondition();
+
+    private final Map<K, AckItem<T>> queue = new LinkedHashMap<>();
+
+    private long oldest;
+
+    private boolean closed;
+
+}
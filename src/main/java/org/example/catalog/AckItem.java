@@ -12,4 +12,8 @@ public interface AckItem<I> {
 
     Instant when();
 
+    default long version() {
+        return HybridLogicalClock.toVersion(when());
+    }
+
 }
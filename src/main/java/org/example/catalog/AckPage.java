@@ -0,0 +1,15 @@
+package org.example.catalog;
+
+import java.util.List;
+import java.util.Map;
+
+public record AckPage<K extends Subject, T>(List<Map.Entry<K, AckItem<T>>> items, K next) {
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    public boolean isLast() {
+        return next == null;
+    }
+}
@@ -1,11 +1,52 @@
 package org.example.catalog;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface AckReport<K, T> {
+public interface AckReport<K extends Subject, T> {
 
     boolean ok();
 
     Map<K, AckItem<T>> getItems();
 
+    default long version() {
+        return 0L;
+    }
+
+    default long count(AckStatus status) {
+        return stream(status, null).count();
+    }
+
+    default Stream<Map.Entry<K, AckItem<T>>> stream(AckStatus status, String topic) {
+        return getItems().entrySet().stream()
+                .filter(entry -> status == null || AckStatus.of(entry.getValue()) == status)
+                .filter(entry -> topic == null || topic.equals(entry.getKey().topic()));
+    }
+
+    default Set<T> missingPeers(K subject) {
+        final AckItem<T> item = getItems().get(subject);
+        return item == null || item.ok() ? Set.of() : Set.of(item.by());
+    }
+
+    default long missing(T peer) {
+        return stream(AckStatus.PENDING, null).filter(entry -> peer.equals(entry.getValue().by())).count();
+    }
+
+    default AckPage<K, T> page(AckStatus status, String topic, K after, int limit) {
+        final Iterator<Map.Entry<K, AckItem<T>>> entries = stream(status, topic).iterator();
+        if (after != null) {
+            while (entries.hasNext() && !after.equals(entries.next().getKey())) {
+            }
+        }
+        final List<Map.Entry<K, AckItem<T>>> items = new ArrayList<>();
+        while (items.size() < limit && entries.hasNext()) {
+            items.add(entries.next());
+        }
+        return new AckPage<>(items, entries.hasNext() && !items.isEmpty() ? items.get(items.size() - 1).getKey() : null);
+    }
+
 }
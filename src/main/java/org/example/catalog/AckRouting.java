@@ -0,0 +1,87 @@
+package org.example.catalog;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Delivers acknowledgements to a catalog's listener, through a batching dispatcher once one is installed, and keeps
+ * the retransmission scheduler informed of what is expected and what has been acknowledged.
+ */
+final class AckRouting<K extends Subject, T> {
+
+    private final SharedCatalog<K, T> catalog;
+
+    private final boolean blocking;
+
+    private volatile AckDispatcher<K, T> dispatcher;
+
+    private volatile RetransmissionScheduler<K, T> retransmissions;
+
+    /**
+     * @param blocking whether an acknowledging thread waits for room in a full dispatcher queue rather than delivering
+     *                 the acknowledgement directly
+     */
+    AckRouting(SharedCatalog<K, T> catalog, boolean blocking) {
+        this.catalog = catalog;
+        this.blocking = blocking;
+    }
+
+    AckDispatcher<K, T> dispatch(int batchSize, Duration maxLatency, int capacity) {
+        final AckDispatcher<K, T> installed = new AckDispatcher<>(catalog::onAcknowledged, batchSize, maxLatency, capacity);
+        final AckDispatcher<K, T> previous = dispatcher;
+        dispatcher = installed;
+        if (previous != null) {
+            previous.close();
+        }
+        return installed;
+    }
+
+    RetransmissionScheduler<K, T> retransmit(Duration initialTimeout, Duration maxTimeout, BiConsumer<T, List<CatalogItem<K, T>>> listener,
+                                             UnaryOperator<List<CatalogItem<K, T>>> pending,
+                                             Function<CatalogItem<K, T>, Collection<T>> peers,
+                                             Supplier<Collection<CatalogItem<K, T>>> expected) {
+        final RetransmissionScheduler<K, T> scheduler = new RetransmissionScheduler<>(listener, pending, peers, initialTimeout, maxTimeout,
+                RetransmissionScheduler.DEFAULT_JITTER, RetransmissionScheduler.DEFAULT_BATCH_SIZE, RetransmissionScheduler.DEFAULT_TICK);
+        final RetransmissionScheduler<K, T> previous = retransmissions;
+        retransmissions = scheduler;
+        if (previous != null) {
+            previous.close();
+        }
+        expected.get().forEach(scheduler::expected);
+        return scheduler;
+    }
+
+    void expecting(CatalogItem<K, T> item) {
+        final RetransmissionScheduler<K, T> scheduler = retransmissions;
+        if (scheduler != null) {
+            scheduler.expected(item);
+        }
+    }
+
+    void acknowledge(K subject, AckItem<T> ackItem) {
+        final AckDispatcher<K, T> current = dispatcher;
+        if (current == null || !(blocking ? current.offer(subject, ackItem) : current.tryOffer(subject, ackItem))) {
+            catalog.onAcknowledged(subject, ackItem);
+        }
+        final RetransmissionScheduler<K, T> scheduler = retransmissions;
+        if (scheduler != null) {
+            scheduler.acknowledged(subject);
+        }
+    }
+
+    void close() {
+        final AckDispatcher<K, T> current = dispatcher;
+        if (current != null) {
+            current.close();
+        }
+        final RetransmissionScheduler<K, T> scheduler = retransmissions;
+        if (scheduler != null) {
+            scheduler.close();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.catalog;
+
+public enum AckStatus {
+
+    OK,
+
+    PENDING,
+
+    DELETED;
+
+    public static AckStatus of(AckItem<?> item) {
+        if (!item.ok()) {
+            return PENDING;
+        }
+        return item.deleted() ? DELETED : OK;
+    }
+}
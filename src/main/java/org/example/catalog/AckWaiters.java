@@ -0,0 +1,68 @@
+package org.example.catalog;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class AckWaiters<K extends Subject> {
+
+    private final Map<K, List<CompletableFuture<Void>>> subjects = new ConcurrentHashMap<>();
+
+    private final Queue<CompletableFuture<Void>> drains = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    CompletableFuture<Void> subject(K subject, Duration timeout) {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        waiting.incrementAndGet();
+        subjects.compute(subject, (key, waiters) -> {
+            final List<CompletableFuture<Void>> list = waiters != null ? waiters : new ArrayList<>(1);
+            list.add(future);
+            return list;
+        });
+        future.whenComplete((ignored, error) -> {
+            waiting.decrementAndGet();
+            subjects.computeIfPresent(subject, (key, waiters) -> {
+                waiters.remove(future);
+                return waiters.isEmpty() ? null : waiters;
+            });
+        });
+        return future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    CompletableFuture<Void> drain(Duration timeout) {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        waiting.incrementAndGet();
+        drains.add(future);
+        future.whenComplete((ignored, error) -> {
+            waiting.decrementAndGet();
+            drains.remove(future);
+        });
+        return future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    boolean acknowledged(K subject) {
+        if (waiting.get() == 0) {
+            return false;
+        }
+        final List<CompletableFuture<Void>> waiters = subjects.remove(subject);
+        if (waiters != null) {
+            waiters.forEach(future -> future.complete(null));
+        }
+        return !drains.isEmpty();
+    }
+
+    void drained() {
+        CompletableFuture<Void> future;
+        while ((future = drains.poll()) != null) {
+            future.complete(null);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package org.example.catalog;
+
+public record Acknowledgement<K extends Subject, T>(K subject, AckItem<T> ackItem) {
+}
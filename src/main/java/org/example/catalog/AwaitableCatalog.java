@@ -0,0 +1,19 @@
+package org.example.catalog;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+public interface AwaitableCatalog<K extends Subject, T> extends SharedCatalog<K, T> {
+
+    CompletableFuture<Void> awaitAcknowledged(Duration timeout);
+
+    CompletableFuture<Void> awaitAcknowledged(K subject, Duration timeout);
+
+    default CompletableFuture<Void> awaitAcknowledged(Collection<K> subjects, Duration timeout) {
+        return CompletableFuture.allOf(subjects.stream()
+                .map(subject -> awaitAcknowledged(subject, timeout))
+                .toArray(CompletableFuture[]::new));
+    }
+
+}
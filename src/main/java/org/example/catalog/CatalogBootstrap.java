@@ -0,0 +1,72 @@
+package org.example.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+class CatalogBootstrap<K extends Subject, T> {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(CatalogBootstrap.class);
+
+    static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private final AbstractSharedCatalog<K, T> catalog;
+
+    CatalogBootstrap(AbstractSharedCatalog<K, T> catalog) {
+        this.catalog = catalog;
+    }
+
+    long load(Stream<CatalogItem<K, T>> source, int chunkSize) {
+        final Set<String> topics = Set.copyOf(catalog.getAvailableTopics());
+        final Set<String> unsupported = ConcurrentHashMap.newKeySet();
+        final AtomicLong loaded = new AtomicLong();
+        final CatalogExecution execution = catalog.execution();
+        final Semaphore slots = new Semaphore(execution.parallelism() + 1);
+        final List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        try (source) {
+            final Iterator<CatalogItem<K, T>> items = source.iterator();
+            while (items.hasNext()) {
+                final List<CatalogItem<K, T>> chunk = new ArrayList<>(chunkSize);
+                while (chunk.size() < chunkSize && items.hasNext()) {
+                    chunk.add(items.next());
+                }
+                if (chunks.isEmpty() && !items.hasNext()) {
+                    loadChunk(chunk, topics, unsupported, loaded);
+                    break;
+                }
+                slots.acquireUninterruptibly();
+                chunks.add(CompletableFuture
+                        .runAsync(() -> loadChunk(chunk, topics, unsupported, loaded), execution.executor())
+                        .whenComplete((result, error) -> slots.release()));
+            }
+        } finally {
+            CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).handle((result, error) -> null).join();
+        }
+        CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+        unsupported.forEach(topic -> LOGGER.warn("Unsupported topic: {}", topic));
+        LOGGER.debug("Bootstrapped {} own items in {} chunks", loaded.get(), Math.max(1, chunks.size()));
+        return loaded.get();
+    }
+
+    private void loadChunk(List<CatalogItem<K, T>> chunk, Set<String> topics, Set<String> unsupported, AtomicLong loaded) {
+        for (CatalogItem<K, T> item : chunk) {
+            final boolean supported = topics.contains(item.subject().topic());
+            if (!supported) {
+                unsupported.add(item.subject().topic());
+            }
+            catalog.bootstrapItem(item, supported && !item.isDeleted());
+        }
+        synchronized (loaded) {
+            catalog.onBootstrapProgress(loaded.addAndGet(chunk.size()));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.catalog;
+
+public interface CatalogDigest {
+
+    int FANOUT = 16;
+
+    String topic();
+
+    int depth();
+
+    long digest(int level, int index);
+
+}
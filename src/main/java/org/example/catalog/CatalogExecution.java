@@ -0,0 +1,100 @@
+package org.example.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+public final class CatalogExecution implements Closeable {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(CatalogExecution.class);
+
+    private static final CatalogExecution COMMON_POOL = new CatalogExecution(ForkJoinPool.commonPool(),
+            Runtime.getRuntime().availableProcessors(), null);
+
+    private final Executor executor;
+
+    private final int parallelism;
+
+    private final ExecutorService owned;
+
+    private CatalogExecution(Executor executor, int parallelism, ExecutorService owned) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.owned = owned;
+    }
+
+    public static CatalogExecution commonPool() {
+        return COMMON_POOL;
+    }
+
+    public static CatalogExecution using(Executor executor, int parallelism) {
+        return new CatalogExecution(executor, parallelism, null);
+    }
+
+    public static CatalogExecution forkJoinPool(int parallelism) {
+        final ForkJoinPool pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("catalog-worker-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        return new CatalogExecution(pool, parallelism, pool);
+    }
+
+    public static CatalogExecution virtualThreads(int parallelism) {
+        ExecutorService executor;
+        try {
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.debug("Virtual threads are not available, using a platform thread per chunk");
+            final AtomicInteger threads = new AtomicInteger();
+            executor = Executors.newCachedThreadPool(task -> {
+                final Thread thread = new Thread(task, "catalog-worker-" + threads.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return new CatalogExecution(executor, parallelism, executor);
+    }
+
+    public Executor executor() {
+        return executor;
+    }
+
+    public int parallelism() {
+        return parallelism;
+    }
+
+    <R> List<R> invokeAll(int tasks, IntFunction<R> task) {
+        if (tasks == 1) {
+            return List.of(task.apply(0));
+        }
+        final List<CompletableFuture<R>> futures = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            final int index = i;
+            futures.add(CompletableFuture.supplyAsync(() -> task.apply(index), executor));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    @Override
+    public void close() {
+        if (owned != null) {
+            owned.shutdown();
+        }
+    }
+}
@@ -14,4 +14,12 @@ public interface CatalogItem<K extends Subject, T> {
 
     boolean isNewerThan(CatalogItem<K, T> otherItem);
 
+    default long version() {
+        return HybridLogicalClock.toVersion(getTimestamp());
+    }
+
+    default long contentDigest() {
+        return ContentDigest.NONE;
+    }
+
 }
@@ -0,0 +1,384 @@
+package org.example.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+public class CatalogJournal<K extends Subject, T> implements Closeable {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(CatalogJournal.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+
+    public static final long DEFAULT_CHECKPOINT_BYTES = 256L << 20;
+
+    private static final String SNAPSHOT = "catalog.snapshot";
+
+    private static final String JOURNAL_PREFIX = "catalog-";
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    private static final int SKIP_TO_NEXT_CHUNK = -1;
+
+    private static final int FRAME_HEADER = 2 * Integer.BYTES;
+
+    private static final int PRESENT = 1;
+
+    private static final int DELETED = 2;
+
+    private final Path directory;
+
+    private final JournalCodec<K, T> codec;
+
+    private final int chunkSize;
+
+    private final long checkpointBytes;
+
+    private final ByteBuffer scratch = ByteBuffer.allocate(64 << 10);
+
+    private final CRC32C checksum = new CRC32C();
+
+    private final Object checkpointing = new Object();
+
+    private FileChannel channel;
+
+    private MappedByteBuffer chunk;
+
+    private long chunkStart;
+
+    private long generation;
+
+    private long journalBytes;
+
+    private boolean checkpointDue;
+
+    public CatalogJournal(Path directory, JournalCodec<K, T> codec) {
+        this(directory, codec, DEFAULT_CHUNK_SIZE, DEFAULT_CHECKPOINT_BYTES);
+    }
+
+    public CatalogJournal(Path directory, JournalCodec<K, T> codec, int chunkSize, long checkpointBytes) {
+        this.directory = directory;
+        this.codec = codec;
+        this.chunkSize = chunkSize;
+        this.checkpointBytes = checkpointBytes;
+    }
+
+    public JournalCodec<K, T> codec() {
+        return codec;
+    }
+
+    public synchronized boolean append(JournalRecord<K, T> record) {
+        try {
+            if (channel == null) {
+                open(generation + 1);
+            }
+            scratch.clear();
+            try {
+                encode(scratch, record);
+            } catch (BufferOverflowException e) {
+                throw new IllegalArgumentException("Journal record for " + record.subject() + " exceeds " + scratch.capacity() + " bytes");
+            }
+            scratch.flip();
+            final int length = scratch.remaining();
+            if (length + FRAME_HEADER + Integer.BYTES > chunkSize) {
+                throw new IllegalArgumentException("Journal record for " + record.subject() + " does not fit a chunk of " + chunkSize + " bytes");
+            }
+            if (chunk.remaining() < length + FRAME_HEADER + Integer.BYTES) {
+                if (chunk.remaining() >= Integer.BYTES) {
+                    chunk.putInt(SKIP_TO_NEXT_CHUNK);
+                }
+                mapChunk(chunkStart + chunkSize);
+            }
+            chunk.putInt(length);
+            chunk.putInt(checksum(checksum, scratch));
+            chunk.put(scratch);
+            journalBytes += length + FRAME_HEADER;
+            if (!checkpointDue && journalBytes >= checkpointBytes) {
+                checkpointDue = true;
+                return true;
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void sync() {
+        if (chunk != null) {
+            chunk.force();
+        }
+    }
+
+    public void recover(Consumer<JournalRecord<K, T>> consumer) {
+        try {
+            Files.createDirectories(directory);
+            long snapshotGeneration = 0L;
+            final Path snapshot = directory.resolve(SNAPSHOT);
+            if (Files.exists(snapshot)) {
+                snapshotGeneration = readSnapshot(snapshot, consumer);
+            }
+            long last = snapshotGeneration;
+            for (long journalGeneration : journalGenerations()) {
+                if (journalGeneration >= snapshotGeneration) {
+                    readJournal(journalPath(journalGeneration), consumer);
+                    last = Math.max(last, journalGeneration);
+                }
+            }
+            synchronized (this) {
+                generation = Math.max(generation, last);
+            }
+            LOGGER.debug("Recovered catalog journal from {} up to generation {}", directory, last);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void checkpoint(Consumer<Consumer<JournalRecord<K, T>>> state) {
+        synchronized (checkpointing) {
+            final long snapshotGeneration;
+            final long rolledOver;
+            synchronized (this) {
+                snapshotGeneration = generation + 1;
+                rolledOver = journalBytes;
+                try {
+                    closeChannel();
+                    open(snapshotGeneration);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            try {
+                writeSnapshot(state, snapshotGeneration);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    journalBytes += rolledOver;
+                    checkpointDue = false;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void writeSnapshot(Consumer<Consumer<JournalRecord<K, T>>> state, long snapshotGeneration) {
+        try {
+            final Path temporary = directory.resolve(SNAPSHOT + ".tmp");
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+                final CRC32C crc = new CRC32C();
+                buffer.putLong(snapshotGeneration);
+                state.accept(record -> {
+                    try {
+                        writeFrame(out, buffer, crc, record);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                buffer.putInt(0).flip();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            Files.move(temporary, directory.resolve(SNAPSHOT), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            for (long journalGeneration : journalGenerations()) {
+                if (journalGeneration < snapshotGeneration) {
+                    Files.deleteIfExists(journalPath(journalGeneration));
+                }
+            }
+            synchronized (this) {
+                checkpointDue = false;
+            }
+            LOGGER.debug("Catalog snapshot written at generation {}", snapshotGeneration);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            closeChannel();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void open(long journalGeneration) throws IOException {
+        Files.createDirectories(directory);
+        generation = journalGeneration;
+        journalBytes = 0L;
+        channel = FileChannel.open(journalPath(journalGeneration), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        mapChunk(0L);
+    }
+
+    private void mapChunk(long start) throws IOException {
+        if (chunk != null) {
+            chunk.force();
+        }
+        chunkStart = start;
+        chunk = channel.map(FileChannel.MapMode.READ_WRITE, start, chunkSize);
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            chunk.force();
+            channel.close();
+            channel = null;
+            chunk = null;
+        }
+    }
+
+    private long readSnapshot(Path snapshot, Consumer<JournalRecord<K, T>> consumer) throws IOException {
+        try (FileChannel in = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0L, in.size());
+            final long snapshotGeneration = buffer.getLong();
+            if (!readFrames(buffer, consumer)) {
+                LOGGER.warn("Catalog snapshot {} is truncated or corrupt, replay stopped at offset {}", snapshot, buffer.position());
+            }
+            return snapshotGeneration;
+        }
+    }
+
+    private void readJournal(Path journal, Consumer<JournalRecord<K, T>> consumer) throws IOException {
+        try (FileChannel in = FileChannel.open(journal, StandardOpenOption.READ)) {
+            for (long start = 0L; start < in.size(); start += chunkSize) {
+                final MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, start, Math.min(chunkSize, in.size() - start));
+                if (!readFrames(buffer, consumer)) {
+                    LOGGER.debug("Replay of {} stopped at offset {}", journal, start + buffer.position());
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays frames up to the end of the buffer, a chunk skip marker or the first torn frame. A frame whose checksum
+     * does not match or that cannot be decoded ends the replay instead of failing the recovery.
+     */
+    private boolean readFrames(ByteBuffer buffer, Consumer<JournalRecord<K, T>> consumer) {
+        final CRC32C crc = new CRC32C();
+        while (buffer.remaining() >= Integer.BYTES) {
+            final int length = buffer.getInt();
+            if (length == SKIP_TO_NEXT_CHUNK) {
+                return true;
+            }
+            if (length <= 0 || buffer.remaining() < Integer.BYTES || length > buffer.remaining() - Integer.BYTES) {
+                return false;
+            }
+            final int expected = buffer.getInt();
+            final ByteBuffer frame = buffer.slice(buffer.position(), length);
+            if (checksum(crc, frame) != expected) {
+                return false;
+            }
+            final JournalRecord<K, T> record;
+            try {
+                record = decode(frame);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Undecodable catalog journal frame of {} bytes", length, e);
+                return false;
+            }
+            buffer.position(buffer.position() + length);
+            consumer.accept(record);
+        }
+        return true;
+    }
+
+    private void writeFrame(FileChannel out, ByteBuffer buffer, CRC32C crc, JournalRecord<K, T> record) throws IOException {
+        final int start = buffer.position();
+        try {
+            buffer.putInt(0).putInt(0);
+            encode(buffer, record);
+            final int length = buffer.position() - start - FRAME_HEADER;
+            buffer.putInt(start, length);
+            buffer.putInt(start + Integer.BYTES, checksum(crc, buffer.slice(start + FRAME_HEADER, length)));
+        } catch (BufferOverflowException e) {
+            if (start == 0) {
+                throw new IllegalArgumentException("Snapshot record for " + record.subject() + " exceeds " + buffer.capacity() + " bytes");
+            }
+            buffer.position(start).flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+            writeFrame(out, buffer, crc, record);
+        }
+    }
+
+    private static int checksum(CRC32C crc, ByteBuffer payload) {
+        crc.reset();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private void encode(ByteBuffer buffer, JournalRecord<K, T> record) {
+        buffer.put((byte) record.type().ordinal());
+        buffer.put((byte) ((record.present() ? PRESENT : 0) | (record.deleted() ? DELETED : 0)));
+        putString(buffer, record.subject().topic());
+        putString(buffer, record.subject().id());
+        if (record.present()) {
+            codec.writeOwner(buffer, record.owner());
+            buffer.putLong(CompactCatalogItem.toNanos(record.timestamp()));
+        }
+    }
+
+    private JournalRecord<K, T> decode(ByteBuffer buffer) {
+        final JournalRecord.Type type = JournalRecord.Type.values()[buffer.get()];
+        final int flags = buffer.get();
+        final K subject = codec.subject(getString(buffer), getString(buffer));
+        if ((flags & PRESENT) == 0) {
+            return new JournalRecord<>(type, subject, false, null, null, false);
+        }
+        final T owner = codec.readOwner(buffer);
+        final Instant timestamp = CompactCatalogItem.fromNanos(buffer.getLong());
+        return new JournalRecord<>(type, subject, true, owner, timestamp, (flags & DELETED) != 0);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private List<Long> journalGenerations() throws IOException {
+        final List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(JOURNAL_PREFIX) && name.endsWith(JOURNAL_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(JOURNAL_PREFIX.length(), name.length() - JOURNAL_SUFFIX.length())))
+                    .sorted()
+                    .forEach(generations::add);
+        }
+        return generations;
+    }
+
+    private Path journalPath(long journalGeneration) {
+        return directory.resolve(JOURNAL_PREFIX + String.format("%019d", journalGeneration) + JOURNAL_SUFFIX);
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.catalog;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+public class CatalogMetrics {
+
+    public static final String SEND = "send";
+
+    public static final String EXPECTED = "expected";
+
+    public static final String NEWER = "newer";
+
+    public static final String ACK = "ack";
+
+    private static final CatalogMetrics DISABLED = new CatalogMetrics(false);
+
+    private final boolean enabled;
+
+    private final LongAdder[] outcomes = new LongAdder[ReconcileOutcome.values().length];
+
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    private final LatencyHistogram acceptLatency = new LatencyHistogram();
+
+    private final LatencyHistogram acknowledgeLatency = new LatencyHistogram();
+
+    private final LatencyHistogram compactionLatency = new LatencyHistogram();
+
+    private final LongAdder compactedAcks = new LongAdder();
+
+    private final LongAdder compactedTombstones = new LongAdder();
+
+    private final LongAdder blockedResurrections = new LongAdder();
+
+    public CatalogMetrics() {
+        this(true);
+    }
+
+    private CatalogMetrics(boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = new LongAdder();
+        }
+    }
+
+    public static CatalogMetrics disabled() {
+        return DISABLED;
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public long count(ReconcileOutcome outcome) {
+        return outcomes[outcome.ordinal()].sum();
+    }
+
+    public long gauge(String name) {
+        final LongSupplier gauge = gauges.get(name);
+        return gauge == null ? 0 : gauge.getAsLong();
+    }
+
+    public Map<String, Long> gauges() {
+        final Map<String, Long> values = new TreeMap<>();
+        gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        return Collections.unmodifiableMap(values);
+    }
+
+    public LatencyHistogram acceptLatency() {
+        return acceptLatency;
+    }
+
+    public LatencyHistogram acknowledgeLatency() {
+        return acknowledgeLatency;
+    }
+
+    public LatencyHistogram compactionLatency() {
+        return compactionLatency;
+    }
+
+    public long compactedAcks() {
+        return compactedAcks.sum();
+    }
+
+    public long compactedTombstones() {
+        return compactedTombstones.sum();
+    }
+
+    public long blockedResurrections() {
+        return blockedResurrections.sum();
+    }
+
+    public void registerGauge(String name, LongSupplier gauge) {
+        if (enabled) {
+            gauges.put(name, gauge);
+        }
+    }
+
+    void outcome(ReconcileOutcome outcome) {
+        if (enabled) {
+            outcomes[outcome.ordinal()].increment();
+        }
+    }
+
+    void outcomes(long[] counts) {
+        if (enabled) {
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    outcomes[i].add(counts[i]);
+                }
+            }
+        }
+    }
+
+    long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    void accepted(long started) {
+        if (enabled) {
+            acceptLatency.record(System.nanoTime() - started);
+        }
+    }
+
+    void acknowledged(long started) {
+        if (enabled) {
+            acknowledgeLatency.record(System.nanoTime() - started);
+        }
+    }
+
+    void compacted(CompactionResult result, long started) {
+        if (enabled) {
+            compactedAcks.add(result.acks());
+            compactedTombstones.add(result.tombstones());
+            compactionLatency.record(System.nanoTime() - started);
+        }
+    }
+
+    void resurrectionBlocked() {
+        if (enabled) {
+            blockedResurrections.increment();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final Map<ReconcileOutcome, Long> counts = new TreeMap<>();
+        for (ReconcileOutcome outcome : ReconcileOutcome.values()) {
+            counts.put(outcome, count(outcome));
+        }
+        return "CatalogMetrics{" +
+                "outcomes=" + counts +
+                ", gauges=" + gauges() +
+                ", acceptLatency=" + acceptLatency +
+                ", acknowledgeLatency=" + acknowledgeLatency +
+                ", compactedAcks=" + compactedAcks() +
+                ", compactedTombstones=" + compactedTombstones() +
+                ", blockedResurrections=" + blockedResurrections() +
+                '}';
+    }
+}
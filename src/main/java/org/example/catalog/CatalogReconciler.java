@@ -0,0 +1,181 @@
+package org.example.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+class CatalogReconciler<K extends Subject, T> {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(CatalogReconciler.class);
+
+    static final int CHUNK_SIZE = 1024;
+
+    private final AbstractSharedCatalog<K, T> catalog;
+
+    CatalogReconciler(AbstractSharedCatalog<K, T> catalog) {
+        this.catalog = catalog;
+    }
+
+    DefaultReconciliationDelta<K, T> reconcile(List<CatalogItem<K, T>> otherItems) {
+        final Set<String> topics = Set.copyOf(catalog.getAvailableTopics());
+        final Set<String> unsupported = ConcurrentHashMap.newKeySet();
+        final CatalogExecution execution = catalog.execution();
+        final int partitions = otherItems.size() < CHUNK_SIZE ? 1 : execution.parallelism();
+        final List<List<List<CatalogItem<K, T>>>> slices = execution.invokeAll(partitions,
+                slice -> partition(otherItems, slice, partitions));
+        final DefaultReconciliationDelta<K, T> delta = execution.invokeAll(partitions,
+                        partition -> reconcilePartition(slices, partition, topics, unsupported))
+                .stream()
+                .reduce(new DefaultReconciliationDelta<>(), DefaultReconciliationDelta::merge);
+        unsupported.forEach(topic -> LOGGER.warn("Unsupported topic: {}", topic));
+        if (delta.outcomes()[ReconcileOutcome.SAME_OWNER.ordinal()] > 0) {
+            LOGGER.warn("The owners are identical: {}", catalog.owner);
+        }
+        LOGGER.debug("Reconciled {} foreign items in {} partitions: {}", otherItems.size(), partitions, delta);
+        return delta;
+    }
+
+    private List<List<CatalogItem<K, T>>> partition(List<CatalogItem<K, T>> otherItems, int slice, int partitions) {
+        final int from = (int) ((long) otherItems.size() * slice / partitions);
+        final int to = (int) ((long) otherItems.size() * (slice + 1) / partitions);
+        final List<List<CatalogItem<K, T>>> buckets = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            buckets.add(new ArrayList<>((to - from) / partitions + 1));
+        }
+        for (CatalogItem<K, T> item : otherItems.subList(from, to)) {
+            buckets.get(partitionOf(item.subject(), partitions)).add(item);
+        }
+        return buckets;
+    }
+
+    static int partitionOf(Subject subject, int partitions) {
+        final int h = subject.hashCode();
+        return ((h ^ (h >>> 16)) & 0x7fffffff) % partitions;
+    }
+
+    private DefaultReconciliationDelta<K, T> reconcilePartition(List<List<List<CatalogItem<K, T>>>> slices,
+                                                                int partition,
+                                                                Set<String> topics,
+                                                                Set<String> unsupported) {
+        final DefaultReconciliationDelta<K, T> delta = new DefaultReconciliationDelta<>();
+        final Batch batch = new Batch();
+        final boolean atomic = catalog.reconcilesAtomically();
+        for (List<List<CatalogItem<K, T>>> slice : slices) {
+            for (CatalogItem<K, T> otherItem : slice.get(partition)) {
+                if (!topics.contains(otherItem.subject().topic())) {
+                    unsupported.add(otherItem.subject().topic());
+                    delta.count(ReconcileOutcome.UNSUPPORTED_TOPIC);
+                    continue;
+                }
+                if (otherItem.owner().equals(catalog.owner)) {
+                    delta.count(ReconcileOutcome.SAME_OWNER);
+                    continue;
+                }
+                catalog.clock.observe(otherItem.version());
+                if (atomic) {
+                    delta.count(catalog.reconcileItem(otherItem, delta));
+                    continue;
+                }
+                final CatalogItem<K, T> myItem = catalog.findInMyList(otherItem).orElse(null);
+                final boolean holdsContent = !batch.newer.containsKey(otherItem.subject())
+                        && !batch.expected.containsKey(otherItem.subject()) && catalog.holdsContentOf(otherItem);
+                final ReconcileOutcome outcome = ReconcileOutcome.of(otherItem, myItem, holdsContent ? myItem : null);
+                delta.count(outcome);
+                switch (outcome) {
+                    case NEWER_FOREIGN -> {
+                        batch.removeFromSendList(myItem);
+                        if (batch.supersedesExpectation(otherItem)) {
+                            batch.newer.put(otherItem.subject(), otherItem);
+                            batch.expected.put(otherItem.subject(), otherItem);
+                            delta.supersede(myItem);
+                            delta.expect(otherItem);
+                        }
+                    }
+                    case TOUCHED_FOREIGN -> {
+                        batch.removeFromSendList(myItem);
+                        batch.newer.put(otherItem.subject(), otherItem);
+                        catalog.acknowledgeTouched(otherItem);
+                        delta.supersede(myItem);
+                        delta.touch(otherItem);
+                    }
+                    case OLDER_FOREIGN -> batch.removeFromSendList(myItem);
+                    case DELETED_FOREIGN -> {
+                        if (!batch.newer.containsKey(otherItem.subject()) && !catalog.existsInNewerList(otherItem)) {
+                            batch.addToSendList(myItem);
+                            delta.send(myItem);
+                        }
+                    }
+                    case UNKNOWN -> {
+                        if (!otherItem.isDeleted() && batch.supersedesExpectation(otherItem)) {
+                            batch.expected.put(otherItem.subject(), otherItem);
+                            delta.expect(otherItem);
+                        }
+                    }
+                    default -> {
+                    }
+                }
+                if (batch.size() >= CHUNK_SIZE) {
+                    batch.flush();
+                }
+            }
+        }
+        batch.flush();
+        return delta;
+    }
+
+    private class Batch {
+
+        private final Map<K, CatalogItem<K, T>> sendAdded = new LinkedHashMap<>();
+
+        private final Map<K, CatalogItem<K, T>> sendRemoved = new LinkedHashMap<>();
+
+        private final Map<K, CatalogItem<K, T>> newer = new HashMap<>();
+
+        private final Map<K, CatalogItem<K, T>> expected = new LinkedHashMap<>();
+
+        void addToSendList(CatalogItem<K, T> item) {
+            sendRemoved.remove(item.subject());
+            sendAdded.put(item.subject(), item);
+        }
+
+        void removeFromSendList(CatalogItem<K, T> item) {
+            sendAdded.remove(item.subject());
+            sendRemoved.put(item.subject(), item);
+        }
+
+        boolean supersedesExpectation(CatalogItem<K, T> otherItem) {
+            final CatalogItem<K, T> pending = expected.get(otherItem.subject());
+            return pending != null ? otherItem.isNewerThan(pending) : catalog.supersedesExpectation(otherItem);
+        }
+
+        int size() {
+            return sendAdded.size() + sendRemoved.size() + expected.size();
+        }
+
+        void flush() {
+            apply(sendRemoved, catalog::removeAllFromSendList);
+            apply(sendAdded, catalog::addAllToSendList);
+            apply(newer, catalog::addAllToNewerList);
+            apply(expected, items -> {
+                catalog.addAllToExpectedList(items);
+                items.forEach(catalog::expecting);
+            });
+        }
+
+        private void apply(Map<K, CatalogItem<K, T>> pending, Consumer<Collection<CatalogItem<K, T>>> sink) {
+            if (!pending.isEmpty()) {
+                sink.accept(pending.values());
+                pending.clear();
+            }
+        }
+    }
+}
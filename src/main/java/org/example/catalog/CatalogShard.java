@@ -0,0 +1,314 @@
+package org.example.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+class CatalogShard<K extends Subject, T> extends AbstractSharedCatalog<K, T> implements DigestSyncCatalog<K, T> {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(CatalogShard.class);
+
+    static final int SEND = 0;
+
+    static final int EXPECTED = 1;
+
+    static final int NEWER = 2;
+
+    static final int ACK = 3;
+
+    private final ShardedSharedCatalog<K, T> catalog;
+
+    private final ExecutorService writer;
+
+    private volatile Thread thread;
+
+    private volatile boolean closed;
+
+    CatalogShard(ShardedSharedCatalog<K, T> catalog, int index) {
+        super(catalog.owner);
+        this.catalog = catalog;
+        this.writer = Executors.newSingleThreadExecutor(task -> {
+            final Thread thread = new Thread(task, "catalog-shard-" + index);
+            thread.setDaemon(true);
+            this.thread = thread;
+            return thread;
+        });
+    }
+
+    boolean isWriterThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    <R> CompletableFuture<R> submit(Supplier<R> task) {
+        if (!closed) {
+            try {
+                return CompletableFuture.supplyAsync(task, writer);
+            } catch (RejectedExecutionException e) {
+                LOGGER.debug("Catalog shard closed while submitting", e);
+            }
+        }
+        return CompletableFuture.failedFuture(new RejectedExecutionException("Catalog shard is closed"));
+    }
+
+    void execute(Runnable task) {
+        if (closed) {
+            LOGGER.debug("Dropping task for closed catalog shard");
+            return;
+        }
+        try {
+            writer.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    LOGGER.error("Catalog shard task failed", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Dropping task for closed catalog shard", e);
+        }
+    }
+
+    void bootstrap(List<CatalogItem<K, T>> items, Set<String> topics) {
+        items.forEach(item -> bootstrapItem(item, topics.contains(item.subject().topic()) && !item.isDeleted()));
+    }
+
+    DefaultReconciliationDelta<K, T> reconcile(List<CatalogItem<K, T>> otherItems) {
+        final DefaultReconciliationDelta<K, T> delta = new DefaultReconciliationDelta<>();
+        otherItems.forEach(otherItem -> delta.count(reconcileItem(otherItem, delta)));
+        return delta;
+    }
+
+    List<CatalogItem<K, T>> itemsInRanges(List<DigestRange> ranges) {
+        final Map<K, CatalogItem<K, T>> items = new LinkedHashMap<>();
+        ranges.forEach(range -> {
+            final MerkleDigestTree digest = catalog.digests.get(range.topic());
+            if (digest != null) {
+                digest.subjects(range, subject -> {
+                    final CatalogItem<K, T> newerItem = newer.get(subject);
+                    final CatalogItem<K, T> current = newerItem != null ? newerItem : own.get(subject);
+                    if (current != null) {
+                        items.putIfAbsent(current.subject(), current);
+                    }
+                });
+            }
+        });
+        return new ArrayList<>(items.values());
+    }
+
+    long size(int set) {
+        return counts[set].sum();
+    }
+
+    CatalogItem<K, T> ownItem(K subject) {
+        return own.get(subject);
+    }
+
+    void drain() {
+        if (!isWriterThread()) {
+            submit(() -> null).exceptionally(closed -> null).join();
+        }
+    }
+
+    void shutdown() {
+        closed = true;
+        writer.shutdown();
+        if (isWriterThread()) {
+            return;
+        }
+        try {
+            if (!writer.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.warn("Catalog shard did not drain in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    protected boolean reconcilesAtomically() {
+        return true;
+    }
+
+    @Override
+    void acknowledge(K key, AckItem<T> ackItem) {
+        catalog.acknowledge(key, ackItem);
+    }
+
+    @Override
+    void expecting(CatalogItem<K, T> item) {
+        catalog.expecting(item);
+    }
+
+    @Override
+    public void onAcknowledged(K key, AckItem<T> ackItem) {
+        catalog.onAcknowledged(key, ackItem);
+    }
+
+    @Override
+    protected void clearMyOwnList() {
+        List.copyOf(own.keySet()).forEach(subject -> changeDigest(subject, () -> catalog.changes.replace(own.remove(subject), null)));
+    }
+
+    @Override
+    protected void addToMyOwnList(CatalogItem<K, T> item) {
+        changeDigest(item.subject(), () -> catalog.changes.replace(own.put(item.subject(), item), item));
+    }
+
+    @Override
+    protected Optional<CatalogItem<K, T>> findInMyList(CatalogItem<K, T> otherItem) {
+        return Optional.ofNullable(own.get(otherItem.subject()));
+    }
+
+    @Override
+    protected void addToSendList(CatalogItem<K, T> item) {
+        final CatalogItem<K, T> previous = send.put(item.subject(), item);
+        count(SEND, previous, item);
+        if (previous != item) {
+            catalog.sharePublisher.added(item);
+        }
+    }
+
+    @Override
+    protected void addToNewerList(CatalogItem<K, T> item) {
+        changeDigest(item.subject(), () -> count(NEWER, newer.put(item.subject(), item), item));
+    }
+
+    @Override
+    protected boolean existsInNewerList(CatalogItem<K, T> item) {
+        return newer.containsKey(item.subject());
+    }
+
+    @Override
+    protected void removeFromSendList(CatalogItem<K, T> item) {
+        final CatalogItem<K, T> removed = send.remove(item.subject());
+        count(SEND, removed, null);
+        if (removed != null) {
+            catalog.sharePublisher.removed(removed);
+        }
+    }
+
+    @Override
+    protected Optional<CatalogItem<K, T>> removeFromExpectedList(CatalogItem<K, T> item) {
+        final CatalogItem<K, T> removed = expected.remove(item.subject());
+        count(EXPECTED, removed, null);
+        return Optional.ofNullable(removed);
+    }
+
+    @Override
+    protected void addToExpectedList(CatalogItem<K, T> item) {
+        count(EXPECTED, expected.put(item.subject(), item), item);
+        changeDigest(item.subject(), () -> count(ACK, ack.remove(item.subject()), null));
+    }
+
+    @Override
+    protected Optional<CatalogItem<K, T>> fromExpectedList(CatalogItem<K, T> item) {
+        return Optional.ofNullable(expected.get(item.subject()));
+    }
+
+    @Override
+    protected boolean expects(K subject) {
+        return expected.containsKey(subject);
+    }
+
+    @Override
+    protected long expectedCount() {
+        return counts[EXPECTED].sum();
+    }
+
+    @Override
+    protected boolean saveAckStatus(K id, AckItem<T> status) {
+        final long before = digestHash(id);
+        final AckItem<T> previous = ack.put(id, status);
+        count(ACK, previous, status);
+        catalog.digestOf(id.topic()).replace(id, before, digestHash(id));
+        return previous == null;
+    }
+
+    @Override
+    protected Map<K, AckItem<T>> fetchAckState() {
+        return new HashMap<>(ack);
+    }
+
+    @Override
+    protected Collection<CatalogItem<K, T>> fetchExpectedList() {
+        return expected.values();
+    }
+
+    @Override
+    protected Collection<CatalogItem<K, T>> fetchMyItems() {
+        return own.values();
+    }
+
+    @Override
+    public Collection<CatalogItem<K, T>> getItemsToShare() {
+        return new ArrayList<>(send.values());
+    }
+
+    @Override
+    protected Collection<String> getAvailableTopics() {
+        return catalog.topics.keySet();
+    }
+
+    @Override
+    public CatalogDigest getCatalogDigest(String topic) {
+        return catalog.getCatalogDigest(topic);
+    }
+
+    @Override
+    public Collection<CatalogItem<K, T>> getItemsInRanges(List<DigestRange> ranges) {
+        return itemsInRanges(ranges);
+    }
+
+    private void changeDigest(K subject, Runnable change) {
+        final long before = digestHash(subject);
+        change.run();
+        catalog.digestOf(subject.topic()).replace(subject, before, digestHash(subject));
+    }
+
+    private void count(int set, Object previous, Object current) {
+        if (previous == null && current != null) {
+            counts[set].increment();
+        } else if (previous != null && current == null) {
+            counts[set].decrement();
+        }
+    }
+
+    private long digestHash(K subject) {
+        final CatalogItem<K, T> newerItem = newer.get(subject);
+        final CatalogItem<K, T> current = newerItem != null ? newerItem : own.get(subject);
+        if (current != null) {
+            return MerkleDigestTree.itemHash(current);
+        }
+        final AckItem<T> ackItem = ack.get(subject);
+        return ackItem != null ? MerkleDigestTree.itemHash(subject, ackItem.version(), ackItem.deleted()) : 0L;
+    }
+
+    private final Map<K, CatalogItem<K, T>> own = new ConcurrentHashMap<>();
+
+    private final Map<K, CatalogItem<K, T>> send = new HashMap<>();
+
+    private final Map<K, CatalogItem<K, T>> newer = new HashMap<>();
+
+    private final Map<K, CatalogItem<K, T>> expected = new HashMap<>();
+
+    private final Map<K, AckItem<T>> ack = new HashMap<>();
+
+    private final LongAdder[] counts = {new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder()};
+
+}
@@ -0,0 +1,196 @@
+package org.example.catalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+public final class CatalogSnapshot<K extends Subject, T> {
+
+    private static final CatalogSnapshot<?, ?> EMPTY = new CatalogSnapshot<>(PersistentHashMap.empty(), 0, 0, 0, 0, 0L);
+
+    private final PersistentHashMap<K, View<K, T>> views;
+
+    private final int sendCount;
+
+    private final int expectedCount;
+
+    private final int ackCount;
+
+    private final int deletedCount;
+
+    private final long ackVersion;
+
+    private CatalogSnapshot(PersistentHashMap<K, View<K, T>> views, int sendCount, int expectedCount, int ackCount,
+                            int deletedCount, long ackVersion) {
+        this.views = views;
+        this.sendCount = sendCount;
+        this.expectedCount = expectedCount;
+        this.ackCount = ackCount;
+        this.deletedCount = deletedCount;
+        this.ackVersion = ackVersion;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K extends Subject, T> CatalogSnapshot<K, T> empty() {
+        return (CatalogSnapshot<K, T>) EMPTY;
+    }
+
+    static <K extends Subject, T> CatalogSnapshot<K, T> of(Collection<CatalogItem<K, T>> send,
+                                                           Collection<CatalogItem<K, T>> expected,
+                                                           Map<K, AckItem<T>> acks) {
+        final Map<K, View<K, T>> views = new HashMap<>();
+        send.forEach(item -> views.put(item.subject(), new View<>(item, null, null, PeerSet.EMPTY)));
+        expected.forEach(item -> views.merge(item.subject(), new View<>(null, item, null, PeerSet.EMPTY),
+                (view, added) -> new View<>(view.send(), item, view.ack(), PeerSet.EMPTY)));
+        acks.forEach((subject, ackItem) -> views.merge(subject, new View<>(null, null, ackItem, PeerSet.EMPTY),
+                (view, added) -> new View<>(view.send(), view.expected(), ackItem, PeerSet.EMPTY)));
+        return CatalogSnapshot.<K, T>empty().withAll(views);
+    }
+
+    public int size() {
+        return views.size();
+    }
+
+    public int sendCount() {
+        return sendCount;
+    }
+
+    public int expectedCount() {
+        return expectedCount;
+    }
+
+    public int ackCount() {
+        return ackCount;
+    }
+
+    public boolean acknowledged() {
+        return expectedCount == 0;
+    }
+
+    int deletedCount() {
+        return deletedCount;
+    }
+
+    long ackVersion() {
+        return ackVersion;
+    }
+
+    View<K, T> view(K subject) {
+        return views.get(subject);
+    }
+
+    boolean forEachView(K after, BiPredicate<? super K, ? super View<K, T>> action) {
+        return views.forEachAfter(after, action);
+    }
+
+    public CatalogItem<K, T> itemToShare(K subject) {
+        final View<K, T> view = views.get(subject);
+        return view != null ? view.send() : null;
+    }
+
+    public CatalogItem<K, T> expectedItem(K subject) {
+        final View<K, T> view = views.get(subject);
+        return view != null ? view.expected() : null;
+    }
+
+    public AckItem<T> ackItem(K subject) {
+        final View<K, T> view = views.get(subject);
+        return view != null ? view.ack() : null;
+    }
+
+    public Collection<CatalogItem<K, T>> getItemsToShare() {
+        final List<CatalogItem<K, T>> items = new ArrayList<>(sendCount);
+        views.forEach((subject, view) -> {
+            if (view.send() != null) {
+                items.add(view.send());
+            }
+        });
+        return items;
+    }
+
+    public Collection<CatalogItem<K, T>> getExpectedItems() {
+        final List<CatalogItem<K, T>> items = new ArrayList<>(expectedCount);
+        views.forEach((subject, view) -> {
+            if (view.expected() != null) {
+                items.add(view.expected());
+            }
+        });
+        return items;
+    }
+
+    public AckReport<K, T> getAckReport() {
+        final Map<K, AckItem<T>> items = new HashMap<>(ackCount + expectedCount);
+        views.forEach((subject, view) -> {
+            final AckItem<T> ackItem = view.ackItem();
+            if (ackItem != null) {
+                items.put(subject, ackItem);
+            }
+        });
+        return new DefaultAckReport<>(acknowledged(), items);
+    }
+
+    CatalogSnapshot<K, T> with(K subject, View<K, T> view) {
+        final View<K, T> previous = views.get(subject);
+        if (previous == null ? view == null : previous.sameAs(view)) {
+            return this;
+        }
+        final PersistentHashMap<K, View<K, T>> next = view == null ? views.without(subject) : views.with(subject, view);
+        return new CatalogSnapshot<>(next,
+                sendCount + delta(previous, view, View::send),
+                expectedCount + delta(previous, view, View::expected),
+                ackCount + delta(previous, view, View::ack),
+                deletedCount + delta(previous, view, View::deletedAck),
+                View.sameAckState(previous, view) ? ackVersion : ackVersion + 1);
+    }
+
+    CatalogSnapshot<K, T> merge(CatalogSnapshot<K, T> other) {
+        final Map<K, View<K, T>> views = new HashMap<>(other.size());
+        other.views.forEach(views::put);
+        return withAll(views);
+    }
+
+    private CatalogSnapshot<K, T> withAll(Map<K, View<K, T>> views) {
+        CatalogSnapshot<K, T> snapshot = this;
+        for (Map.Entry<K, View<K, T>> entry : views.entrySet()) {
+            snapshot = snapshot.with(entry.getKey(), entry.getValue());
+        }
+        return snapshot;
+    }
+
+    private static <K extends Subject, T> int delta(View<K, T> previous, View<K, T> current,
+                                                    Function<View<K, T>, Object> field) {
+        return (current != null && field.apply(current) != null ? 1 : 0)
+                - (previous != null && field.apply(previous) != null ? 1 : 0);
+    }
+
+    record View<K extends Subject, T>(CatalogItem<K, T> send, CatalogItem<K, T> expected, AckItem<T> ack, PeerSet pending) {
+
+        boolean isEmpty() {
+            return send == null && expected == null && ack == null;
+        }
+
+        boolean sameAs(View<K, T> other) {
+            return other != null && send == other.send && sameAckState(this, other);
+        }
+
+        AckItem<T> ackItem() {
+            return expected != null ? new DefaultAckItem<>(false, expected.isDeleted(), expected.owner(), expected.version()) : ack;
+        }
+
+        private AckItem<T> deletedAck() {
+            return ack != null && ack.deleted() ? ack : null;
+        }
+
+        private static boolean sameAckState(View<?, ?> view, View<?, ?> other) {
+            if (view == null || other == null) {
+                return (view == null || view.expected == null && view.ack == null)
+                        && (other == null || other.expected == null && other.ack == null);
+            }
+            return view.expected == other.expected && view.ack == other.ack && view.pending == other.pending;
+        }
+    }
+}
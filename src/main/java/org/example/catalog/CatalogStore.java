@@ -0,0 +1,19 @@
+package org.example.catalog;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+public interface CatalogStore<K extends Subject, T> {
+
+    JournalCodec<K, T> codec();
+
+    boolean write(Collection<JournalRecord<K, T>> records);
+
+    void sync();
+
+    void load(Consumer<JournalRecord<K, T>> consumer);
+
+    default void checkpoint(Consumer<Consumer<JournalRecord<K, T>>> state) {
+    }
+
+}
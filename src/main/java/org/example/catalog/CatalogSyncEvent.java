@@ -0,0 +1,54 @@
+package org.example.catalog;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.example.catalog.Sync")
+@Label("Catalog Sync")
+@Category("Shared Catalog")
+@Description("Reconciliation of a foreign catalog batch")
+class CatalogSyncEvent extends Event {
+
+    @Label("Items")
+    int items;
+
+    @Label("Unsupported Topic")
+    long unsupportedTopic;
+
+    @Label("Same Owner")
+    long sameOwner;
+
+    @Label("Newer Foreign")
+    long newerForeign;
+
+    @Label("Touched Foreign")
+    long touchedForeign;
+
+    @Label("Older Foreign")
+    long olderForeign;
+
+    @Label("Deleted Foreign")
+    long deletedForeign;
+
+    @Label("Unknown")
+    long unknown;
+
+    @Label("To Send")
+    int toSend;
+
+    @Label("To Expect")
+    int toExpect;
+
+    void outcomes(long[] counts) {
+        unsupportedTopic = counts[ReconcileOutcome.UNSUPPORTED_TOPIC.ordinal()];
+        sameOwner = counts[ReconcileOutcome.SAME_OWNER.ordinal()];
+        newerForeign = counts[ReconcileOutcome.NEWER_FOREIGN.ordinal()];
+        touchedForeign = counts[ReconcileOutcome.TOUCHED_FOREIGN.ordinal()];
+        olderForeign = counts[ReconcileOutcome.OLDER_FOREIGN.ordinal()];
+        deletedForeign = counts[ReconcileOutcome.DELETED_FOREIGN.ordinal()];
+        unknown = counts[ReconcileOutcome.UNKNOWN.ordinal()];
+    }
+}
@@ -0,0 +1,352 @@
+package org.example.catalog;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+public class CatalogWireFormat<K extends Subject, T, V> {
+
+    private final WireCodec<K, T, V> codec;
+
+    public CatalogWireFormat(WireCodec<K, T, V> codec) {
+        this.codec = codec;
+    }
+
+    public void writeItems(ByteBuffer buffer, Collection<CatalogItem<K, T>> items) {
+        writeItems(buffer, items, item -> false);
+    }
+
+    public void writeItems(ByteBuffer buffer, Collection<CatalogItem<K, T>> items, Predicate<CatalogItem<K, T>> elide) {
+        final Map<T, Integer> owners = new HashMap<>();
+        final Map<String, List<CatalogItem<K, T>>> topics = byTopic(items, CatalogItem::subject, CatalogItem::version);
+        putVarint(buffer, topics.size());
+        topics.forEach((topic, group) -> {
+            putString(buffer, topic);
+            putVarint(buffer, group.size());
+            putBits(buffer, group.size(), i -> group.get(i).isDeleted());
+            final boolean[] elided = new boolean[group.size()];
+            for (int i = 0; i < elided.length; i++) {
+                elided[i] = group.get(i).contentDigest() != ContentDigest.NONE && elide.test(group.get(i));
+            }
+            putBits(buffer, elided.length, i -> elided[i]);
+            long previous = 0;
+            for (int i = 0; i < elided.length; i++) {
+                final CatalogItem<K, T> item = group.get(i);
+                putVarlong(buffer, item.version() - previous);
+                previous = item.version();
+                putString(buffer, item.subject().id());
+                putOwner(buffer, owners, item.owner());
+                if (elided[i]) {
+                    buffer.putLong(item.contentDigest());
+                } else {
+                    codec.writePayload(buffer, codec.payloadOf(item));
+                }
+            }
+        });
+    }
+
+    public int encodedSize(Collection<CatalogItem<K, T>> items) {
+        return encodedSize(items, item -> false);
+    }
+
+    public int encodedSize(Collection<CatalogItem<K, T>> items, Predicate<CatalogItem<K, T>> elide) {
+        final Set<T> owners = new HashSet<>();
+        final Map<String, List<CatalogItem<K, T>>> topics = byTopic(items, CatalogItem::subject, CatalogItem::version);
+        int size = varlongSize(topics.size());
+        for (Map.Entry<String, List<CatalogItem<K, T>>> entry : topics.entrySet()) {
+            final List<CatalogItem<K, T>> group = entry.getValue();
+            size += stringSize(entry.getKey()) + varlongSize(group.size()) + 2 * ((group.size() + 7) >>> 3);
+            long previous = 0;
+            for (CatalogItem<K, T> item : group) {
+                size += varlongSize(item.version() - previous) + stringSize(item.subject().id());
+                previous = item.version();
+                final T owner = item.owner();
+                size += varlongSize(owner == null ? 0 : owners.size() + 1);
+                if (owner != null && owners.add(owner)) {
+                    size += codec.ownerSize(owner);
+                }
+                size += item.contentDigest() != ContentDigest.NONE && elide.test(item)
+                        ? Long.BYTES : codec.payloadSize(codec.payloadOf(item));
+            }
+        }
+        return size;
+    }
+
+    public List<CatalogItem<K, T>> readItems(ByteBuffer buffer) {
+        return readItems(buffer, subject -> null, subject -> {
+            throw new IllegalArgumentException("Elided payload without local content: " + subject);
+        });
+    }
+
+    public List<CatalogItem<K, T>> readItems(ByteBuffer buffer, Function<K, CatalogItem<K, T>> local, Consumer<K> missing) {
+        final List<T> owners = new ArrayList<>();
+        final List<CatalogItem<K, T>> items = new ArrayList<>();
+        for (int topics = getVarint(buffer); topics > 0; topics--) {
+            final String topic = getString(buffer);
+            final int count = getVarint(buffer);
+            final int deleted = skipBits(buffer, count);
+            final int elided = skipBits(buffer, count);
+            long version = 0;
+            for (int i = 0; i < count; i++) {
+                version += getVarlong(buffer);
+                final K subject = codec.subject(topic, getString(buffer));
+                final T owner = getOwner(buffer, owners);
+                if (!getBit(buffer, elided, i)) {
+                    items.add(codec.item(subject, version, getBit(buffer, deleted, i), owner, codec.readPayload(buffer, subject)));
+                    continue;
+                }
+                final long digest = buffer.getLong();
+                final CatalogItem<K, T> current = local.apply(subject);
+                if (current != null && current.contentDigest() == digest) {
+                    items.add(codec.item(subject, version, getBit(buffer, deleted, i), owner, codec.payloadOf(current)));
+                } else {
+                    missing.accept(subject);
+                }
+            }
+        }
+        return items;
+    }
+
+    public void writeAcks(ByteBuffer buffer, Collection<Acknowledgement<K, T>> acknowledgements) {
+        final Map<T, Integer> owners = new HashMap<>();
+        final Map<String, List<Acknowledgement<K, T>>> topics = byTopic(acknowledgements,
+                Acknowledgement::subject, acknowledgement -> acknowledgement.ackItem().version());
+        putVarint(buffer, topics.size());
+        topics.forEach((topic, group) -> {
+            putString(buffer, topic);
+            putVarint(buffer, group.size());
+            putBits(buffer, group.size(), i -> group.get(i).ackItem().ok());
+            putBits(buffer, group.size(), i -> group.get(i).ackItem().deleted());
+            long previous = 0;
+            for (Acknowledgement<K, T> acknowledgement : group) {
+                final AckItem<T> ackItem = acknowledgement.ackItem();
+                putVarlong(buffer, ackItem.version() - previous);
+                previous = ackItem.version();
+                putString(buffer, acknowledgement.subject().id());
+                putOwner(buffer, owners, ackItem.by());
+            }
+        });
+    }
+
+    public List<Acknowledgement<K, T>> readAcks(ByteBuffer buffer) {
+        final List<T> owners = new ArrayList<>();
+        final List<Acknowledgement<K, T>> acknowledgements = new ArrayList<>();
+        for (int topics = getVarint(buffer); topics > 0; topics--) {
+            final String topic = getString(buffer);
+            final int count = getVarint(buffer);
+            final int ok = skipBits(buffer, count);
+            final int deleted = skipBits(buffer, count);
+            long version = 0;
+            for (int i = 0; i < count; i++) {
+                version += getVarlong(buffer);
+                final K subject = codec.subject(topic, getString(buffer));
+                final T by = getOwner(buffer, owners);
+                acknowledgements.add(new Acknowledgement<>(subject,
+                        new DefaultAckItem<>(getBit(buffer, ok, i), getBit(buffer, deleted, i), by, version)));
+            }
+        }
+        return acknowledgements;
+    }
+
+    public static void writeDigest(ByteBuffer buffer, CatalogDigest digest) {
+        final long[] nodes = new long[MerkleDigestTree.offset(digest.depth() + 1)];
+        for (int level = 0; level <= digest.depth(); level++) {
+            for (int index = 0; index < 1 << (4 * level); index++) {
+                nodes[MerkleDigestTree.offset(level) + index] = digest.digest(level, index);
+            }
+        }
+        putString(buffer, digest.topic());
+        buffer.put((byte) digest.depth());
+        putBits(buffer, nodes.length, i -> nodes[i] != 0);
+        for (long node : nodes) {
+            if (node != 0) {
+                buffer.putLong(node);
+            }
+        }
+    }
+
+    public static CatalogDigest readDigest(ByteBuffer buffer) {
+        final String topic = getString(buffer);
+        final int depth = MerkleDigestTree.checkDepth(buffer.get());
+        final long[] nodes = new long[MerkleDigestTree.offset(depth + 1)];
+        final int present = skipBits(buffer, nodes.length);
+        for (int i = 0; i < nodes.length; i++) {
+            if (getBit(buffer, present, i)) {
+                nodes[i] = buffer.getLong();
+            }
+        }
+        return new WireDigest(topic, depth, nodes);
+    }
+
+    public static void writeRanges(ByteBuffer buffer, List<DigestRange> ranges) {
+        putVarint(buffer, ranges.size());
+        for (DigestRange range : ranges) {
+            putString(buffer, range.topic());
+            buffer.put((byte) range.depth());
+            buffer.put((byte) range.level());
+            putVarint(buffer, range.index());
+        }
+    }
+
+    public static List<DigestRange> readRanges(ByteBuffer buffer) {
+        final int count = getVarint(buffer);
+        final List<DigestRange> ranges = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ranges.add(new DigestRange(getString(buffer), buffer.get(), buffer.get(), getVarint(buffer)));
+        }
+        return ranges;
+    }
+
+    private static <E, S extends Subject> Map<String, List<E>> byTopic(Collection<E> elements, Function<E, S> subject,
+                                                                       ToLongFunction<E> version) {
+        final Map<String, List<E>> topics = new LinkedHashMap<>();
+        for (E element : elements) {
+            topics.computeIfAbsent(subject.apply(element).topic(), topic -> new ArrayList<>()).add(element);
+        }
+        topics.values().forEach(group -> group.sort(Comparator.comparingLong(version)));
+        return topics;
+    }
+
+    private void putOwner(ByteBuffer buffer, Map<T, Integer> owners, T owner) {
+        if (owner == null) {
+            putVarint(buffer, 0);
+            return;
+        }
+        final Integer known = owners.get(owner);
+        if (known != null) {
+            putVarint(buffer, known);
+            return;
+        }
+        final int index = owners.size() + 1;
+        owners.put(owner, index);
+        putVarint(buffer, index);
+        codec.writeOwner(buffer, owner);
+    }
+
+    private T getOwner(ByteBuffer buffer, List<T> owners) {
+        final int index = getVarint(buffer);
+        if (index == 0) {
+            return null;
+        }
+        if (index == owners.size() + 1) {
+            owners.add(codec.readOwner(buffer));
+        } else if (index > owners.size()) {
+            throw new IllegalArgumentException("Invalid owner reference: " + index);
+        }
+        return owners.get(index - 1);
+    }
+
+    private static void putBits(ByteBuffer buffer, int count, IntPredicate bit) {
+        for (int base = 0; base < count; base += 8) {
+            int bits = 0;
+            for (int i = 0; i < 8 && base + i < count; i++) {
+                if (bit.test(base + i)) {
+                    bits |= 1 << i;
+                }
+            }
+            buffer.put((byte) bits);
+        }
+    }
+
+    private static int skipBits(ByteBuffer buffer, int count) {
+        final int start = buffer.position();
+        buffer.position(start + ((count + 7) >>> 3));
+        return start;
+    }
+
+    private static boolean getBit(ByteBuffer buffer, int start, int index) {
+        return (buffer.get(start + (index >>> 3)) & (1 << (index & 7))) != 0;
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        putVarlong(buffer, value & 0xFFFFFFFFL);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        final long value = getVarlong(buffer);
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Varint out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    private static int varlongSize(long value) {
+        return value == 0 ? 1 : (Long.SIZE - Long.numberOfLeadingZeros(value) + 6) / 7;
+    }
+
+    private static int stringSize(String value) {
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                final int bytes = value.getBytes(StandardCharsets.UTF_8).length;
+                return varlongSize(bytes) + bytes;
+            }
+        }
+        return varlongSize(length) + length;
+    }
+
+    private static void putVarlong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarlong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                putVarint(buffer, bytes.length);
+                buffer.put(bytes);
+                return;
+            }
+        }
+        putVarint(buffer, length);
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) value.charAt(i));
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        final int length = getVarint(buffer);
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        if (buffer.hasArray()) {
+            final String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
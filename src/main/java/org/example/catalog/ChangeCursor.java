@@ -0,0 +1,25 @@
+package org.example.catalog;
+
+import java.util.Comparator;
+
+public record ChangeCursor(long version, String topic, String id) implements Comparable<ChangeCursor> {
+
+    private static final Comparator<String> NULLS_FIRST = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private static final Comparator<ChangeCursor> ORDER = Comparator.comparingLong(ChangeCursor::version)
+            .thenComparing(ChangeCursor::topic, NULLS_FIRST)
+            .thenComparing(ChangeCursor::id, NULLS_FIRST);
+
+    public static ChangeCursor since(long version) {
+        return new ChangeCursor(version, null, null);
+    }
+
+    static ChangeCursor of(Subject subject, long version) {
+        return new ChangeCursor(version, subject.topic(), subject.id());
+    }
+
+    @Override
+    public int compareTo(ChangeCursor other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.catalog;
+
+public interface ChangeFeedCatalog<K extends Subject, T> extends SharedCatalog<K, T> {
+
+    ChangePage<K, T> getItemsChangedSince(ChangeCursor cursor, int limit);
+
+    default ChangePage<K, T> getItemsChangedSince(long version, int limit) {
+        return getItemsChangedSince(ChangeCursor.since(version), limit);
+    }
+
+}
@@ -0,0 +1,69 @@
+package org.example.catalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+class ChangeIndex<K extends Subject, T> {
+
+    private final ConcurrentSkipListMap<ChangeCursor, K> subjects = new ConcurrentSkipListMap<>();
+
+    private final Function<K, CatalogItem<K, T>> current;
+
+    ChangeIndex(Function<K, CatalogItem<K, T>> current) {
+        this.current = current;
+    }
+
+    void replace(CatalogItem<K, T> previous, CatalogItem<K, T> item) {
+        if (previous == item) {
+            return;
+        }
+        if (previous != null) {
+            remove(previous.subject(), previous.version());
+        }
+        if (item != null) {
+            add(item.subject(), item.version());
+        }
+    }
+
+    void add(K subject, long version) {
+        subjects.put(ChangeCursor.of(subject, version), subject);
+    }
+
+    void remove(K subject, long version) {
+        subjects.remove(ChangeCursor.of(subject, version), subject);
+    }
+
+    static <K extends Subject, T> ChangePage<K, T> page(Collection<CatalogItem<K, T>> items, ChangeCursor after, int limit) {
+        final Map<K, CatalogItem<K, T>> bySubject = new HashMap<>();
+        final ChangeIndex<K, T> index = new ChangeIndex<>(bySubject::get);
+        for (CatalogItem<K, T> item : items) {
+            bySubject.put(item.subject(), item);
+            index.add(item.subject(), item.version());
+        }
+        return index.page(after, limit);
+    }
+
+    ChangePage<K, T> page(ChangeCursor after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+        final List<CatalogItem<K, T>> items = new ArrayList<>(Math.min(limit, 1024));
+        ChangeCursor next = after;
+        for (Map.Entry<ChangeCursor, K> entry : subjects.tailMap(after, false).entrySet()) {
+            if (items.size() == limit) {
+                break;
+            }
+            next = entry.getKey();
+            final CatalogItem<K, T> item = current.apply(entry.getValue());
+            if (item != null && item.version() == next.version()) {
+                items.add(item);
+            }
+        }
+        return new ChangePage<>(items, next);
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.catalog;
+
+import java.util.List;
+
+public record ChangePage<K extends Subject, T>(List<CatalogItem<K, T>> items, ChangeCursor next) {
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.catalog;
+
+import java.time.Instant;
+
+class CompactCatalogItem<K extends Subject, T> implements CatalogItem<K, T> {
+
+    private final K subject;
+
+    private final T owner;
+
+    private final long timestamp;
+
+    private final boolean deleted;
+
+    private final long digest;
+
+    CompactCatalogItem(K subject, T owner, long timestamp, boolean deleted) {
+        this(subject, owner, timestamp, deleted, ContentDigest.NONE);
+    }
+
+    CompactCatalogItem(K subject, T owner, long timestamp, boolean deleted, long digest) {
+        this.subject = subject;
+        this.owner = owner;
+        this.timestamp = timestamp;
+        this.deleted = deleted;
+        this.digest = digest;
+    }
+
+    static long toNanos(Instant instant) {
+        return HybridLogicalClock.toVersion(instant);
+    }
+
+    static Instant fromNanos(long nanos) {
+        return HybridLogicalClock.toInstant(nanos);
+    }
+
+    @Override
+    public K subject() {
+        return subject;
+    }
+
+    @Override
+    public T owner() {
+        return owner;
+    }
+
+    @Override
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    @Override
+    public Instant getTimestamp() {
+        return fromNanos(timestamp);
+    }
+
+    @Override
+    public long version() {
+        return timestamp;
+    }
+
+    @Override
+    public long contentDigest() {
+        return digest;
+    }
+
+    @Override
+    public boolean isNewerThan(CatalogItem<K, T> otherItem) {
+        return timestamp > otherItem.version();
+    }
+
+    @Override
+    public String toString() {
+        return "CompactCatalogItem{subject=" + subject + ", owner=" + owner + ", timestamp=" + getTimestamp()
+                + ", deleted=" + deleted + '}';
+    }
+}
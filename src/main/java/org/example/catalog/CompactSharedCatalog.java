@@ -0,0 +1,469 @@
+package org.example.catalog;
+
+import java.time.Instant;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+import static org.example.catalog.CompactStore.*;
+
+public abstract class CompactSharedCatalog<K extends Subject, T> extends AbstractSharedCatalog<K, T> implements DigestSyncCatalog<K, T> {
+
+    private static final int LOCK_STRIPES = 1024;
+
+    public CompactSharedCatalog(T owner) {
+        super(owner);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    protected abstract CatalogItem<K, T> loadItem(K subject, T owner, Instant timestamp, boolean deleted);
+
+    @Override
+    protected boolean reconcilesAtomically() {
+        return true;
+    }
+
+    @Override
+    protected ReconcileOutcome reconcileItem(CatalogItem<K, T> otherItem, DefaultReconciliationDelta<K, T> delta) {
+        synchronized (lockOf(otherItem.subject())) {
+            return super.reconcileItem(otherItem, delta);
+        }
+    }
+
+    @Override
+    protected AckItem<T> completeExpectation(CatalogItem<K, T> otherItem) {
+        synchronized (lockOf(otherItem.subject())) {
+            return super.completeExpectation(otherItem);
+        }
+    }
+
+    @Override
+    protected void registerGauges(CatalogMetrics metrics) {
+        metrics.registerGauge(CatalogMetrics.SEND, sendCount::sum);
+        metrics.registerGauge(CatalogMetrics.EXPECTED, pendingCount::sum);
+        metrics.registerGauge(CatalogMetrics.NEWER, newerCount::sum);
+        metrics.registerGauge(CatalogMetrics.ACK, ackCount::sum);
+    }
+
+    @Override
+    protected void clearMyOwnList() {
+        for (int id = 0; id < index.size(); id++) {
+            read(id, found -> {
+                final long before = digestHash(found);
+                store.set(found, OWN | OWN_DELETED, false);
+                redigest(found, before);
+                retireIfEmpty(found);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    protected void addToMyOwnList(CatalogItem<K, T> item) {
+        bootstrapItem(item, false);
+    }
+
+    @Override
+    protected void bootstrapItem(CatalogItem<K, T> item, boolean share) {
+        final int owner = owners.intern(item.owner());
+        synchronized (lockOf(item.subject())) {
+            final int id = intern(item.subject());
+            final long before = digestHash(id);
+            store.putLong(id, OWN_TIMESTAMP, item.version());
+            store.putInt(id, OWN_OWNER, owner);
+            store.putLong(id, OWN_DIGEST, item.contentDigest());
+            store.set(id, OWN, true);
+            store.set(id, OWN_DELETED, item.isDeleted());
+            redigest(id, before);
+            if (share && !store.has(id, SEND)) {
+                store.set(id, SEND, true);
+                sendCount.increment();
+                shareAdded(item);
+            }
+        }
+    }
+
+    @Override
+    public ChangePage<K, T> getItemsChangedSince(ChangeCursor cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+        final TreeMap<ChangeCursor, Integer> earliest = new TreeMap<>();
+        for (int id = 0; id < index.size(); id++) {
+            final ChangeCursor changed = read(id, found -> {
+                if (!store.has(found, OWN)) {
+                    return null;
+                }
+                final long version = store.getLong(found, OWN_TIMESTAMP);
+                if (version < cursor.version() || earliest.size() == limit && version > earliest.lastKey().version()) {
+                    return null;
+                }
+                return ChangeCursor.of(index.subject(found), version);
+            });
+            if (changed != null && changed.compareTo(cursor) > 0) {
+                earliest.put(changed, id);
+                if (earliest.size() > limit) {
+                    earliest.pollLastEntry();
+                }
+            }
+        }
+        final List<CatalogItem<K, T>> items = new ArrayList<>(earliest.size());
+        earliest.forEach((changed, id) -> {
+            final CatalogItem<K, T> item = read(id, found -> store.has(found, OWN) ? ownItem(found) : null);
+            if (item != null && ChangeCursor.of(item.subject(), item.version()).equals(changed)) {
+                items.add(item);
+            }
+        });
+        return new ChangePage<>(items, earliest.isEmpty() ? cursor : earliest.lastKey());
+    }
+
+    @Override
+    protected Optional<CatalogItem<K, T>> findInMyList(CatalogItem<K, T> otherItem) {
+        synchronized (lockOf(otherItem.subject())) {
+            final int id = index.find(otherItem.subject());
+            return id >= 0 && store.has(id, OWN) ? Optional.of(ownItem(id)) : Optional.empty();
+        }
+    }
+
+    @Override
+    protected void addToSendList(CatalogItem<K, T> item) {
+        synchronized (lockOf(item.subject())) {
+            final int id = intern(item.subject());
+            if (!store.has(id, SEND)) {
+                store.set(id, SEND, true);
+                sendCount.increment();
+                if (isSharing()) {
+                    shareAdded(item instanceof CompactCatalogItem ? loadOwnItem(id) : item);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void removeFromSendList(CatalogItem<K, T> item) {
+        synchronized (lockOf(item.subject())) {
+            final int id = index.find(item.subject());
+            if (id >= 0 && store.has(id, SEND)) {
+                store.set(id, SEND, false);
+                sendCount.decrement();
+                shareRemoved(item);
+                retireIfEmpty(id);
+            }
+        }
+    }
+
+    @Override
+    protected void addToNewerList(CatalogItem<K, T> item) {
+        synchronized (lockOf(item.subject())) {
+            final int id = intern(item.subject());
+            final long before = digestHash(id);
+            if (!store.has(id, NEWER)) {
+                newerCount.increment();
+            }
+            store.putLong(id, NEWER_TIMESTAMP, item.version());
+            store.putInt(id, NEWER_OWNER, owners.intern(item.owner()));
+            store.set(id, NEWER, true);
+            store.set(id, NEWER_DELETED, item.isDeleted());
+            redigest(id, before);
+        }
+    }
+
+    @Override
+    protected boolean existsInNewerList(CatalogItem<K, T> item) {
+        synchronized (lockOf(item.subject())) {
+            final int id = index.find(item.subject());
+            return id >= 0 && store.has(id, NEWER);
+        }
+    }
+
+    @Override
+    protected void addToExpectedList(CatalogItem<K, T> item) {
+        synchronized (lockOf(item.subject())) {
+            final int id = intern(item.subject());
+            if (!store.has(id, EXPECTED)) {
+                pendingCount.increment();
+            }
+            store.putLong(id, EXPECTED_TIMESTAMP, item.version());
+            store.putInt(id, EXPECTED_OWNER, owners.intern(item.owner()));
+            store.set(id, EXPECTED, true);
+            store.set(id, EXPECTED_DELETED, item.isDeleted());
+            final long before = digestHash(id);
+            if (store.has(id, ACK)) {
+                ackCount.decrement();
+            }
+            store.set(id, ACK | ACK_DELETED, false);
+            redigest(id, before);
+        }
+    }
+
+    @Override
+    protected Optional<CatalogItem<K, T>> removeFromExpectedList(CatalogItem<K, T> item) {
+        synchronized (lockOf(item.subject())) {
+            final int id = index.find(item.subject());
+            if (id < 0 || !store.has(id, EXPECTED)) {
+                return Optional.empty();
+            }
+            final CatalogItem<K, T> removed = expectedItem(id);
+            store.set(id, EXPECTED | EXPECTED_DELETED, false);
+            pendingCount.decrement();
+            retireIfEmpty(id);
+            return Optional.of(removed);
+        }
+    }
+
+    @Override
+    protected Optional<CatalogItem<K, T>> fromExpectedList(CatalogItem<K, T> item) {
+        synchronized (lockOf(item.subject())) {
+            final int id = index.find(item.subject());
+            return id >= 0 && store.has(id, EXPECTED) ? Optional.of(expectedItem(id)) : Optional.empty();
+        }
+    }
+
+    @Override
+    protected boolean expects(K subject) {
+        synchronized (lockOf(subject)) {
+            final int id = index.find(subject);
+            return id >= 0 && store.has(id, EXPECTED);
+        }
+    }
+
+    @Override
+    protected long expectedCount() {
+        return pendingCount.sum();
+    }
+
+    @Override
+    protected boolean saveAckStatus(K subject, AckItem<T> status) {
+        synchronized (lockOf(subject)) {
+            final int id = intern(subject);
+            final long before = digestHash(id);
+            final boolean previous = store.has(id, ACK);
+            store.putLong(id, ACK_TIMESTAMP, status.version());
+            store.putInt(id, ACK_OWNER, owners.intern(status.by()));
+            store.set(id, ACK, true);
+            store.set(id, ACK_DELETED, status.deleted());
+            redigest(id, before);
+            if (!previous) {
+                ackCount.increment();
+            }
+            return !previous;
+        }
+    }
+
+    @Override
+    protected Map<K, AckItem<T>> fetchAckState() {
+        final Map<K, AckItem<T>> acks = new HashMap<>();
+        for (int id = 0; id < index.size(); id++) {
+            final AckItem<T> ackItem = read(id, found -> store.has(found, ACK)
+                    ? new DefaultAckItem<>(true, store.has(found, ACK_DELETED), owners.owner(store.getInt(found, ACK_OWNER)),
+                    store.getLong(found, ACK_TIMESTAMP))
+                    : null);
+            if (ackItem != null) {
+                acks.put(index.subject(id), ackItem);
+            }
+        }
+        return acks;
+    }
+
+    @Override
+    protected Collection<CatalogItem<K, T>> fetchExpectedList() {
+        return expectedView;
+    }
+
+    @Override
+    public Collection<CatalogItem<K, T>> getItemsToShare() {
+        return sendView;
+    }
+
+    @Override
+    protected Collection<String> getAvailableTopics() {
+        return topics.keySet();
+    }
+
+    @Override
+    public CatalogDigest getCatalogDigest(String topic) {
+        return digestOf(topic);
+    }
+
+    @Override
+    public Collection<CatalogItem<K, T>> getItemsInRanges(List<DigestRange> ranges) {
+        final List<CatalogItem<K, T>> items = new ArrayList<>();
+        if (ranges.isEmpty()) {
+            return items;
+        }
+        for (int id = 0; id < index.size(); id++) {
+            final CatalogItem<K, T> current = read(id, found -> {
+                final K subject = index.subject(found);
+                if (ranges.stream().noneMatch(range -> range.contains(subject))) {
+                    return null;
+                }
+                return store.has(found, NEWER) ? newerItem(found) : store.has(found, OWN) ? loadOwnItem(found) : null;
+            });
+            if (current != null) {
+                items.add(current);
+            }
+        }
+        return items;
+    }
+
+    private int intern(K subject) {
+        final int id = index.intern(subject);
+        store.ensureCapacity(id);
+        return id;
+    }
+
+    private void retireIfEmpty(int id) {
+        if (store.getInt(id, FLAGS) == 0) {
+            index.release(id);
+        }
+    }
+
+    private <R> R read(int id, IntFunction<R> reader) {
+        final K subject = index.subject(id);
+        if (subject == null) {
+            return null;
+        }
+        synchronized (lockOf(subject)) {
+            return index.subject(id) == subject ? reader.apply(id) : null;
+        }
+    }
+
+    private Object lockOf(Subject subject) {
+        final int h = subject.hashCode();
+        return locks[(h ^ (h >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
+    private CatalogItem<K, T> ownItem(int id) {
+        return new CompactCatalogItem<>(index.subject(id), owners.owner(store.getInt(id, OWN_OWNER)),
+                store.getLong(id, OWN_TIMESTAMP), store.has(id, OWN_DELETED), store.getLong(id, OWN_DIGEST));
+    }
+
+    private CatalogItem<K, T> loadOwnItem(int id) {
+        return loadItem(index.subject(id), owners.owner(store.getInt(id, OWN_OWNER)),
+                CompactCatalogItem.fromNanos(store.getLong(id, OWN_TIMESTAMP)), store.has(id, OWN_DELETED));
+    }
+
+    private CatalogItem<K, T> newerItem(int id) {
+        return new CompactCatalogItem<>(index.subject(id), owners.owner(store.getInt(id, NEWER_OWNER)),
+                store.getLong(id, NEWER_TIMESTAMP), store.has(id, NEWER_DELETED));
+    }
+
+    private CatalogItem<K, T> expectedItem(int id) {
+        return new CompactCatalogItem<>(index.subject(id), owners.owner(store.getInt(id, EXPECTED_OWNER)),
+                store.getLong(id, EXPECTED_TIMESTAMP), store.has(id, EXPECTED_DELETED));
+    }
+
+    private MerkleDigestTree digestOf(String topic) {
+        return digests.computeIfAbsent(topic, key -> MerkleDigestTree.untracked(key, digestDepth()));
+    }
+
+    private long digestHash(int id) {
+        if (store.has(id, NEWER)) {
+            return MerkleDigestTree.itemHash(index.subject(id), store.getLong(id, NEWER_TIMESTAMP), store.has(id, NEWER_DELETED));
+        }
+        if (store.has(id, OWN)) {
+            return MerkleDigestTree.itemHash(index.subject(id), store.getLong(id, OWN_TIMESTAMP), store.has(id, OWN_DELETED));
+        }
+        if (store.has(id, ACK)) {
+            return MerkleDigestTree.itemHash(index.subject(id), store.getLong(id, ACK_TIMESTAMP), store.has(id, ACK_DELETED));
+        }
+        return 0L;
+    }
+
+    private void redigest(int id, long before) {
+        final K subject = index.subject(id);
+        digestOf(subject.topic()).replace(subject, before, digestHash(id));
+    }
+
+    private class IdView extends AbstractCollection<CatalogItem<K, T>> {
+
+        private final int flag;
+
+        private final LongAdder count;
+
+        private final IntFunction<CatalogItem<K, T>> loader;
+
+        IdView(int flag, LongAdder count, IntFunction<CatalogItem<K, T>> loader) {
+            this.flag = flag;
+            this.count = count;
+            this.loader = loader;
+        }
+
+        @Override
+        public Iterator<CatalogItem<K, T>> iterator() {
+            return new Iterator<>() {
+
+                private int id;
+
+                private CatalogItem<K, T> next = advance();
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public CatalogItem<K, T> next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    final CatalogItem<K, T> item = next;
+                    next = advance();
+                    return item;
+                }
+
+                private CatalogItem<K, T> advance() {
+                    while (id < index.size()) {
+                        final CatalogItem<K, T> item = read(id++, found -> store.has(found, flag) ? loader.apply(found) : null);
+                        if (item != null) {
+                            return item;
+                        }
+                    }
+                    return null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.max(0L, count.sum());
+        }
+    }
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private final SubjectIndex<K> index = new SubjectIndex<>();
+
+    private final OwnerIndex<T> owners = new OwnerIndex<>();
+
+    private final CompactStore store = new CompactStore();
+
+    private final LongAdder sendCount = new LongAdder();
+
+    private final LongAdder pendingCount = new LongAdder();
+
+    private final LongAdder newerCount = new LongAdder();
+
+    private final LongAdder ackCount = new LongAdder();
+
+    private final Collection<CatalogItem<K, T>> sendView = new IdView(SEND, sendCount, this::loadOwnItem);
+
+    private final Collection<CatalogItem<K, T>> expectedView = new IdView(EXPECTED, pendingCount, this::expectedItem);
+
+    private final Map<String, MerkleDigestTree> digests = new ConcurrentHashMap<>();
+
+    protected final Map<String, Boolean> topics = new ConcurrentHashMap<>();
+
+}
@@ -0,0 +1,87 @@
+package org.example.catalog;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+class CompactStore {
+
+    static final int OWN_TIMESTAMP = 0;
+    static final int NEWER_TIMESTAMP = 8;
+    static final int EXPECTED_TIMESTAMP = 16;
+    static final int ACK_TIMESTAMP = 24;
+    static final int OWN_OWNER = 32;
+    static final int NEWER_OWNER = 36;
+    static final int EXPECTED_OWNER = 40;
+    static final int ACK_OWNER = 44;
+    static final int FLAGS = 48;
+    static final int OWN_DIGEST = 56;
+
+    static final int OWN = 1;
+    static final int OWN_DELETED = 1 << 1;
+    static final int SEND = 1 << 2;
+    static final int NEWER = 1 << 3;
+    static final int NEWER_DELETED = 1 << 4;
+    static final int EXPECTED = 1 << 5;
+    static final int EXPECTED_DELETED = 1 << 6;
+    static final int ACK = 1 << 7;
+    static final int ACK_DELETED = 1 << 8;
+
+    private static final int STRIDE = 64;
+
+    private static final int SEGMENT_BITS = 16;
+
+    private static final int SEGMENT_MASK = (1 << SEGMENT_BITS) - 1;
+
+    private volatile ByteBuffer[] segments = new ByteBuffer[16];
+
+    void ensureCapacity(int id) {
+        final int segment = id >>> SEGMENT_BITS;
+        if (segment < segments.length && segments[segment] != null) {
+            return;
+        }
+        synchronized (this) {
+            ByteBuffer[] current = segments;
+            if (segment >= current.length) {
+                current = Arrays.copyOf(current, Math.max(segment + 1, current.length * 2));
+            }
+            if (current[segment] == null) {
+                current[segment] = ByteBuffer.allocateDirect(STRIDE << SEGMENT_BITS).order(ByteOrder.nativeOrder());
+            }
+            segments = current;
+        }
+    }
+
+    long getLong(int id, int field) {
+        return segment(id).getLong(offset(id, field));
+    }
+
+    void putLong(int id, int field, long value) {
+        segment(id).putLong(offset(id, field), value);
+    }
+
+    int getInt(int id, int field) {
+        return segment(id).getInt(offset(id, field));
+    }
+
+    void putInt(int id, int field, int value) {
+        segment(id).putInt(offset(id, field), value);
+    }
+
+    boolean has(int id, int flag) {
+        return (getInt(id, FLAGS) & flag) != 0;
+    }
+
+    void set(int id, int flag, boolean value) {
+        final int flags = getInt(id, FLAGS);
+        putInt(id, FLAGS, value ? flags | flag : flags & ~flag);
+    }
+
+    private ByteBuffer segment(int id) {
+        return segments[id >>> SEGMENT_BITS];
+    }
+
+    private static int offset(int id, int field) {
+        return (id & SEGMENT_MASK) * STRIDE + field;
+    }
+}
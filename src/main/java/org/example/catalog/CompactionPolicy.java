@@ -0,0 +1,25 @@
+package org.example.catalog;
+
+import java.time.Duration;
+import java.util.Objects;
+
+public record CompactionPolicy(Duration ackTtl, Duration tombstoneTtl, int maxAckEntries, Duration interval,
+                               int maxPurgedSubjects) {
+
+    public static final int DEFAULT_MAX_PURGED_SUBJECTS = 1 << 20;
+
+    public CompactionPolicy {
+        Objects.requireNonNull(ackTtl, "ackTtl must not be null");
+        Objects.requireNonNull(tombstoneTtl, "tombstoneTtl must not be null");
+        Objects.requireNonNull(interval, "interval must not be null");
+        if (ackTtl.isNegative() || tombstoneTtl.isNegative() || maxAckEntries < 0 || interval.isNegative() || interval.isZero()
+                || maxPurgedSubjects < 0) {
+            throw new IllegalArgumentException("Invalid compaction policy: " + ackTtl + ", " + tombstoneTtl
+                    + ", " + maxAckEntries + ", " + interval + ", " + maxPurgedSubjects);
+        }
+    }
+
+    public CompactionPolicy(Duration ackTtl, Duration tombstoneTtl, int maxAckEntries, Duration interval) {
+        this(ackTtl, tombstoneTtl, maxAckEntries, interval, DEFAULT_MAX_PURGED_SUBJECTS);
+    }
+}
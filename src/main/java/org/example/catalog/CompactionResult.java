@@ -0,0 +1,4 @@
+package org.example.catalog;
+
+public record CompactionResult(long acks, long tombstones) {
+}
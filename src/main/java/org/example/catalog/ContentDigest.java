@@ -0,0 +1,61 @@
+package org.example.catalog;
+
+import java.nio.ByteBuffer;
+
+public final class ContentDigest {
+
+    public static final long NONE = 0L;
+
+    private static final long OFFSET = 0xcbf29ce484222325L;
+
+    private static final long PRIME = 0x100000001b3L;
+
+    private ContentDigest() {
+    }
+
+    public static long of(Object payload) {
+        if (payload instanceof byte[] bytes) {
+            return of(bytes);
+        } else if (payload instanceof ByteBuffer buffer) {
+            return of(buffer);
+        } else if (payload instanceof CharSequence chars) {
+            return of(chars);
+        }
+        return NONE;
+    }
+
+    public static long of(byte[] bytes) {
+        long h = OFFSET;
+        for (byte b : bytes) {
+            h = (h ^ (b & 0xff)) * PRIME;
+        }
+        return finish(h);
+    }
+
+    public static long of(ByteBuffer buffer) {
+        long h = OFFSET;
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            h = (h ^ (buffer.get(i) & 0xff)) * PRIME;
+        }
+        return finish(h);
+    }
+
+    public static long of(CharSequence chars) {
+        long h = OFFSET;
+        for (int i = 0; i < chars.length(); i++) {
+            final char c = chars.charAt(i);
+            h = (h ^ (c & 0xff)) * PRIME;
+            h = (h ^ (c >>> 8)) * PRIME;
+        }
+        return finish(h);
+    }
+
+    private static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h != NONE ? h : 1L;
+    }
+}
@@ -9,13 +9,22 @@ public class DefaultAckItem<I> implements AckItem<I> {
     private final boolean deleted;
 
     private final I by;
-    private final Instant when;
+    private final long version;
+    private Instant when;
 
     public DefaultAckItem(boolean ok, final boolean deleted, I by, Instant when) {
         this.ok = ok;
         this.deleted = deleted;
         this.by = by;
         this.when = when;
+        this.version = HybridLogicalClock.toVersion(when);
+    }
+
+    public DefaultAckItem(boolean ok, final boolean deleted, I by, long version) {
+        this.ok = ok;
+        this.deleted = deleted;
+        this.by = by;
+        this.version = version;
     }
 
     @Override
@@ -35,11 +44,21 @@ public class DefaultAckItem<I> implements AckItem<I> {
 
     @Override
     public Instant when() {
-        return when;
+        Instant current = when;
+        if (current == null) {
+            current = HybridLogicalClock.toInstant(version);
+            when = current;
+        }
+        return current;
+    }
+
+    @Override
+    public long version() {
+        return version;
     }
 
     @Override
     public String toString() {
-        return "DefaultAckItem [ok=" + ok + ", deleted=" + deleted + ", by=" + by + ", when=" + when + "]";
+        return "DefaultAckItem [ok=" + ok + ", deleted=" + deleted + ", by=" + by + ", when=" + when() + "]";
     }
 }
@@ -3,7 +3,7 @@ package org.example.catalog;
 
 import java.util.Map;
 
-public class DefaultAckReport<K, T> implements AckReport<K, T> {
+public class DefaultAckReport<K extends Subject, T> implements AckReport<K, T> {
     private final boolean ok;
     private final Map<K, AckItem<T>> items;
 
@@ -5,7 +5,11 @@ import java.util.Objects;
 
 public abstract class DefaultCatalogItem<K extends Subject, T, V> implements CatalogItem<K, T> {
 
-    private final Instant timestamp;
+    private static final long UNKNOWN_DIGEST = Long.MIN_VALUE;
+
+    private final long version;
+
+    private Instant timestamp;
 
     private final boolean deleted;
 
@@ -13,13 +17,23 @@ public abstract class DefaultCatalogItem<K extends Subject, T, V> implements Cat
 
     private final V payload;
 
+    private volatile long contentDigest = UNKNOWN_DIGEST;
+
     public DefaultCatalogItem(final Instant timestamp, final boolean deleted, final T owner, final V payload) {
         this.timestamp = Objects.requireNonNull(timestamp, "timestamp must not be null");
+        this.version = HybridLogicalClock.toVersion(timestamp);
         this.deleted = Objects.requireNonNull(deleted, "deleted must not be null");
         this.payload = Objects.requireNonNull(payload, "payload must not be null");
         this.owner = Objects.requireNonNull(owner, "owner must not be null");
     }
 
+    public DefaultCatalogItem(final long version, final boolean deleted, final T owner, final V payload) {
+        this.version = version;
+        this.deleted = deleted;
+        this.payload = Objects.requireNonNull(payload, "payload must not be null");
+        this.owner = Objects.requireNonNull(owner, "owner must not be null");
+    }
+
     @Override
     public T owner() {
         return owner;
@@ -36,11 +50,35 @@ public abstract class DefaultCatalogItem<K extends Subject, T, V> implements Cat
 
     @Override
     public Instant getTimestamp() {
-        return timestamp;
+        Instant current = timestamp;
+        if (current == null) {
+            current = HybridLogicalClock.toInstant(version);
+            timestamp = current;
+        }
+        return current;
+    }
+
+    @Override
+    public long version() {
+        return version;
+    }
+
+    @Override
+    public long contentDigest() {
+        long current = contentDigest;
+        if (current == UNKNOWN_DIGEST) {
+            current = digest(payload);
+            contentDigest = current;
+        }
+        return current;
+    }
+
+    protected long digest(V payload) {
+        return ContentDigest.of(payload);
     }
 
     @Override
     public boolean isNewerThan(CatalogItem<K, T> otherItem) {
-        return getTimestamp().isAfter(otherItem.getTimestamp());
+        return version > otherItem.version();
     }
 }
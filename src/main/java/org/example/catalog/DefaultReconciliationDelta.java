@@ -0,0 +1,146 @@
+package org.example.catalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DefaultReconciliationDelta<K extends Subject, T> implements ReconciliationDelta<K, T> {
+
+    private static final DefaultReconciliationDelta<?, ?> DISCARDING = new DefaultReconciliationDelta<Subject, Object>(List.of(), List.of(), List.of()) {
+        @Override
+        public void send(CatalogItem<Subject, Object> item) {
+        }
+
+        @Override
+        public void expect(CatalogItem<Subject, Object> item) {
+        }
+
+        @Override
+        public void supersede(CatalogItem<Subject, Object> item) {
+        }
+
+        @Override
+        public void touch(CatalogItem<Subject, Object> item) {
+        }
+
+        @Override
+        void count(ReconcileOutcome outcome) {
+        }
+    };
+
+    private final List<CatalogItem<K, T>> toSend;
+
+    private final List<CatalogItem<K, T>> toExpect;
+
+    private final List<CatalogItem<K, T>> superseded;
+
+    private final List<CatalogItem<K, T>> touched = new ArrayList<>();
+
+    private final Map<K, Integer> expectedAt = new HashMap<>();
+
+    private final long[] outcomes = new long[ReconcileOutcome.values().length];
+
+    public DefaultReconciliationDelta() {
+        this(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+    }
+
+    public DefaultReconciliationDelta(List<CatalogItem<K, T>> toSend,
+                                      List<CatalogItem<K, T>> toExpect,
+                                      List<CatalogItem<K, T>> superseded) {
+        this.toSend = toSend;
+        this.toExpect = toExpect;
+        this.superseded = superseded;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K extends Subject, T> DefaultReconciliationDelta<K, T> discarding() {
+        return (DefaultReconciliationDelta<K, T>) DISCARDING;
+    }
+
+    public void send(CatalogItem<K, T> item) {
+        toSend.add(item);
+    }
+
+    public void expect(CatalogItem<K, T> item) {
+        if (expectedAt.size() != toExpect.size()) {
+            expectedAt.clear();
+            for (int i = 0; i < toExpect.size(); i++) {
+                expectedAt.put(toExpect.get(i).subject(), i);
+            }
+        }
+        final Integer index = expectedAt.putIfAbsent(item.subject(), toExpect.size());
+        if (index == null) {
+            toExpect.add(item);
+        } else if (item.isNewerThan(toExpect.get(index))) {
+            toExpect.set(index, item);
+        }
+    }
+
+    public void supersede(CatalogItem<K, T> item) {
+        superseded.add(item);
+    }
+
+    public void touch(CatalogItem<K, T> item) {
+        touched.add(item);
+    }
+
+    /**
+     * Appends the other delta, which must cover a disjoint set of subjects.
+     */
+    public DefaultReconciliationDelta<K, T> merge(DefaultReconciliationDelta<K, T> other) {
+        toSend.addAll(other.toSend);
+        toExpect.addAll(other.toExpect);
+        superseded.addAll(other.superseded);
+        touched.addAll(other.touched);
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] += other.outcomes[i];
+        }
+        return this;
+    }
+
+    void count(ReconcileOutcome outcome) {
+        outcomes[outcome.ordinal()]++;
+    }
+
+    long[] outcomes() {
+        return outcomes;
+    }
+
+    void commit(CatalogSyncEvent event, int items) {
+        if (event.shouldCommit()) {
+            event.items = items;
+            event.outcomes(outcomes);
+            event.toSend = toSend.size();
+            event.toExpect = toExpect.size();
+            event.commit();
+        }
+    }
+
+    @Override
+    public Collection<CatalogItem<K, T>> toSend() {
+        return toSend;
+    }
+
+    @Override
+    public Collection<CatalogItem<K, T>> toExpect() {
+        return toExpect;
+    }
+
+    @Override
+    public Collection<CatalogItem<K, T>> superseded() {
+        return superseded;
+    }
+
+    @Override
+    public Collection<CatalogItem<K, T>> touched() {
+        return touched;
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultReconciliationDelta [toSend=" + toSend.size() + ", toExpect=" + toExpect.size()
+                + ", superseded=" + superseded.size() + ", touched=" + touched.size() + "]";
+    }
+}
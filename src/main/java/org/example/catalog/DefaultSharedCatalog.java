@@ -1,84 +1,426 @@
 package org.example.catalog;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public abstract class DefaultSharedCatalog<K extends Subject, T> extends AbstractSharedCatalog<K, T> implements DigestSyncCatalog<K, T> {
 
-public abstract class DefaultSharedCatalog<K extends Subject, T> extends AbstractSharedCatalog<K, T> {
+    private final static Logger LOGGER = LoggerFactory.getLogger(DefaultSharedCatalog.class);
 
     public DefaultSharedCatalog(T owner) {
+        this(owner, null, null);
+    }
+
+    public DefaultSharedCatalog(T owner, CatalogJournal<K, T> journal) {
+        this(owner, journal, null);
+    }
+
+    public DefaultSharedCatalog(T owner, WriteBehindStore<K, T> store) {
+        this(owner, null, store);
+    }
+
+    public DefaultSharedCatalog(T owner, CatalogJournal<K, T> journal, WriteBehindStore<K, T> store) {
         super(owner);
+        this.journal = journal;
+        this.store = store;
+        if (store != null) {
+            store.checkpointFrom(this::writeState);
+        }
+        this.checkpointer = journal == null ? null : Executors.newSingleThreadExecutor(task -> {
+            final Thread thread = new Thread(task, "catalog-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void start() {
+        journaling = false;
+        super.start();
+        if (journal != null) {
+            journal.recover(this::replay);
+        }
+        if (store != null) {
+            store.store().load(this::replay);
+        }
+        journaling = journal != null || store != null;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        if (checkpointer != null) {
+            checkpointer.shutdown();
+        }
+    }
+
+    public void checkpoint() {
+        if (journal != null) {
+            journal.checkpoint(this::writeState);
+        }
+    }
+
+    private void writeState(Consumer<JournalRecord<K, T>> sink) {
+        states.values().forEach(state -> {
+            synchronized (state) {
+                if (state.own != null) {
+                    sink.accept(JournalRecord.of(JournalRecord.Type.SEND, state.subject, state.send));
+                }
+                if (state.newer != null) {
+                    sink.accept(JournalRecord.of(JournalRecord.Type.NEWER, state.subject, state.newer));
+                }
+                if (state.expected != null) {
+                    sink.accept(JournalRecord.of(JournalRecord.Type.EXPECTED, state.subject, state.expected));
+                    state.pending.forEach(peer -> sink.accept(peerRecord(JournalRecord.Type.PEER_JOINED, state.subject, peer)));
+                }
+                if (state.ack != null) {
+                    sink.accept(JournalRecord.of(state.subject, state.ack));
+                }
+            }
+        });
+        purged.forEach((subject, tombstone) -> sink.accept(JournalRecord.of(JournalRecord.Type.PURGED, subject, tombstone)));
+    }
+
+    @Override
+    protected boolean reconcilesAtomically() {
+        return true;
+    }
+
+    @Override
+    protected ReconcileOutcome reconcileItem(CatalogItem<K, T> otherItem, DefaultReconciliationDelta<K, T> delta) {
+        final K subject = otherItem.subject();
+        if (!purged.isEmpty() && !otherItem.isDeleted() && isBeyondHorizon(otherItem) && !states.containsKey(subject)) {
+            metrics().resurrectionBlocked();
+            return ReconcileOutcome.UNKNOWN;
+        }
+        while (true) {
+            final SubjectState<K, T> state = stateOf(subject, !otherItem.isDeleted());
+            if (state == null) {
+                return ReconcileOutcome.UNKNOWN;
+            }
+            AckItem<T> touched = null;
+            final ReconcileOutcome outcome;
+            synchronized (state) {
+                if (state.retired) {
+                    continue;
+                }
+                final CatalogItem<K, T> myItem = state.own;
+                final ReconcileOutcome transition = ReconcileOutcome.of(otherItem, myItem,
+                        dedupesPayloads() && state.expected == null ? currentOf(state) : null);
+                switch (transition) {
+                    case NEWER_FOREIGN -> {
+                        setSend(state, null);
+                        if (expect(state, otherItem)) {
+                            setNewer(state, otherItem);
+                            delta.supersede(myItem);
+                            delta.expect(otherItem);
+                            expecting(otherItem);
+                        }
+                    }
+                    case TOUCHED_FOREIGN -> {
+                        setSend(state, null);
+                        if (state.newer == null) {
+                            delta.supersede(myItem);
+                        }
+                        setNewer(state, otherItem);
+                        touched = new DefaultAckItem<>(true, otherItem.isDeleted(), otherItem.owner(), otherItem.version());
+                        setAck(state, touched);
+                        delta.touch(otherItem);
+                    }
+                    case OLDER_FOREIGN -> setSend(state, null);
+                    case DELETED_FOREIGN -> {
+                        if (state.newer == null) {
+                            setSend(state, myItem);
+                            delta.send(myItem);
+                        }
+                    }
+                    case UNKNOWN -> {
+                        if (!otherItem.isDeleted() && expect(state, otherItem)) {
+                            delta.expect(otherItem);
+                            expecting(otherItem);
+                        }
+                    }
+                    default -> {
+                    }
+                }
+                retireIfEmpty(state);
+                publish(state);
+                outcome = transition;
+            }
+            if (touched != null) {
+                acknowledge(subject, touched);
+            }
+            return outcome;
+        }
+    }
+
+    public CompactionResult compact(CompactionPolicy policy) {
+        final long started = System.nanoTime();
+        final long now = System.currentTimeMillis();
+        final long ackDeadline = now - policy.ackTtl().toMillis();
+        final long tombstoneDeadline = HybridLogicalClock.toVersion(Instant.ofEpochMilli(now).minus(policy.tombstoneTtl()));
+        long acks = 0;
+        long tombstones = 0;
+        for (SubjectState<K, T> state : states.values()) {
+            synchronized (state) {
+                if (state.retired || state.expected != null) {
+                    continue;
+                }
+                final CatalogItem<K, T> current = state.own != null ? currentOf(state) : null;
+                if (current != null && current.isDeleted() && state.send == null && current.version() <= tombstoneDeadline) {
+                    acks += state.ack != null ? 1 : 0;
+                    purgeTombstone(state, current);
+                    tombstones++;
+                } else if (state.ack != null && state.ackedAt <= ackDeadline) {
+                    setAck(state, null);
+                    acks++;
+                }
+                retireIfEmpty(state);
+                publish(state);
+            }
+        }
+        acks += evictAcks(policy.maxAckEntries());
+        final long forgotten = evictPurged(policy.maxPurgedSubjects());
+        if (forgotten > 0) {
+            LOGGER.debug("Forgot purge horizons of {} subjects", forgotten);
+        }
+        final CompactionResult result = new CompactionResult(acks, tombstones);
+        metrics().compacted(result, started);
+        LOGGER.debug("Compacted {} ack records and {} tombstones", acks, tombstones);
+        return result;
+    }
+
+    public Closeable scheduleCompaction(CompactionPolicy policy) {
+        final ScheduledExecutorService compactor = Executors.newSingleThreadScheduledExecutor(task -> {
+            final Thread thread = new Thread(task, "catalog-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            try {
+                compact(policy);
+            } catch (RuntimeException e) {
+                LOGGER.error("Catalog compaction failed", e);
+            }
+        }, policy.interval().toMillis(), policy.interval().toMillis(), TimeUnit.MILLISECONDS);
+        return compactor::shutdown;
+    }
+
+    @Override
+    public CatalogSnapshot<K, T> snapshot() {
+        snapshotLock.lock();
+        try {
+            CatalogSnapshot<K, T> current = snapshotting ? held.get() : null;
+            if (current == null) {
+                snapshotting = true;
+                dirty.clear();
+                current = CatalogSnapshot.empty();
+                for (K subject : states.keySet()) {
+                    current = current.with(subject, viewOf(subject));
+                }
+            }
+            for (Iterator<K> subjects = dirty.iterator(); subjects.hasNext(); ) {
+                final K subject = subjects.next();
+                subjects.remove();
+                current = current.with(subject, viewOf(subject));
+            }
+            held = new WeakReference<>(current);
+            return current;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    protected void registerGauges(CatalogMetrics metrics) {
+        metrics.registerGauge(CatalogMetrics.SEND, sendCount::sum);
+        metrics.registerGauge(CatalogMetrics.EXPECTED, pendingCount::sum);
+        metrics.registerGauge(CatalogMetrics.NEWER, newerCount::sum);
+        metrics.registerGauge(CatalogMetrics.ACK, () -> okCount.sum() + deletedCount.sum());
+    }
+
+    public void acknowledgeEveryPeer() {
+        everyPeer = true;
+    }
+
+    @Override
+    protected AckItem<T> completeExpectation(CatalogItem<K, T> otherItem) {
+        final K subject = otherItem.subject();
+        while (true) {
+            final SubjectState<K, T> state = stateOf(subject, false);
+            if (state == null) {
+                return null;
+            }
+            synchronized (state) {
+                if (state.retired) {
+                    continue;
+                }
+                final CatalogItem<K, T> found = state.expected;
+                if (found == null || found.isDeleted() != otherItem.isDeleted()) {
+                    return null;
+                }
+                if (everyPeer) {
+                    final int peer = peers.find(otherItem.owner());
+                    if (!state.pending.contains(peer)) {
+                        return null;
+                    }
+                    setPending(state, state.pending.without(peer));
+                } else {
+                    setPending(state, PeerSet.EMPTY);
+                }
+                if (!state.pending.isEmpty()) {
+                    publish(state);
+                    return null;
+                }
+                final AckItem<T> ackItem = new DefaultAckItem<>(true, otherItem.isDeleted(), found.owner(), found.version());
+                setExpected(state, null);
+                setAck(state, ackItem);
+                publish(state);
+                return ackItem;
+            }
+        }
     }
 
     @Override
     public Optional<CatalogItem<K, T>> findInMyList(final CatalogItem<K, T> otherItem) {
-        return Optional.ofNullable(ownList.get(otherItem.subject()));
+        return Optional.ofNullable(ownView.get(otherItem.subject()));
     }
 
     @Override
     protected void addToNewerList(CatalogItem<K, T> item) {
-        newerList.put(item.subject(), item);
+        update(item.subject(), true, state -> setNewer(state, item));
     }
 
     @Override
     protected boolean existsInNewerList(CatalogItem<K, T> item) {
-        return newerList.containsKey(item.subject());
+        return newerView.containsKey(item.subject());
     }
 
     @Override
     public void addToSendList(final CatalogItem<K, T> item) {
-        sendList.put(item.subject(), item);
+        update(item.subject(), true, state -> setSend(state, item));
     }
 
     @Override
     public void removeFromSendList(final CatalogItem<K, T> item) {
-        sendList.remove(item.subject());
+        update(item.subject(), false, state -> setSend(state, null));
     }
 
     @Override
     public void addToExpectedList(final CatalogItem<K, T> item) {
-        expectedList.put(item.subject(), item);
+        update(item.subject(), true, state -> setExpected(state, item));
     }
 
     @Override
     protected Optional<CatalogItem<K, T>> removeFromExpectedList(CatalogItem<K, T> item) {
-        return Optional.ofNullable(expectedList.remove(item.subject()));
+        return Optional.ofNullable(update(item.subject(), false, state -> setExpected(state, null)));
     }
 
     @Override
     public Collection<CatalogItem<K, T>> getItemsToShare() {
-        return sendList.values();
+        return sendView.values();
     }
 
     @Override
     protected boolean saveAckStatus(K id, AckItem<T> status) {
-        return ackList.put(id, status) == null;
+        return update(id, true, state -> setAck(state, status)) == null;
+    }
+
+    @Override
+    public AckReport<K, T> getAckReport() {
+        final long version = ackChanges.sum();
+        final VersionedAckReport<K, T> report = ackReport.get();
+        if (report != null && report.version() == version) {
+            return report;
+        }
+        final VersionedAckReport<K, T> versioned = new VersionedAckReport<>(this::snapshot, version, peers::owner);
+        ackReport = new WeakReference<>(versioned);
+        return versioned;
     }
 
     @Override
     protected Map<K, AckItem<T>> fetchAckState() {
-        return new HashMap<>(ackList);
+        return new HashMap<>(ackView);
     }
 
     @Override
     protected Collection<CatalogItem<K, T>> fetchExpectedList() {
-        return expectedList.values();
+        return expectedView.values();
     }
 
     @Override
     protected Optional<CatalogItem<K, T>> fromExpectedList(CatalogItem<K, T> item) {
-        return Optional.ofNullable(expectedList.get(item.subject()));
+        return Optional.ofNullable(expectedView.get(item.subject()));
+    }
+
+    @Override
+    protected void clearMyOwnList() {
+        List.copyOf(ownKeys).forEach(subject -> update(subject, false, state -> setOwn(state, null)));
+    }
+
+    @Override
+    protected void addToMyOwnList(CatalogItem<K, T> item) {
+        update(item.subject(), true, state -> setOwn(state, item));
+    }
+
+    @Override
+    protected void bootstrapItem(CatalogItem<K, T> item, boolean share) {
+        update(item.subject(), true, state -> {
+            setOwn(state, item);
+            return share ? setSend(state, item) : null;
+        });
+    }
+
+    @Override
+    public ChangePage<K, T> getItemsChangedSince(ChangeCursor cursor, int limit) {
+        return changes.page(cursor, limit);
     }
 
     @Override
-    protected Collection<CatalogItem<K, T>> setMyOwnList(Collection<CatalogItem<K, T>> catalogItems) {
-        ownList.clear();
-        catalogItems.forEach(item -> {
-            ownList.put(item.subject(), item);
+    public CatalogDigest getCatalogDigest(String topic) {
+        return digestOf(topic);
+    }
+
+    @Override
+    public Collection<CatalogItem<K, T>> getItemsInRanges(List<DigestRange> ranges) {
+        final Map<K, CatalogItem<K, T>> items = new LinkedHashMap<>();
+        ranges.forEach(range -> {
+            final MerkleDigestTree digest = digests.get(range.topic());
+            if (digest != null) {
+                digest.subjects(range, subject -> {
+                    final SubjectState<K, T> state = states.get(subject);
+                    final CatalogItem<K, T> current = state != null ? currentOf(state) : null;
+                    if (current != null) {
+                        items.putIfAbsent(current.subject(), current);
+                    }
+                });
+            }
         });
-        return ownList.values();
+        return items.values();
     }
 
     @Override
@@ -86,13 +428,412 @@ public abstract class DefaultSharedCatalog<K extends Subject, T> extends Abstrac
         return topics.keySet();
     }
 
-    private final Map<K, CatalogItem<K, T>> ownList = new ConcurrentHashMap<>();
-    private final Map<K, CatalogItem<K, T>> sendList = new ConcurrentHashMap<>();
-    private final Map<K, CatalogItem<K, T>> expectedList = new ConcurrentHashMap<>();
+    private <R> R update(K subject, boolean create, Function<SubjectState<K, T>, R> transition) {
+        while (true) {
+            final SubjectState<K, T> state = stateOf(subject, create);
+            if (state == null) {
+                return null;
+            }
+            synchronized (state) {
+                if (!state.retired) {
+                    final R result = transition.apply(state);
+                    retireIfEmpty(state);
+                    publish(state);
+                    return result;
+                }
+            }
+        }
+    }
+
+    private SubjectState<K, T> stateOf(K subject, boolean create) {
+        final SubjectState<K, T> state = states.get(subject);
+        return state != null || !create ? state : states.computeIfAbsent(subject, SubjectState::new);
+    }
+
+    private void retireIfEmpty(SubjectState<K, T> state) {
+        if (state.isEmpty()) {
+            state.retired = true;
+            states.remove(state.subject, state);
+        }
+    }
+
+    private void publish(SubjectState<K, T> state) {
+        final long digest = digestHash(state);
+        if (digest != state.digest) {
+            digestOf(state.subject.topic()).replace(state.subject, state.digest, digest);
+            state.digest = digest;
+        }
+        if (snapshotting) {
+            dirty.add(state.subject);
+            if (held.get() == null) {
+                releaseSnapshot();
+            }
+        }
+    }
+
+    private void releaseSnapshot() {
+        if (!snapshotLock.tryLock()) {
+            return;
+        }
+        try {
+            if (held.get() == null) {
+                snapshotting = false;
+                dirty.clear();
+            }
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private CatalogSnapshot.View<K, T> viewOf(K subject) {
+        final SubjectState<K, T> state = states.get(subject);
+        if (state == null) {
+            return null;
+        }
+        synchronized (state) {
+            final CatalogSnapshot.View<K, T> view = new CatalogSnapshot.View<>(state.send, state.expected, state.ack, state.pending);
+            return state.retired || view.isEmpty() ? null : view;
+        }
+    }
+
+    private CatalogItem<K, T> setOwn(SubjectState<K, T> state, CatalogItem<K, T> item) {
+        final CatalogItem<K, T> previous = state.own;
+        count(ownCount, ownKeys, state.subject, previous, item);
+        state.own = item;
+        changes.replace(previous, item);
+        return previous;
+    }
+
+    private CatalogItem<K, T> setSend(SubjectState<K, T> state, CatalogItem<K, T> item) {
+        final CatalogItem<K, T> previous = state.send;
+        count(sendCount, sendKeys, state.subject, previous, item);
+        state.send = item;
+        if (item != null && previous != item) {
+            shareAdded(item);
+        } else if (item == null && previous != null) {
+            shareRemoved(previous);
+        }
+        if (journaling && previous != item) {
+            journal(JournalRecord.of(JournalRecord.Type.SEND, state.subject, item));
+        }
+        return previous;
+    }
+
+    private CatalogItem<K, T> setNewer(SubjectState<K, T> state, CatalogItem<K, T> item) {
+        final CatalogItem<K, T> previous = state.newer;
+        count(newerCount, newerKeys, state.subject, previous, item);
+        state.newer = item;
+        if (journaling) {
+            journal(JournalRecord.of(JournalRecord.Type.NEWER, state.subject, item));
+        }
+        return previous;
+    }
+
+    private CatalogItem<K, T> setExpected(SubjectState<K, T> state, CatalogItem<K, T> item) {
+        final CatalogItem<K, T> previous = state.expected;
+        if (previous == item) {
+            return previous;
+        }
+        count(pendingCount, expectedKeys, state.subject, previous, item);
+        ackChanges.increment();
+        setPending(state, PeerSet.EMPTY);
+        state.expected = item;
+        if (journaling) {
+            journal(JournalRecord.of(JournalRecord.Type.EXPECTED, state.subject, item));
+        }
+        if (item != null && state.ack != null) {
+            setAck(state, null);
+        }
+        return previous;
+    }
+
+    private AckItem<T> setAck(SubjectState<K, T> state, AckItem<T> ackItem) {
+        final AckItem<T> previous = state.ack;
+        if (previous != null) {
+            (previous.deleted() ? deletedCount : okCount).decrement();
+        }
+        if (ackItem != null) {
+            (ackItem.deleted() ? deletedCount : okCount).increment();
+        }
+        if (previous != ackItem) {
+            ackChanges.increment();
+        }
+        if (ackItem != null) {
+            ackKeys.add(state.subject);
+        } else if (previous != null) {
+            ackKeys.remove(state.subject);
+        }
+        state.ack = ackItem;
+        state.ackedAt = ackItem != null ? System.currentTimeMillis() : 0L;
+        if (journaling && previous != ackItem) {
+            journal(JournalRecord.of(state.subject, ackItem));
+        }
+        return previous;
+    }
+
+    private void purgeTombstone(SubjectState<K, T> state, CatalogItem<K, T> tombstone) {
+        setAck(state, null);
+        if (state.newer != null) {
+            setNewer(state, null);
+        }
+        setOwn(state, null);
+        purged.merge(state.subject, tombstone, (previous, added) -> added.isNewerThan(previous) ? added : previous);
+        if (journaling) {
+            journal(JournalRecord.of(JournalRecord.Type.PURGED, state.subject, tombstone));
+        }
+    }
+
+    private boolean isBeyondHorizon(CatalogItem<K, T> otherItem) {
+        final CatalogItem<K, T> tombstone = purged.get(otherItem.subject());
+        return tombstone != null && !otherItem.isNewerThan(tombstone);
+    }
+
+    private long evictPurged(int maxEntries) {
+        final int excess = purged.size() - maxEntries;
+        if (excess <= 0) {
+            return 0;
+        }
+        final List<CatalogItem<K, T>> oldest = purged.values().stream()
+                .sorted(Comparator.comparingLong(CatalogItem::version))
+                .limit(excess)
+                .toList();
+        oldest.forEach(tombstone -> {
+            if (purged.remove(tombstone.subject(), tombstone) && journaling) {
+                journal(JournalRecord.of(JournalRecord.Type.PURGED, tombstone.subject(), null));
+            }
+        });
+        return oldest.size();
+    }
+
+    private long evictAcks(int maxEntries) {
+        final long excess = okCount.sum() + deletedCount.sum() - maxEntries;
+        if (excess <= 0) {
+            return 0;
+        }
+        final List<SubjectState<K, T>> acknowledged = new ArrayList<>();
+        ackKeys.forEach(subject -> {
+            final SubjectState<K, T> state = states.get(subject);
+            if (state != null && state.ack != null && state.expected == null) {
+                acknowledged.add(state);
+            }
+        });
+        acknowledged.sort(Comparator.comparingLong(state -> state.ackedAt));
+        long evicted = 0;
+        for (SubjectState<K, T> state : acknowledged) {
+            if (evicted >= excess) {
+                break;
+            }
+            synchronized (state) {
+                if (!state.retired && state.ack != null && state.expected == null) {
+                    setAck(state, null);
+                    retireIfEmpty(state);
+                    publish(state);
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    private void replay(JournalRecord<K, T> record) {
+        if (record.type() == JournalRecord.Type.PURGED) {
+            if (record.present()) {
+                purged.put(record.subject(), item(record));
+            } else {
+                purged.remove(record.subject());
+            }
+            return;
+        }
+        update(record.subject(), true, state -> {
+            switch (record.type()) {
+                case SEND -> setSend(state, record.present() ? state.own : null);
+                case NEWER -> setNewer(state, item(record));
+                case EXPECTED -> setExpected(state, item(record));
+                case ACK -> setAck(state, record.present()
+                        ? new DefaultAckItem<>(true, record.deleted(), record.owner(), HybridLogicalClock.toVersion(record.timestamp()))
+                        : null);
+                case PEER_JOINED -> setPending(state, state.pending.with(peers.intern(record.owner())));
+                case PEER_LEFT -> setPending(state, state.pending.without(peers.intern(record.owner())));
+                default -> {
+                }
+            }
+            return null;
+        });
+    }
+
+    private CatalogItem<K, T> item(JournalRecord<K, T> record) {
+        return record.present()
+                ? (journal != null ? journal.codec() : store.store().codec())
+                        .item(record.subject(), record.owner(), record.timestamp(), record.deleted())
+                : null;
+    }
+
+    private boolean expect(SubjectState<K, T> state, CatalogItem<K, T> otherItem) {
+        final int peer = peers.intern(otherItem.owner());
+        final CatalogItem<K, T> current = state.expected;
+        if (current != null && !otherItem.isNewerThan(current)) {
+            if (!current.isNewerThan(otherItem)) {
+                setPending(state, state.pending.with(peer));
+            }
+            return false;
+        }
+        setExpected(state, otherItem);
+        setPending(state, PeerSet.of(peer));
+        return true;
+    }
+
+    private void setPending(SubjectState<K, T> state, PeerSet pending) {
+        final PeerSet previous = state.pending;
+        if (previous == pending) {
+            return;
+        }
+        previous.forEach(peer -> {
+            if (journaling && !pending.contains(peer)) {
+                journal(peerRecord(JournalRecord.Type.PEER_LEFT, state.subject, peer));
+            }
+        });
+        pending.forEach(peer -> {
+            if (journaling && !previous.contains(peer)) {
+                journal(peerRecord(JournalRecord.Type.PEER_JOINED, state.subject, peer));
+            }
+        });
+        ackChanges.increment();
+        state.pending = pending;
+    }
+
+    @Override
+    Collection<T> pendingPeers(CatalogItem<K, T> item) {
+        final SubjectState<K, T> state = states.get(item.subject());
+        final PeerSet pending = state != null ? state.pending : PeerSet.EMPTY;
+        if (pending.isEmpty()) {
+            return List.of(item.owner());
+        }
+        final List<T> owners = new ArrayList<>(pending.size());
+        pending.forEach(peer -> owners.add(peers.owner(peer)));
+        return owners;
+    }
+
+    @Override
+    protected boolean expects(K subject) {
+        final SubjectState<K, T> state = states.get(subject);
+        return state != null && state.expected != null;
+    }
+
+    @Override
+    protected long expectedCount() {
+        return pendingCount.sum();
+    }
+
+    private JournalRecord<K, T> peerRecord(JournalRecord.Type type, K subject, int peer) {
+        return new JournalRecord<>(type, subject, true, peers.owner(peer), Instant.EPOCH, false);
+    }
+
+    private void journal(JournalRecord<K, T> record) {
+        if (journal != null && journal.append(record)) {
+            checkpointer.execute(() -> {
+                try {
+                    checkpoint();
+                } catch (RuntimeException e) {
+                    LOGGER.error("Catalog checkpoint failed", e);
+                }
+            });
+        }
+        if (store != null) {
+            store.write(record);
+        }
+    }
+
+    private static <K> void count(LongAdder counter, Set<K> keys, K subject, Object previous, Object current) {
+        if (previous == null && current != null) {
+            counter.increment();
+            keys.add(subject);
+        } else if (previous != null && current == null) {
+            counter.decrement();
+            keys.remove(subject);
+        }
+    }
+
+    private CatalogItem<K, T> currentOf(SubjectState<K, T> state) {
+        final CatalogItem<K, T> newer = state.newer;
+        return newer != null ? newer : state.own;
+    }
+
+    private long digestHash(SubjectState<K, T> state) {
+        final CatalogItem<K, T> current = currentOf(state);
+        if (current != null) {
+            return MerkleDigestTree.itemHash(current);
+        }
+        final AckItem<T> ack = state.ack;
+        return ack != null ? MerkleDigestTree.itemHash(state.subject, ack.version(), ack.deleted()) : 0L;
+    }
+
+    private MerkleDigestTree digestOf(String topic) {
+        return digests.computeIfAbsent(topic, key -> new MerkleDigestTree(key, digestDepth()));
+    }
+
+    private final CatalogJournal<K, T> journal;
+
+    private final WriteBehindStore<K, T> store;
+
+    private final ExecutorService checkpointer;
+
+    private volatile boolean journaling;
+
+    private final Map<K, SubjectState<K, T>> states = new ConcurrentHashMap<>();
+
+    private final OwnerIndex<T> peers = new OwnerIndex<>();
+
+    private final Map<K, CatalogItem<K, T>> purged = new ConcurrentHashMap<>();
+
+    private final LongAdder ownCount = new LongAdder();
+
+    private final LongAdder sendCount = new LongAdder();
+
+    private final LongAdder newerCount = new LongAdder();
+
+    private final LongAdder pendingCount = new LongAdder();
+
+    private final LongAdder okCount = new LongAdder();
+
+    private final LongAdder deletedCount = new LongAdder();
+
+    private final Set<K> ownKeys = ConcurrentHashMap.newKeySet();
+
+    private final Set<K> sendKeys = ConcurrentHashMap.newKeySet();
+
+    private final Set<K> newerKeys = ConcurrentHashMap.newKeySet();
+
+    private final Set<K> expectedKeys = ConcurrentHashMap.newKeySet();
+
+    private final Set<K> ackKeys = ConcurrentHashMap.newKeySet();
+
+    private final Map<K, CatalogItem<K, T>> ownView = new StateMap<>(states, ownKeys, state -> state.own);
+
+    private final Map<K, CatalogItem<K, T>> sendView = new StateMap<>(states, sendKeys, state -> state.send);
+
+    private final Map<K, CatalogItem<K, T>> newerView = new StateMap<>(states, newerKeys, state -> state.newer);
+
+    private final Map<K, CatalogItem<K, T>> expectedView = new StateMap<>(states, expectedKeys, state -> state.expected);
+
+    private final Map<K, AckItem<T>> ackView = new StateMap<>(states, ackKeys, state -> state.ack);
+
+    private final ChangeIndex<K, T> changes = new ChangeIndex<>(subject -> ownView.get(subject));
+
+    private final LongAdder ackChanges = new LongAdder();
+
+    private volatile WeakReference<VersionedAckReport<K, T>> ackReport = new WeakReference<>(null);
+
+    private volatile boolean snapshotting;
+
+    private volatile boolean everyPeer;
+
+    private final Set<K> dirty = ConcurrentHashMap.newKeySet();
+
+    private final Lock snapshotLock = new ReentrantLock();
 
-    private final Map<K, CatalogItem<K, T>> newerList = new ConcurrentHashMap<>();
+    private volatile WeakReference<CatalogSnapshot<K, T>> held = new WeakReference<>(null);
 
-    private final Map<K, AckItem<T>> ackList = new ConcurrentHashMap<>();
+    private final Map<String, MerkleDigestTree> digests = new ConcurrentHashMap<>();
 
     protected final Map<String, Boolean> topics = new ConcurrentHashMap<>();
 
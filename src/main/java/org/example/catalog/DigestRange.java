@@ -0,0 +1,9 @@
+package org.example.catalog;
+
+public record DigestRange(String topic, int depth, int level, int index) {
+
+    public boolean contains(Subject subject) {
+        return topic.equals(subject.topic())
+                && MerkleDigestTree.leafOf(subject, depth) >>> (4 * (depth - level)) == index;
+    }
+}
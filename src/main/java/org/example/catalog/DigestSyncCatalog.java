@@ -0,0 +1,16 @@
+package org.example.catalog;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface DigestSyncCatalog<K extends Subject, T> extends SharedCatalog<K, T> {
+
+    CatalogDigest getCatalogDigest(String topic);
+
+    default List<DigestRange> diffCatalogDigest(CatalogDigest otherDigest) {
+        return MerkleDigestTree.diff(getCatalogDigest(otherDigest.topic()), otherDigest);
+    }
+
+    Collection<CatalogItem<K, T>> getItemsInRanges(List<DigestRange> ranges);
+
+}
@@ -0,0 +1,82 @@
+package org.example.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the highest version observed from peers, ignoring versions too far ahead of the local clock.
+ */
+public class HybridLogicalClock {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(HybridLogicalClock.class);
+
+    public static final Duration DEFAULT_MAX_DRIFT = Duration.ofMinutes(1);
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private static final long MAX_SECONDS = Long.MAX_VALUE / NANOS_PER_SECOND;
+
+    private static final long MIN_SECONDS = Long.MIN_VALUE / NANOS_PER_SECOND;
+
+    private final AtomicLong last = new AtomicLong();
+
+    private final LongSupplier physicalTime;
+
+    private volatile long maxDrift = DEFAULT_MAX_DRIFT.toNanos();
+
+    public HybridLogicalClock() {
+        this(() -> System.currentTimeMillis() * NANOS_PER_MILLI);
+    }
+
+    public HybridLogicalClock(LongSupplier physicalTime) {
+        this.physicalTime = physicalTime;
+    }
+
+    public boolean observe(long version) {
+        final long physical = physicalTime.getAsLong();
+        if (version - physical > maxDrift) {
+            LOGGER.warn("Ignoring version {} that is {} ahead of the local clock", version,
+                    Duration.ofNanos(version - physical));
+            return false;
+        }
+        long previous = last.get();
+        while (version > previous && !last.compareAndSet(previous, version)) {
+            previous = last.get();
+        }
+        return true;
+    }
+
+    public void maxDrift(Duration maxDrift) {
+        this.maxDrift = maxDrift.toNanos();
+    }
+
+    public long last() {
+        return last.get();
+    }
+
+    /**
+     * Instants outside the range a long holds in nanoseconds (years 1677 to 2262) saturate to the extreme versions.
+     */
+    public static long toVersion(Instant instant) {
+        final long seconds = instant.getEpochSecond();
+        if (seconds > MAX_SECONDS) {
+            return Long.MAX_VALUE;
+        }
+        if (seconds < MIN_SECONDS) {
+            return Long.MIN_VALUE;
+        }
+        final long base = seconds * NANOS_PER_SECOND;
+        return base > 0 && instant.getNano() > Long.MAX_VALUE - base ? Long.MAX_VALUE : base + instant.getNano();
+    }
+
+    public static Instant toInstant(long version) {
+        return Instant.ofEpochSecond(Math.floorDiv(version, NANOS_PER_SECOND), Math.floorMod(version, NANOS_PER_SECOND));
+    }
+}
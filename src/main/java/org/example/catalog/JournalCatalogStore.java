@@ -0,0 +1,48 @@
+package org.example.catalog;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+public class JournalCatalogStore<K extends Subject, T> implements CatalogStore<K, T>, Closeable {
+
+    private final CatalogJournal<K, T> journal;
+
+    public JournalCatalogStore(CatalogJournal<K, T> journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public JournalCodec<K, T> codec() {
+        return journal.codec();
+    }
+
+    @Override
+    public boolean write(Collection<JournalRecord<K, T>> records) {
+        boolean checkpoint = false;
+        for (JournalRecord<K, T> record : records) {
+            checkpoint |= journal.append(record);
+        }
+        return checkpoint;
+    }
+
+    @Override
+    public void sync() {
+        journal.sync();
+    }
+
+    @Override
+    public void load(Consumer<JournalRecord<K, T>> consumer) {
+        journal.recover(consumer);
+    }
+
+    @Override
+    public void checkpoint(Consumer<Consumer<JournalRecord<K, T>>> state) {
+        journal.checkpoint(state);
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.catalog;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+public interface JournalCodec<K extends Subject, T> {
+
+    K subject(String topic, String id);
+
+    void writeOwner(ByteBuffer buffer, T owner);
+
+    T readOwner(ByteBuffer buffer);
+
+    CatalogItem<K, T> item(K subject, T owner, Instant timestamp, boolean deleted);
+
+}
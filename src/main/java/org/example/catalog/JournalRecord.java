@@ -0,0 +1,29 @@
+package org.example.catalog;
+
+import java.time.Instant;
+
+public record JournalRecord<K extends Subject, T>(Type type, K subject, boolean present, T owner, Instant timestamp,
+                                                  boolean deleted) {
+
+    public enum Type {
+        SEND,
+        NEWER,
+        EXPECTED,
+        ACK,
+        PEER_JOINED,
+        PEER_LEFT,
+        PURGED
+    }
+
+    static <K extends Subject, T> JournalRecord<K, T> of(Type type, K subject, CatalogItem<K, T> item) {
+        return item == null
+                ? new JournalRecord<>(type, subject, false, null, null, false)
+                : new JournalRecord<>(type, subject, true, item.owner(), item.getTimestamp(), item.isDeleted());
+    }
+
+    static <K extends Subject, T> JournalRecord<K, T> of(K subject, AckItem<T> ackItem) {
+        return ackItem == null
+                ? new JournalRecord<>(Type.ACK, subject, false, null, null, false)
+                : new JournalRecord<>(Type.ACK, subject, true, ackItem.by(), ackItem.when(), ackItem.deleted());
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.catalog;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+public class MerkleDigestTree implements CatalogDigest {
+
+    public static final int DEFAULT_DEPTH = 3;
+
+    public static final int MAX_DEPTH = 5;
+
+    private final String topic;
+
+    private final int depth;
+
+    private final AtomicLongArray nodes;
+
+    private final Map<Integer, Set<Subject>> leaves;
+
+    public MerkleDigestTree(String topic) {
+        this(topic, DEFAULT_DEPTH);
+    }
+
+    public MerkleDigestTree(String topic, int depth) {
+        this(topic, depth, true);
+    }
+
+    static MerkleDigestTree untracked(String topic, int depth) {
+        return new MerkleDigestTree(topic, depth, false);
+    }
+
+    private MerkleDigestTree(String topic, int depth, boolean tracked) {
+        this.topic = topic;
+        this.depth = checkDepth(depth);
+        this.nodes = new AtomicLongArray(offset(depth + 1));
+        this.leaves = tracked ? new ConcurrentHashMap<>() : null;
+    }
+
+    @Override
+    public String topic() {
+        return topic;
+    }
+
+    @Override
+    public int depth() {
+        return depth;
+    }
+
+    @Override
+    public long digest(int level, int index) {
+        return nodes.get(offset(level) + index);
+    }
+
+    public void add(CatalogItem<?, ?> item) {
+        replace(item.subject(), 0L, itemHash(item));
+    }
+
+    public void remove(CatalogItem<?, ?> item) {
+        replace(item.subject(), itemHash(item), 0L);
+    }
+
+    public void replace(CatalogItem<?, ?> oldItem, CatalogItem<?, ?> newItem) {
+        if (oldItem != null && newItem != null && oldItem.subject().equals(newItem.subject())) {
+            replace(newItem.subject(), itemHash(oldItem), itemHash(newItem));
+            return;
+        }
+        if (oldItem != null) {
+            remove(oldItem);
+        }
+        if (newItem != null) {
+            add(newItem);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < nodes.length(); i++) {
+            nodes.set(i, 0L);
+        }
+        if (leaves != null) {
+            leaves.clear();
+        }
+    }
+
+    void replace(Subject subject, long before, long after) {
+        if (before == after) {
+            return;
+        }
+        final int leaf = leafOf(subject, depth);
+        if (leaves != null) {
+            track(leaf, subject, before, after);
+        }
+        final long delta = after - before;
+        for (int level = depth; level >= 0; level--) {
+            nodes.getAndAdd(offset(level) + (leaf >>> (4 * (depth - level))), delta);
+        }
+    }
+
+    private void track(int leaf, Subject subject, long before, long after) {
+        if (before == 0L) {
+            leaves.computeIfAbsent(leaf, key -> ConcurrentHashMap.newKeySet()).add(subject);
+        } else if (after == 0L) {
+            final Set<Subject> subjects = leaves.get(leaf);
+            if (subjects != null) {
+                subjects.remove(subject);
+            }
+        }
+    }
+
+    void subjects(DigestRange range, Consumer<Subject> action) {
+        if (!topic.equals(range.topic()) || depth != range.depth()) {
+            throw new IllegalArgumentException("Range is not comparable: " + range + " with " + topic + "/" + depth);
+        }
+        if (leaves == null) {
+            throw new IllegalStateException("Subjects are not tracked for " + topic);
+        }
+        final int shift = 4 * (depth - range.level());
+        final int first = range.index() << shift;
+        final int span = 1 << shift;
+        if (span <= leaves.size()) {
+            for (int leaf = first; leaf < first + span; leaf++) {
+                final Set<Subject> subjects = leaves.get(leaf);
+                if (subjects != null) {
+                    subjects.forEach(action);
+                }
+            }
+        } else {
+            leaves.forEach((leaf, subjects) -> {
+                if (leaf >>> shift == range.index()) {
+                    subjects.forEach(action);
+                }
+            });
+        }
+    }
+
+    public static List<DigestRange> diff(CatalogDigest mine, CatalogDigest theirs) {
+        if (!mine.topic().equals(theirs.topic()) || mine.depth() != theirs.depth()) {
+            throw new IllegalArgumentException("Digests are not comparable: " + mine.topic() + "/" + mine.depth()
+                    + " and " + theirs.topic() + "/" + theirs.depth());
+        }
+        final List<DigestRange> ranges = new ArrayList<>();
+        final Deque<int[]> pending = new ArrayDeque<>();
+        pending.push(new int[]{0, 0});
+        while (!pending.isEmpty()) {
+            final int[] node = pending.pop();
+            final int level = node[0];
+            final int index = node[1];
+            if (mine.digest(level, index) == theirs.digest(level, index)) {
+                continue;
+            }
+            if (level == mine.depth()) {
+                ranges.add(new DigestRange(mine.topic(), mine.depth(), level, index));
+            } else {
+                for (int child = FANOUT - 1; child >= 0; child--) {
+                    pending.push(new int[]{level + 1, index * FANOUT + child});
+                }
+            }
+        }
+        return ranges;
+    }
+
+    static int checkDepth(int depth) {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Digest depth must be between 1 and " + MAX_DEPTH + ": " + depth);
+        }
+        return depth;
+    }
+
+    static int leafOf(Subject subject, int depth) {
+        return (int) (subjectHash(subject) >>> (64 - 4 * depth));
+    }
+
+    static long subjectHash(Subject subject) {
+        return mix(fnv(fnv(0xcbf29ce484222325L, subject.topic()), subject.id()));
+    }
+
+    static long itemHash(CatalogItem<?, ?> item) {
+        return item != null ? itemHash(item.subject(), item.version(), item.isDeleted()) : 0L;
+    }
+
+    static long itemHash(Subject subject, long version, boolean deleted) {
+        final long hash = mix(subjectHash(subject) ^ mix(version) ^ (deleted ? 0x9e3779b97f4a7c15L : 0L));
+        return hash != 0L ? hash : 1L;
+    }
+
+    private static long fnv(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return (hash ^ 0xff) * 0x100000001b3L;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    static int offset(int level) {
+        return ((1 << (4 * level)) - 1) / (FANOUT - 1);
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.catalog;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+class OwnerIndex<T> {
+
+    private final Map<T, Integer> ids = new ConcurrentHashMap<>();
+
+    private final List<T> owners = new CopyOnWriteArrayList<>();
+
+    int intern(T owner) {
+        final Integer id = ids.get(owner);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            return ids.computeIfAbsent(owner, key -> {
+                owners.add(key);
+                return owners.size() - 1;
+            });
+        }
+    }
+
+    int find(T owner) {
+        return ids.getOrDefault(owner, -1);
+    }
+
+    T owner(int id) {
+        return owners.get(id);
+    }
+
+    int size() {
+        return owners.size();
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.catalog;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+final class PeerSet {
+
+    static final PeerSet EMPTY = new PeerSet(new long[0]);
+
+    private final long[] words;
+
+    private PeerSet(long[] words) {
+        this.words = words;
+    }
+
+    static PeerSet of(int peer) {
+        return EMPTY.with(peer);
+    }
+
+    boolean contains(int peer) {
+        final int word = peer >>> 6;
+        return peer >= 0 && word < words.length && (words[word] & (1L << peer)) != 0;
+    }
+
+    PeerSet with(int peer) {
+        if (contains(peer)) {
+            return this;
+        }
+        final long[] next = Arrays.copyOf(words, Math.max(words.length, (peer >>> 6) + 1));
+        next[peer >>> 6] |= 1L << peer;
+        return new PeerSet(next);
+    }
+
+    PeerSet without(int peer) {
+        if (!contains(peer)) {
+            return this;
+        }
+        final long[] next = words.clone();
+        next[peer >>> 6] &= ~(1L << peer);
+        int length = next.length;
+        while (length > 0 && next[length - 1] == 0L) {
+            length--;
+        }
+        return length == 0 ? EMPTY : new PeerSet(length == next.length ? next : Arrays.copyOf(next, length));
+    }
+
+    boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    void forEach(IntConsumer consumer) {
+        for (int word = 0; word < words.length; word++) {
+            long bits = words[word];
+            while (bits != 0L) {
+                consumer.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+}
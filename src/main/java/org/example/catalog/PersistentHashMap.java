@@ -0,0 +1,379 @@
+package org.example.catalog;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+
+final class PersistentHashMap<K, V> {
+
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final Node root;
+
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(K key) {
+        return root == null ? null : (V) root.find(0, hash(key), key);
+    }
+
+    PersistentHashMap<K, V> with(K key, V value) {
+        final boolean[] added = new boolean[1];
+        final Node node = (root != null ? root : BitmapNode.EMPTY).with(0, hash(key), key, value, added);
+        return node == root ? this : new PersistentHashMap<>(node, added[0] ? size + 1 : size);
+    }
+
+    PersistentHashMap<K, V> without(K key) {
+        if (root == null) {
+            return this;
+        }
+        final Node node = root.without(0, hash(key), key);
+        if (node == root) {
+            return this;
+        }
+        return node == null ? empty() : new PersistentHashMap<>(node, size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        if (root != null) {
+            root.forEach((BiConsumer<Object, Object>) action);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    boolean forEachAfter(K after, BiPredicate<? super K, ? super V> action) {
+        return root == null || root.forEachAfter(0, after != null ? hash(after) : 0, after, (BiPredicate<Object, Object>) action);
+    }
+
+    int depth() {
+        return root == null ? 0 : root.depth();
+    }
+
+    private static int hash(Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int compare(int hash1, int hash2, int shift) {
+        for (; shift < Integer.SIZE; shift += BITS) {
+            final int order = Integer.compare((hash1 >>> shift) & MASK, (hash2 >>> shift) & MASK);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return 0;
+    }
+
+    private interface Node {
+
+        Object find(int shift, int hash, Object key);
+
+        Node with(int shift, int hash, Object key, Object value, boolean[] added);
+
+        Node without(int shift, int hash, Object key);
+
+        void forEach(BiConsumer<Object, Object> action);
+
+        boolean forEachAfter(int shift, int hash, Object after, BiPredicate<Object, Object> action);
+
+        Object[] singleEntry();
+
+        int depth();
+    }
+
+    private static final class BitmapNode implements Node {
+
+        private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+
+        private final Object[] array;
+
+        private BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        @Override
+        public Object find(int shift, int hash, Object key) {
+            final int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            final int index = index(bit);
+            final Object keyOrNull = array[index];
+            final Object valueOrNode = array[index + 1];
+            if (keyOrNull == null) {
+                return ((Node) valueOrNode).find(shift + BITS, hash, key);
+            }
+            return key.equals(keyOrNull) ? valueOrNode : null;
+        }
+
+        @Override
+        public Node with(int shift, int hash, Object key, Object value, boolean[] added) {
+            final int bit = bit(hash, shift);
+            final int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                final Object[] copy = new Object[array.length + 2];
+                System.arraycopy(array, 0, copy, 0, index);
+                copy[index] = key;
+                copy[index + 1] = value;
+                System.arraycopy(array, index, copy, index + 2, array.length - index);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, copy);
+            }
+            final Object keyOrNull = array[index];
+            final Object valueOrNode = array[index + 1];
+            if (keyOrNull == null) {
+                final Node node = ((Node) valueOrNode).with(shift + BITS, hash, key, value, added);
+                return node == valueOrNode ? this : set(index + 1, node);
+            }
+            if (key.equals(keyOrNull)) {
+                return value == valueOrNode ? this : set(index + 1, value);
+            }
+            added[0] = true;
+            final Object[] copy = array.clone();
+            copy[index] = null;
+            copy[index + 1] = split(shift + BITS, keyOrNull, valueOrNode, hash, key, value);
+            return new BitmapNode(bitmap, copy);
+        }
+
+        @Override
+        public Node without(int shift, int hash, Object key) {
+            final int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            final int index = index(bit);
+            final Object keyOrNull = array[index];
+            final Object valueOrNode = array[index + 1];
+            if (keyOrNull == null) {
+                final Node node = ((Node) valueOrNode).without(shift + BITS, hash, key);
+                if (node == valueOrNode) {
+                    return this;
+                }
+                if (node == null) {
+                    return remove(bit, index);
+                }
+                final Object[] entry = node.singleEntry();
+                if (entry == null) {
+                    return set(index + 1, node);
+                }
+                final Object[] copy = array.clone();
+                copy[index] = entry[0];
+                copy[index + 1] = entry[1];
+                return new BitmapNode(bitmap, copy);
+            }
+            return key.equals(keyOrNull) ? remove(bit, index) : this;
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).forEach(action);
+                } else {
+                    action.accept(array[i], array[i + 1]);
+                }
+            }
+        }
+
+        @Override
+        public boolean forEachAfter(int shift, int hash, Object after, BiPredicate<Object, Object> action) {
+            final int chunk = (hash >>> shift) & MASK;
+            int remaining = bitmap;
+            for (int i = 0; i < array.length; i += 2) {
+                final int position = Integer.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                final boolean whole = after == null || position > chunk;
+                if (!whole && position < chunk) {
+                    continue;
+                }
+                final boolean proceed;
+                if (array[i] == null) {
+                    proceed = ((Node) array[i + 1]).forEachAfter(shift + BITS, hash, whole ? null : after, action);
+                } else if (whole || !after.equals(array[i]) && compare(hash(array[i]), hash, shift + BITS) >= 0) {
+                    proceed = action.test(array[i], array[i + 1]);
+                } else {
+                    proceed = true;
+                }
+                if (!proceed) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Object[] singleEntry() {
+            return array.length == 2 && array[0] != null ? array : null;
+        }
+
+        @Override
+        public int depth() {
+            int depth = 0;
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    depth = Math.max(depth, ((Node) array[i + 1]).depth());
+                }
+            }
+            return depth + 1;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1)) << 1;
+        }
+
+        private BitmapNode set(int index, Object value) {
+            final Object[] copy = array.clone();
+            copy[index] = value;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        private BitmapNode remove(int bit, int index) {
+            if (bitmap == bit) {
+                return null;
+            }
+            final Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, index);
+            System.arraycopy(array, index + 2, copy, index, array.length - index - 2);
+            return new BitmapNode(bitmap ^ bit, copy);
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        private static Node split(int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+            final int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+            }
+            final boolean[] added = new boolean[1];
+            return EMPTY.with(shift, hash1, key1, value1, added).with(shift, hash2, key2, value2, added);
+        }
+    }
+
+    private static final class CollisionNode implements Node {
+
+        private final int hash;
+
+        private final Object[] array;
+
+        private CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        @Override
+        public Object find(int shift, int hash, Object key) {
+            final int index = indexOf(key);
+            return index < 0 ? null : array[index + 1];
+        }
+
+        @Override
+        public Node with(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                return new BitmapNode(BitmapNode.bit(this.hash, shift), new Object[]{null, this})
+                        .with(shift, hash, key, value, added);
+            }
+            final int index = indexOf(key);
+            if (index >= 0) {
+                if (array[index + 1] == value) {
+                    return this;
+                }
+                final Object[] copy = array.clone();
+                copy[index + 1] = value;
+                return new CollisionNode(hash, copy);
+            }
+            final Object[] copy = Arrays.copyOf(array, array.length + 2);
+            copy[array.length] = key;
+            copy[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        public Node without(int shift, int hash, Object key) {
+            final int index = indexOf(key);
+            if (index < 0) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            final Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, index);
+            System.arraycopy(array, index + 2, copy, index, array.length - index - 2);
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept(array[i], array[i + 1]);
+            }
+        }
+
+        @Override
+        public boolean forEachAfter(int shift, int hash, Object after, BiPredicate<Object, Object> action) {
+            int from = 0;
+            if (after != null) {
+                final int index = indexOf(after);
+                if (index >= 0) {
+                    from = index + 2;
+                } else if (compare(this.hash, hash, shift) < 0) {
+                    return true;
+                }
+            }
+            for (int i = from; i < array.length; i += 2) {
+                if (!action.test(array[i], array[i + 1])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Object[] singleEntry() {
+            return array.length == 2 ? array : null;
+        }
+
+        @Override
+        public int depth() {
+            return 1;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.catalog;
+
+import java.util.concurrent.Flow;
+
+public interface PublishingCatalog<K extends Subject, T> extends SharedCatalog<K, T> {
+
+    Flow.Publisher<ShareEvent<K, T>> shareEvents();
+
+}
@@ -0,0 +1,41 @@
+package org.example.catalog;
+
+public enum ReconcileOutcome {
+
+    UNSUPPORTED_TOPIC,
+
+    SAME_OWNER,
+
+    NEWER_FOREIGN,
+
+    TOUCHED_FOREIGN,
+
+    OLDER_FOREIGN,
+
+    DELETED_FOREIGN,
+
+    UNKNOWN;
+
+    public static <K extends Subject, T> ReconcileOutcome of(CatalogItem<K, T> otherItem, CatalogItem<K, T> myItem) {
+        if (myItem == null) {
+            return UNKNOWN;
+        }
+        if (otherItem.isNewerThan(myItem)) {
+            return NEWER_FOREIGN;
+        }
+        return otherItem.isDeleted() ? DELETED_FOREIGN : OLDER_FOREIGN;
+    }
+
+    public static <K extends Subject, T> ReconcileOutcome of(CatalogItem<K, T> otherItem, CatalogItem<K, T> myItem,
+                                                             CatalogItem<K, T> current) {
+        final ReconcileOutcome outcome = of(otherItem, myItem);
+        return outcome == NEWER_FOREIGN && current != null && otherItem.isNewerThan(current) && sameContent(otherItem, current)
+                ? TOUCHED_FOREIGN
+                : outcome;
+    }
+
+    private static <K extends Subject, T> boolean sameContent(CatalogItem<K, T> otherItem, CatalogItem<K, T> current) {
+        final long digest = otherItem.contentDigest();
+        return digest != ContentDigest.NONE && digest == current.contentDigest() && otherItem.isDeleted() == current.isDeleted();
+    }
+}
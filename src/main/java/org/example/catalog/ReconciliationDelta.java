@@ -0,0 +1,18 @@
+package org.example.catalog;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ReconciliationDelta<K extends Subject, T> {
+
+    Collection<CatalogItem<K, T>> toSend();
+
+    Collection<CatalogItem<K, T>> toExpect();
+
+    Collection<CatalogItem<K, T>> superseded();
+
+    default Collection<CatalogItem<K, T>> touched() {
+        return List.of();
+    }
+
+}
@@ -0,0 +1,9 @@
+package org.example.catalog;
+
+import java.util.List;
+
+public interface ReconcilingCatalog<K extends Subject, T> extends SharedCatalog<K, T> {
+
+    ReconciliationDelta<K, T> reconcileForeignCatalog(List<CatalogItem<K, T>> otherItems);
+
+}
@@ -0,0 +1,238 @@
+package org.example.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+public class RetransmissionScheduler<K extends Subject, T> implements Closeable {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(RetransmissionScheduler.class);
+
+    public static final Duration DEFAULT_TICK = Duration.ofMillis(10);
+
+    public static final double DEFAULT_JITTER = 0.2;
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private final BiConsumer<T, List<CatalogItem<K, T>>> listener;
+
+    private final UnaryOperator<List<CatalogItem<K, T>>> pending;
+
+    private final Function<CatalogItem<K, T>, Collection<T>> peers;
+
+    private final long initialTimeout;
+
+    private final long maxTimeout;
+
+    private final double jitter;
+
+    private final int batchSize;
+
+    private final TimerWheel<Entry<K, T>> wheel;
+
+    private final ScheduledExecutorService executor;
+
+    RetransmissionScheduler(BiConsumer<T, List<CatalogItem<K, T>>> listener, UnaryOperator<List<CatalogItem<K, T>>> pending,
+                            Function<CatalogItem<K, T>, Collection<T>> peers, Duration initialTimeout, Duration maxTimeout, double jitter, int batchSize, Duration tick) {
+        if (initialTimeout.isZero() || initialTimeout.isNegative() || maxTimeout.compareTo(initialTimeout) < 0) {
+            throw new IllegalArgumentException("Invalid retransmission timeouts: " + initialTimeout + ", " + maxTimeout);
+        }
+        if (jitter < 0 || jitter >= 1) {
+            throw new IllegalArgumentException("Jitter must be in [0, 1): " + jitter);
+        }
+        this.listener = listener;
+        this.pending = pending;
+        this.peers = peers;
+        this.initialTimeout = initialTimeout.toNanos();
+        this.maxTimeout = maxTimeout.toNanos();
+        this.jitter = jitter;
+        this.batchSize = Math.max(1, batchSize);
+        this.wheel = new TimerWheel<>(tick.toNanos(), System.nanoTime());
+        this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            final Thread thread = new Thread(task, "catalog-retransmit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::run, tick.toNanos(), tick.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    void expected(CatalogItem<K, T> item) {
+        final Entry<K, T> entry = new Entry<>(item);
+        final List<Entry<K, T>> replaced = new ArrayList<>(1);
+        final Entry<K, T> current = entries.compute(item.subject(), (subject, previous) -> {
+            if (previous != null && !item.isNewerThan(previous.item)) {
+                return previous;
+            }
+            if (previous != null) {
+                if (previous.attempts > 0) {
+                    overdue.decrementAndGet();
+                }
+                replaced.add(previous);
+            }
+            return entry;
+        });
+        if (current == entry) {
+            handoff.addAll(replaced);
+            handoff.add(entry);
+        }
+    }
+
+    void acknowledged(K subject) {
+        final Entry<K, T> entry = entries.remove(subject);
+        if (entry != null) {
+            if (entry.attempts > 0) {
+                overdue.decrementAndGet();
+            }
+            handoff.add(entry);
+        }
+    }
+
+    public int pending() {
+        return entries.size();
+    }
+
+    public int overdueCount() {
+        return overdue.get();
+    }
+
+    public Collection<CatalogItem<K, T>> overdue() {
+        final List<CatalogItem<K, T>> items = new ArrayList<>();
+        entries.values().forEach(entry -> {
+            if (entry.attempts > 0) {
+                items.add(entry.item);
+            }
+        });
+        return items;
+    }
+
+    public long retransmitted() {
+        return retransmitted.sum();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.warn("Retransmission scheduler did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            for (Entry<K, T> entry = handoff.poll(); entry != null; entry = handoff.poll()) {
+                if (entry.timer == null && entries.get(entry.item.subject()) == entry) {
+                    entry.timer = wheel.schedule(entry, backoff(0));
+                } else if (entry.timer != null) {
+                    wheel.cancel(entry.timer);
+                }
+            }
+            final List<Entry<K, T>> expired = new ArrayList<>();
+            wheel.advance(System.nanoTime(), expired::add);
+            if (!expired.isEmpty()) {
+                retransmit(expired);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Retransmission tick failed", e);
+        }
+    }
+
+    private void retransmit(List<Entry<K, T>> expired) {
+        final Set<CatalogItem<K, T>> stillPending = Collections.newSetFromMap(new IdentityHashMap<>());
+        stillPending.addAll(pending.apply(expired.stream().map(entry -> entry.item).toList()));
+        final Map<T, List<CatalogItem<K, T>>> byPeer = new LinkedHashMap<>();
+        for (Entry<K, T> entry : expired) {
+            final boolean retry = stillPending.contains(entry.item);
+            final Entry<K, T> current = entries.computeIfPresent(entry.item.subject(), (subject, found) -> {
+                if (found != entry) {
+                    return found;
+                }
+                if (!retry) {
+                    if (entry.attempts > 0) {
+                        overdue.decrementAndGet();
+                    }
+                    return null;
+                }
+                if (entry.attempts++ == 0) {
+                    overdue.incrementAndGet();
+                }
+                return entry;
+            });
+            if (current == entry) {
+                entry.timer = wheel.schedule(entry, backoff(entry.attempts));
+                for (T peer : peers.apply(entry.item)) {
+                    byPeer.computeIfAbsent(peer, key -> new ArrayList<>()).add(entry.item);
+                }
+            } else {
+                entry.timer = null;
+            }
+        }
+        byPeer.forEach((peer, items) -> {
+            for (int from = 0; from < items.size(); from += batchSize) {
+                final List<CatalogItem<K, T>> batch = items.subList(from, Math.min(items.size(), from + batchSize));
+                try {
+                    listener.accept(peer, batch);
+                    retransmitted.add(batch.size());
+                } catch (RuntimeException e) {
+                    LOGGER.error("Re-request of {} items from {} failed", batch.size(), peer, e);
+                }
+            }
+        });
+        LOGGER.trace("Re-requested {} expected items from {} peers", byPeer.values().stream().mapToInt(List::size).sum(), byPeer.size());
+    }
+
+    private long backoff(int attempts) {
+        final long base = attempts >= 62 || initialTimeout > maxTimeout >> attempts ? maxTimeout : initialTimeout << attempts;
+        if (jitter == 0) {
+            return base;
+        }
+        return (long) (base * (1 - jitter + 2 * jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    private static final class Entry<K extends Subject, T> {
+
+        private final CatalogItem<K, T> item;
+
+        private TimerWheel.Timer<Entry<K, T>> timer;
+
+        private volatile int attempts;
+
+        private Entry(CatalogItem<K, T> item) {
+            this.item = item;
+        }
+    }
+
+    private final Map<K, Entry<K, T>> entries = new ConcurrentHashMap<>();
+
+    private final Queue<Entry<K, T>> handoff = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger overdue = new AtomicInteger();
+
+    private final LongAdder retransmitted = new LongAdder();
+
+}
@@ -0,0 +1,387 @@
+package org.example.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public abstract class ShardedSharedCatalog<K extends Subject, T> implements ReconcilingCatalog<K, T>, PublishingCatalog<K, T>,
+        DigestSyncCatalog<K, T>, ChangeFeedCatalog<K, T>, SnapshotCatalog<K, T>, AwaitableCatalog<K, T>, Closeable {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(ShardedSharedCatalog.class);
+
+    private static final int CHUNK_SIZE = 4096;
+
+    protected final T owner;
+
+    protected final HybridLogicalClock clock = new HybridLogicalClock();
+
+    public ShardedSharedCatalog(T owner) {
+        this(owner, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ShardedSharedCatalog(T owner, int shardCount) {
+        this.owner = owner;
+        this.shards = new ArrayList<>(Math.max(1, shardCount));
+        for (int i = 0; i < Math.max(1, shardCount); i++) {
+            shards.add(new CatalogShard<>(this, i));
+        }
+    }
+
+    @Override
+    public void start() {
+        LOGGER.debug("Starting catalog with {} shards", shards.size());
+        final Set<String> available = Set.copyOf(topics.keySet());
+        final Set<String> unsupported = new HashSet<>();
+        shards.forEach(shard -> shard.execute(shard::clearMyOwnList));
+        final List<List<CatalogItem<K, T>>> chunks = partitions();
+        try (Stream<CatalogItem<K, T>> items = streamMyItems()) {
+            items.forEach(item -> {
+                if (!available.contains(item.subject().topic())) {
+                    unsupported.add(item.subject().topic());
+                }
+                final int index = shardOf(item.subject());
+                final List<CatalogItem<K, T>> chunk = chunks.get(index);
+                chunk.add(item);
+                if (chunk.size() == CHUNK_SIZE) {
+                    shards.get(index).execute(() -> shards.get(index).bootstrap(chunk, available));
+                    chunks.set(index, new ArrayList<>());
+                }
+            });
+        }
+        for (int index = 0; index < shards.size(); index++) {
+            final List<CatalogItem<K, T>> chunk = chunks.get(index);
+            final CatalogShard<K, T> shard = shards.get(index);
+            shard.execute(() -> shard.bootstrap(chunk, available));
+        }
+        gather(shard -> null);
+        unsupported.forEach(topic -> LOGGER.warn("Unsupported topic: {}", topic));
+    }
+
+    @Override
+    public void acceptForeignCatalogItem(CatalogItem<K, T> otherItem) {
+        LOGGER.debug("Accepting foreign item {}", otherItem);
+        if (!topics.containsKey(otherItem.subject().topic())) {
+            LOGGER.warn("Unsupported topic: {}", otherItem.subject().topic());
+            metrics.outcome(ReconcileOutcome.UNSUPPORTED_TOPIC);
+            return;
+        }
+        if (otherItem.owner().equals(owner)) {
+            LOGGER.warn("The owners are identical: {}", owner);
+            metrics.outcome(ReconcileOutcome.SAME_OWNER);
+            return;
+        }
+        clock.observe(otherItem.version());
+        final CatalogShard<K, T> shard = shardFor(otherItem.subject());
+        shard.execute(() -> metrics.outcome(shard.reconcileItem(otherItem, DefaultReconciliationDelta.discarding())));
+    }
+
+    @Override
+    public void acceptForeignCatalog(List<CatalogItem<K, T>> otherItems) {
+        final DefaultReconciliationDelta<K, T> routed = new DefaultReconciliationDelta<>();
+        final List<List<CatalogItem<K, T>>> partitions = route(otherItems, routed);
+        metrics.outcomes(routed.outcomes());
+        for (int index = 0; index < shards.size(); index++) {
+            final List<CatalogItem<K, T>> partition = partitions.get(index);
+            final CatalogShard<K, T> shard = shards.get(index);
+            if (!partition.isEmpty()) {
+                shard.execute(() -> metrics.outcomes(shard.reconcile(partition).outcomes()));
+            }
+        }
+    }
+
+    @Override
+    public ReconciliationDelta<K, T> reconcileForeignCatalog(List<CatalogItem<K, T>> otherItems) {
+        final CatalogMetrics current = metrics;
+        final long started = current.start();
+        final CatalogSyncEvent event = new CatalogSyncEvent();
+        event.begin();
+        checkNotOnShard();
+        final DefaultReconciliationDelta<K, T> routed = new DefaultReconciliationDelta<>();
+        final List<List<CatalogItem<K, T>>> partitions = route(otherItems, routed);
+        final List<CompletableFuture<DefaultReconciliationDelta<K, T>>> deltas = new ArrayList<>(shards.size());
+        for (int index = 0; index < shards.size(); index++) {
+            final List<CatalogItem<K, T>> partition = partitions.get(index);
+            final CatalogShard<K, T> shard = shards.get(index);
+            deltas.add(shard.submit(() -> shard.reconcile(partition)));
+        }
+        final DefaultReconciliationDelta<K, T> delta = deltas.stream()
+                .map(CompletableFuture::join)
+                .reduce(routed, DefaultReconciliationDelta::merge);
+        current.outcomes(delta.outcomes());
+        current.accepted(started);
+        delta.commit(event, otherItems.size());
+        return delta;
+    }
+
+    @Override
+    public void acknowledgeReceivedItem(CatalogItem<K, T> otherItem) {
+        LOGGER.trace("Acknowledging received item {}", otherItem);
+        final CatalogShard<K, T> shard = shardFor(otherItem.subject());
+        shard.execute(() -> {
+            final CatalogMetrics current = metrics;
+            final long started = current.start();
+            shard.acknowledgeReceivedItem(otherItem);
+            current.acknowledged(started);
+        });
+    }
+
+    @Override
+    public CatalogMetrics metrics() {
+        return metrics;
+    }
+
+    public CatalogMetrics enableMetrics() {
+        final CatalogMetrics enabled = new CatalogMetrics();
+        enabled.registerGauge(CatalogMetrics.SEND, () -> size(CatalogShard.SEND));
+        enabled.registerGauge(CatalogMetrics.EXPECTED, () -> size(CatalogShard.EXPECTED));
+        enabled.registerGauge(CatalogMetrics.NEWER, () -> size(CatalogShard.NEWER));
+        enabled.registerGauge(CatalogMetrics.ACK, () -> size(CatalogShard.ACK));
+        metrics = enabled;
+        return enabled;
+    }
+
+    @Override
+    public Collection<CatalogItem<K, T>> getItemsToShare() {
+        final List<CatalogItem<K, T>> items = new ArrayList<>();
+        gather(CatalogShard::getItemsToShare).forEach(items::addAll);
+        return items;
+    }
+
+    @Override
+    public Flow.Publisher<ShareEvent<K, T>> shareEvents() {
+        return sharePublisher;
+    }
+
+    @Override
+    public AckReport<K, T> getAckReport() {
+        final Map<K, AckItem<T>> items = new HashMap<>();
+        boolean ok = true;
+        for (AckReport<K, T> report : gather(CatalogShard::getAckReport)) {
+            ok &= report.ok();
+            items.putAll(report.getItems());
+        }
+        return new DefaultAckReport<>(ok, items);
+    }
+
+    @Override
+    public CatalogDigest getCatalogDigest(String topic) {
+        return digestOf(topic);
+    }
+
+    @Override
+    public Collection<CatalogItem<K, T>> getItemsInRanges(List<DigestRange> ranges) {
+        final List<CatalogItem<K, T>> items = new ArrayList<>();
+        if (!ranges.isEmpty()) {
+            gather(shard -> shard.itemsInRanges(ranges)).forEach(items::addAll);
+        }
+        return items;
+    }
+
+    @Override
+    public ChangePage<K, T> getItemsChangedSince(ChangeCursor cursor, int limit) {
+        return changes.page(cursor, limit);
+    }
+
+    @Override
+    public boolean acknowledged() {
+        return gather(CatalogShard::acknowledged).stream().allMatch(Boolean::booleanValue);
+    }
+
+    @Override
+    public CompletableFuture<Void> awaitAcknowledged(Duration timeout) {
+        final CompletableFuture<Void> future = waiters.drain(timeout);
+        checkDrained();
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Void> awaitAcknowledged(K subject, Duration timeout) {
+        final CompletableFuture<Void> future = waiters.subject(subject, timeout);
+        final CatalogShard<K, T> shard = shardFor(subject);
+        shard.execute(() -> {
+            if (!shard.expects(subject)) {
+                waiters.acknowledged(subject);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public CatalogSnapshot<K, T> snapshot() {
+        return gather(CatalogShard::snapshot).stream().reduce(CatalogSnapshot.empty(), CatalogSnapshot::merge);
+    }
+
+    public void dedupeUnchangedPayloads() {
+        shards.forEach(CatalogShard::dedupeUnchangedPayloads);
+    }
+
+    /**
+     * As {@link AbstractSharedCatalog#digestDepth(int)}, for every shard.
+     */
+    public void digestDepth(int depth) {
+        digestDepth = MerkleDigestTree.checkDepth(depth);
+    }
+
+    /**
+     * As {@link AbstractSharedCatalog#dispatchAcknowledgements}, except that shard threads never wait for a full queue.
+     */
+    public AckDispatcher<K, T> dispatchAcknowledgements(int batchSize, Duration maxLatency, int capacity) {
+        return acks.dispatch(batchSize, maxLatency, capacity);
+    }
+
+    public CatalogExecution executeWith(CatalogExecution execution) {
+        final CatalogExecution previous = this.execution;
+        this.execution = execution;
+        if (previous != execution) {
+            previous.close();
+        }
+        return execution;
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(CatalogShard::drain);
+        acks.close();
+        shards.forEach(CatalogShard::shutdown);
+        sharePublisher.complete();
+        execution.close();
+    }
+
+    protected abstract Collection<CatalogItem<K, T>> fetchMyItems();
+
+    protected Stream<CatalogItem<K, T>> streamMyItems() {
+        return fetchMyItems().stream();
+    }
+
+    public RetransmissionScheduler<K, T> scheduleRetransmissions(Duration initialTimeout, Duration maxTimeout,
+                                                                 BiConsumer<T, List<CatalogItem<K, T>>> listener) {
+        return acks.retransmit(initialTimeout, maxTimeout, listener, this::stillExpected, item -> List.of(item.owner()),
+                () -> gather(shard -> List.copyOf(shard.fetchExpectedList())).stream().flatMap(List::stream).toList());
+    }
+
+    void expecting(CatalogItem<K, T> item) {
+        acks.expecting(item);
+    }
+
+    private List<CatalogItem<K, T>> stillExpected(List<CatalogItem<K, T>> items) {
+        final Map<CatalogShard<K, T>, List<CatalogItem<K, T>>> byShard = new HashMap<>();
+        items.forEach(item -> byShard.computeIfAbsent(shardFor(item.subject()), shard -> new ArrayList<>()).add(item));
+        final List<CompletableFuture<List<CatalogItem<K, T>>>> results = new ArrayList<>(byShard.size());
+        byShard.forEach((shard, group) -> results.add(shard.submit(() -> group.stream().filter(shard::isExpected).toList())));
+        return results.stream().flatMap(result -> result.exceptionally(closed -> List.of()).join().stream()).toList();
+    }
+
+    void acknowledge(K subject, AckItem<T> ackItem) {
+        acks.acknowledge(subject, ackItem);
+        if (waiters.acknowledged(subject) && shardFor(subject).acknowledged()) {
+            checkDrained();
+        }
+    }
+
+    private void checkDrained() {
+        final List<CompletableFuture<Boolean>> drained = shards.stream()
+                .map(shard -> shard.submit(shard::acknowledged))
+                .toList();
+        CompletableFuture.allOf(drained.toArray(CompletableFuture[]::new)).thenRun(() -> {
+            if (drained.stream().allMatch(CompletableFuture::join)) {
+                waiters.drained();
+            }
+        });
+    }
+
+    MerkleDigestTree digestOf(String topic) {
+        return digests.computeIfAbsent(topic, key -> new MerkleDigestTree(key, digestDepth));
+    }
+
+    private int shardOf(K subject) {
+        return CatalogReconciler.partitionOf(subject, shards.size());
+    }
+
+    private CatalogShard<K, T> shardFor(K subject) {
+        return shards.get(shardOf(subject));
+    }
+
+    private List<List<CatalogItem<K, T>>> partitions() {
+        final List<List<CatalogItem<K, T>>> partitions = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            partitions.add(new ArrayList<>());
+        }
+        return partitions;
+    }
+
+    private List<List<CatalogItem<K, T>>> route(List<CatalogItem<K, T>> otherItems, DefaultReconciliationDelta<K, T> routed) {
+        final List<List<CatalogItem<K, T>>> partitions = partitions();
+        final Set<String> unsupported = new HashSet<>();
+        for (CatalogItem<K, T> otherItem : otherItems) {
+            if (!topics.containsKey(otherItem.subject().topic())) {
+                unsupported.add(otherItem.subject().topic());
+                routed.count(ReconcileOutcome.UNSUPPORTED_TOPIC);
+            } else if (otherItem.owner().equals(owner)) {
+                routed.count(ReconcileOutcome.SAME_OWNER);
+            } else {
+                clock.observe(otherItem.version());
+                partitions.get(shardOf(otherItem.subject())).add(otherItem);
+            }
+        }
+        unsupported.forEach(topic -> LOGGER.warn("Unsupported topic: {}", topic));
+        if (routed.outcomes()[ReconcileOutcome.SAME_OWNER.ordinal()] > 0) {
+            LOGGER.warn("The owners are identical: {}", owner);
+        }
+        return partitions;
+    }
+
+    private long size(int set) {
+        return shards.stream().mapToLong(shard -> shard.size(set)).sum();
+    }
+
+    private <R> List<R> gather(Function<CatalogShard<K, T>, R> query) {
+        checkNotOnShard();
+        final List<CompletableFuture<R>> results = new ArrayList<>(shards.size());
+        shards.forEach(shard -> results.add(shard.submit(() -> query.apply(shard))));
+        return results.stream().map(CompletableFuture::join).toList();
+    }
+
+    private void checkNotOnShard() {
+        for (CatalogShard<K, T> shard : shards) {
+            if (shard.isWriterThread()) {
+                throw new IllegalStateException("Catalog queries cannot run on a shard thread: " + Thread.currentThread().getName());
+            }
+        }
+    }
+
+    private final List<CatalogShard<K, T>> shards;
+
+    private volatile CatalogExecution execution = CatalogExecution.commonPool();
+
+    final SharePublisher<K, T> sharePublisher = new SharePublisher<>(this::getItemsToShare, () -> execution.executor());
+
+    private final AckRouting<K, T> acks = new AckRouting<>(this, false);
+
+    private volatile CatalogMetrics metrics = CatalogMetrics.disabled();
+
+    private final AckWaiters<K> waiters = new AckWaiters<>();
+
+    final ChangeIndex<K, T> changes = new ChangeIndex<>(subject -> shardFor(subject).ownItem(subject));
+
+    final Map<String, MerkleDigestTree> digests = new ConcurrentHashMap<>();
+
+    private volatile int digestDepth = MerkleDigestTree.DEFAULT_DEPTH;
+
+    protected final Map<String, Boolean> topics = new ConcurrentHashMap<>();
+
+}
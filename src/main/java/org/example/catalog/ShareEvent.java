@@ -0,0 +1,9 @@
+package org.example.catalog;
+
+public record ShareEvent<K extends Subject, T>(Type type, CatalogItem<K, T> item) {
+
+    public enum Type {
+        ADDED,
+        REMOVED
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+class SharePublisher<K extends Subject, T> implements Flow.Publisher<ShareEvent<K, T>> {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(SharePublisher.class);
+
+    private final Supplier<Collection<CatalogItem<K, T>>> snapshot;
+
+    private final Supplier<Executor> executor;
+
+    private final List<ShareSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private volatile boolean completed;
+
+    SharePublisher(Supplier<Collection<CatalogItem<K, T>>> snapshot, Supplier<Executor> executor) {
+        this.snapshot = snapshot;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ShareEvent<K, T>> subscriber) {
+        final ShareSubscription subscription = new ShareSubscription(subscriber);
+        subscriptions.add(subscription);
+        subscription.initial(List.copyOf(snapshot.get()));
+        subscription.completed = completed;
+        subscriber.onSubscribe(subscription);
+        subscription.signal();
+    }
+
+    boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    void added(CatalogItem<K, T> item) {
+        publish(ShareEvent.Type.ADDED, item);
+    }
+
+    void removed(CatalogItem<K, T> item) {
+        publish(ShareEvent.Type.REMOVED, item);
+    }
+
+    void complete() {
+        completed = true;
+        subscriptions.forEach(ShareSubscription::complete);
+    }
+
+    private void publish(ShareEvent.Type type, CatalogItem<K, T> item) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        final ShareEvent<K, T> event = new ShareEvent<>(type, item);
+        subscriptions.forEach(subscription -> subscription.offer(event));
+    }
+
+    private class ShareSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super ShareEvent<K, T>> subscriber;
+
+        private final Map<K, ShareEvent<K, T>> pending = new LinkedHashMap<>();
+
+        private final AtomicLong demand = new AtomicLong();
+
+        private final AtomicInteger work = new AtomicInteger();
+
+        private volatile boolean cancelled;
+
+        private volatile boolean completed;
+
+        ShareSubscription(Flow.Subscriber<? super ShareEvent<K, T>> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void initial(List<CatalogItem<K, T>> items) {
+            synchronized (pending) {
+                final Map<K, ShareEvent<K, T>> events = new LinkedHashMap<>(pending);
+                pending.clear();
+                items.forEach(item -> pending.put(item.subject(), new ShareEvent<>(ShareEvent.Type.ADDED, item)));
+                events.forEach((subject, event) -> {
+                    pending.remove(subject);
+                    if (event.type() == ShareEvent.Type.ADDED) {
+                        pending.put(subject, event);
+                    }
+                });
+            }
+        }
+
+        void complete() {
+            completed = true;
+            signal();
+        }
+
+        void offer(ShareEvent<K, T> event) {
+            synchronized (pending) {
+                pending.remove(event.item().subject());
+                pending.put(event.item().subject(), event);
+            }
+            signal();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Non-positive subscription request: " + n));
+                return;
+            }
+            demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        void signal() {
+            if (work.getAndIncrement() == 0) {
+                executor.get().execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                while (!cancelled && demand.get() > 0) {
+                    final ShareEvent<K, T> event = next();
+                    if (event == null) {
+                        break;
+                    }
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    try {
+                        subscriber.onNext(event);
+                    } catch (RuntimeException e) {
+                        LOGGER.error("Share event subscriber failed, cancelling", e);
+                        cancel();
+                        subscriber.onError(e);
+                    }
+                }
+                if (completed && !cancelled && isDrained()) {
+                    cancel();
+                    subscriber.onComplete();
+                }
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private boolean isDrained() {
+            synchronized (pending) {
+                return pending.isEmpty();
+            }
+        }
+
+        private ShareEvent<K, T> next() {
+            synchronized (pending) {
+                final Iterator<ShareEvent<K, T>> events = pending.values().iterator();
+                if (!events.hasNext()) {
+                    return null;
+                }
+                final ShareEvent<K, T> event = events.next();
+                events.remove();
+                return event;
+            }
+        }
+    }
+}
@@ -17,8 +17,16 @@ public interface SharedCatalog<K extends Subject, T> {
 
     void onAcknowledged(K key, AckItem<T> ackItem);
 
+    default void onAcknowledged(List<Acknowledgement<K, T>> acknowledgements) {
+        acknowledgements.forEach(acknowledgement -> onAcknowledged(acknowledgement.subject(), acknowledgement.ackItem()));
+    }
+
     AckReport<K, T> getAckReport();
 
     boolean acknowledged();
 
+    default CatalogMetrics metrics() {
+        return CatalogMetrics.disabled();
+    }
+
 }
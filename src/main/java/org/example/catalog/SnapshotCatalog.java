@@ -0,0 +1,7 @@
+package org.example.catalog;
+
+public interface SnapshotCatalog<K extends Subject, T> extends SharedCatalog<K, T> {
+
+    CatalogSnapshot<K, T> snapshot();
+
+}
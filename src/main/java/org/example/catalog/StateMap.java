@@ -0,0 +1,89 @@
+package org.example.catalog;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+class StateMap<K extends Subject, T, V> extends AbstractMap<K, V> {
+
+    private final Map<K, SubjectState<K, T>> states;
+
+    private final Set<K> keys;
+
+    private final Function<SubjectState<K, T>, V> selector;
+
+    StateMap(Map<K, SubjectState<K, T>> states, Set<K> keys, Function<SubjectState<K, T>, V> selector) {
+        this.states = states;
+        this.keys = keys;
+        this.selector = selector;
+    }
+
+    @Override
+    public V get(Object key) {
+        final SubjectState<K, T> state = states.get(key);
+        return state == null ? null : selector.apply(state);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return StateMap.this.size();
+            }
+        };
+    }
+
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private final Iterator<K> iterator = keys.iterator();
+
+        private Entry<K, V> next;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && iterator.hasNext()) {
+                final K key = iterator.next();
+                final V value = get(key);
+                if (value != null) {
+                    next = new SimpleImmutableEntry<>(key, value);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Entry<K, V> entry = next;
+            next = null;
+            return entry;
+        }
+    }
+}
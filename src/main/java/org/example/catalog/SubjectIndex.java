@@ -0,0 +1,164 @@
+package org.example.catalog;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+class SubjectIndex<K extends Subject> {
+
+    private static final int SEGMENT_BITS = 14;
+
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final StampedLock lock = new StampedLock();
+
+    private volatile int[] table = new int[1 << 10];
+
+    private volatile Object[][] segments = new Object[16][];
+
+    private volatile int size;
+
+    private int[] free = new int[16];
+
+    private int released;
+
+    int find(Subject subject) {
+        final long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                final int id = probe(subject);
+                if (lock.validate(stamp)) {
+                    return id;
+                }
+            } catch (RuntimeException e) {
+                // torn read during a concurrent insert, retried under the read lock
+            }
+        }
+        final long readStamp = lock.readLock();
+        try {
+            return probe(subject);
+        } finally {
+            lock.unlockRead(readStamp);
+        }
+    }
+
+    int intern(K subject) {
+        final int found = find(subject);
+        if (found >= 0) {
+            return found;
+        }
+        final long stamp = lock.writeLock();
+        try {
+            final int existing = probe(subject);
+            if (existing >= 0) {
+                return existing;
+            }
+            if (released > 0) {
+                final int id = free[--released];
+                segments[id >>> SEGMENT_BITS][id & SEGMENT_MASK] = subject;
+                insert(table, subject, id);
+                return id;
+            }
+            final int id = size;
+            final int segment = id >>> SEGMENT_BITS;
+            Object[][] current = segments;
+            if (segment == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            if (current[segment] == null) {
+                current[segment] = new Object[SEGMENT_SIZE];
+            }
+            current[segment][id & SEGMENT_MASK] = subject;
+            segments = current;
+            if ((id + 1) * 2 > table.length) {
+                table = rehash(table.length * 2, id);
+            }
+            insert(table, subject, id);
+            size = id + 1;
+            return id;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void release(int id) {
+        final long stamp = lock.writeLock();
+        try {
+            final Subject subject = subject(id);
+            if (subject == null) {
+                return;
+            }
+            final int[] slots = table;
+            final int mask = slots.length - 1;
+            int slot = spread(subject.hashCode()) & mask;
+            while (slots[slot] != id + 1) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = 0;
+            for (int next = (slot + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+                final int home = spread(subject(slots[next] - 1).hashCode()) & mask;
+                if (((next - home) & mask) >= ((next - slot) & mask)) {
+                    slots[slot] = slots[next];
+                    slots[next] = 0;
+                    slot = next;
+                }
+            }
+            segments[id >>> SEGMENT_BITS][id & SEGMENT_MASK] = null;
+            if (released == free.length) {
+                free = Arrays.copyOf(free, free.length * 2);
+            }
+            free[released++] = id;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    K subject(int id) {
+        return (K) segments[id >>> SEGMENT_BITS][id & SEGMENT_MASK];
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int probe(Subject subject) {
+        final int[] slots = table;
+        final int mask = slots.length - 1;
+        for (int slot = spread(subject.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            final int entry = slots[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (subject.equals(subject(entry - 1))) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private int[] rehash(int capacity, int count) {
+        final int[] slots = new int[capacity];
+        for (int id = 0; id < count; id++) {
+            final Subject subject = subject(id);
+            if (subject != null) {
+                insert(slots, subject, id);
+            }
+        }
+        return slots;
+    }
+
+    private static void insert(int[] slots, Subject subject, int id) {
+        final int mask = slots.length - 1;
+        int slot = spread(subject.hashCode()) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = id + 1;
+    }
+
+    private static int spread(int h) {
+        h *= 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+}
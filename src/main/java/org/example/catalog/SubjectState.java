@@ -0,0 +1,32 @@
+package org.example.catalog;
+
+class SubjectState<K extends Subject, T> {
+
+    final K subject;
+
+    volatile CatalogItem<K, T> own;
+
+    volatile CatalogItem<K, T> send;
+
+    volatile CatalogItem<K, T> newer;
+
+    volatile CatalogItem<K, T> expected;
+
+    volatile AckItem<T> ack;
+
+    volatile PeerSet pending = PeerSet.EMPTY;
+
+    volatile long ackedAt;
+
+    long digest;
+
+    boolean retired;
+
+    SubjectState(K subject) {
+        this.subject = subject;
+    }
+
+    boolean isEmpty() {
+        return own == null && send == null && newer == null && expected == null && ack == null;
+    }
+}
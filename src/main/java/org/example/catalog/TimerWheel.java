@@ -0,0 +1,147 @@
+package org.example.catalog;
+
+import java.util.function.Consumer;
+
+final class TimerWheel<E> {
+
+    private static final int BITS = 6;
+
+    private static final int SLOTS = 1 << BITS;
+
+    private static final int MASK = SLOTS - 1;
+
+    private static final int LEVELS = 4;
+
+    private static final long MAX_TICKS = (1L << (BITS * LEVELS)) - 1;
+
+    private final long tickNanos;
+
+    private final Timer<E>[][] wheels;
+
+    private long tick;
+
+    private final long origin;
+
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long tickNanos, long nowNanos) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickNanos);
+        }
+        this.tickNanos = tickNanos;
+        this.origin = nowNanos;
+        this.wheels = (Timer<E>[][]) new Timer<?>[LEVELS][SLOTS];
+    }
+
+    int size() {
+        return size;
+    }
+
+    Timer<E> schedule(E value, long delayNanos) {
+        final Timer<E> timer = new Timer<>(value);
+        final long ticks = Math.min(MAX_TICKS, Math.max(1, (delayNanos + tickNanos - 1) / tickNanos));
+        timer.deadline = tick + ticks;
+        insert(timer);
+        size++;
+        return timer;
+    }
+
+    void cancel(Timer<E> timer) {
+        if (timer.level >= 0) {
+            unlink(timer);
+            size--;
+        }
+    }
+
+    void advance(long nowNanos, Consumer<E> expired) {
+        final long target = (nowNanos - origin) / tickNanos;
+        while (tick < target) {
+            tick++;
+            cascade();
+            Timer<E> timer = wheels[0][(int) (tick & MASK)];
+            wheels[0][(int) (tick & MASK)] = null;
+            while (timer != null) {
+                final Timer<E> next = timer.next;
+                timer.level = -1;
+                timer.next = null;
+                timer.previous = null;
+                size--;
+                expired.accept(timer.value);
+                timer = next;
+            }
+        }
+    }
+
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            final long below = tick >>> (BITS * (level - 1));
+            if ((below & MASK) != 0) {
+                return;
+            }
+            final int slot = (int) ((tick >>> (BITS * level)) & MASK);
+            Timer<E> timer = wheels[level][slot];
+            wheels[level][slot] = null;
+            while (timer != null) {
+                final Timer<E> next = timer.next;
+                insert(timer);
+                timer = next;
+            }
+        }
+    }
+
+    private void insert(Timer<E> timer) {
+        final long remaining = Math.max(0, timer.deadline - tick);
+        int level = 0;
+        while (level < LEVELS - 1 && remaining >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        final int slot = (int) ((timer.deadline >>> (BITS * level)) & MASK);
+        final Timer<E> head = wheels[level][slot];
+        timer.level = level;
+        timer.slot = slot;
+        timer.previous = null;
+        timer.next = head;
+        if (head != null) {
+            head.previous = timer;
+        }
+        wheels[level][slot] = timer;
+    }
+
+    private void unlink(Timer<E> timer) {
+        if (timer.previous != null) {
+            timer.previous.next = timer.next;
+        } else {
+            wheels[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.previous = timer.previous;
+        }
+        timer.level = -1;
+        timer.next = null;
+        timer.previous = null;
+    }
+
+    static final class Timer<E> {
+
+        private final E value;
+
+        private long deadline;
+
+        private int level = -1;
+
+        private int slot;
+
+        private Timer<E> previous;
+
+        private Timer<E> next;
+
+        private Timer(E value) {
+            this.value = value;
+        }
+
+        E value() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package org.example.catalog;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class VersionedAckReport<K extends Subject, T> implements AckReport<K, T> {
+
+    private static final int STREAM_BATCH = 256;
+
+    private final Supplier<CatalogSnapshot<K, T>> source;
+
+    private final long version;
+
+    private final IntFunction<T> peers;
+
+    private volatile CatalogSnapshot<K, T> snapshot;
+
+    private final Map<T, Long> missing = new ConcurrentHashMap<>();
+
+    private final Map<K, AckItem<T>> items = new ItemsView();
+
+    VersionedAckReport(Supplier<CatalogSnapshot<K, T>> source, long version, IntFunction<T> peers) {
+        this.source = source;
+        this.version = version;
+        this.peers = peers;
+    }
+
+    private CatalogSnapshot<K, T> snapshot() {
+        CatalogSnapshot<K, T> current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = source.get();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public boolean ok() {
+        return snapshot().acknowledged();
+    }
+
+    @Override
+    public Map<K, AckItem<T>> getItems() {
+        return items;
+    }
+
+    @Override
+    public long version() {
+        return version;
+    }
+
+    @Override
+    public Set<T> missingPeers(K subject) {
+        final CatalogSnapshot.View<K, T> view = snapshot().view(subject);
+        if (view == null || view.expected() == null) {
+            return Set.of();
+        }
+        final Set<T> owners = new HashSet<>();
+        view.pending().forEach(peer -> owners.add(peers.apply(peer)));
+        return owners;
+    }
+
+    @Override
+    public long missing(T peer) {
+        return missing.computeIfAbsent(peer, key -> {
+            final long[] count = new long[1];
+            snapshot().forEachView(null, (subject, view) -> {
+                if (view.expected() != null) {
+                    view.pending().forEach(pending -> count[0] += key.equals(peers.apply(pending)) ? 1 : 0);
+                }
+                return true;
+            });
+            return count[0];
+        });
+    }
+
+    @Override
+    public long count(AckStatus status) {
+        if (status == null) {
+            return snapshot().ackCount() + snapshot().expectedCount();
+        }
+        return switch (status) {
+            case OK -> snapshot().ackCount() - snapshot().deletedCount();
+            case PENDING -> snapshot().expectedCount();
+            case DELETED -> snapshot().deletedCount();
+        };
+    }
+
+    @Override
+    public Stream<Map.Entry<K, AckItem<T>>> stream(AckStatus status, String topic) {
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<>(count(status), Spliterator.ORDERED | Spliterator.NONNULL) {
+
+            private final List<Map.Entry<K, AckItem<T>>> batch = new ArrayList<>(STREAM_BATCH);
+
+            private int position;
+
+            private boolean more = true;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Map.Entry<K, AckItem<T>>> action) {
+                if (position == batch.size()) {
+                    if (!more) {
+                        return false;
+                    }
+                    final K after = batch.isEmpty() ? null : batch.get(batch.size() - 1).getKey();
+                    batch.clear();
+                    position = 0;
+                    more = collect(status, topic, after, STREAM_BATCH, batch);
+                    if (batch.isEmpty()) {
+                        return false;
+                    }
+                }
+                action.accept(batch.get(position++));
+                return true;
+            }
+        }, false);
+    }
+
+    @Override
+    public AckPage<K, T> page(AckStatus status, String topic, K after, int limit) {
+        final List<Map.Entry<K, AckItem<T>>> entries = new ArrayList<>(Math.min(limit, 1024));
+        final boolean more = collect(status, topic, after, limit, entries);
+        return new AckPage<>(entries, more && !entries.isEmpty() ? entries.get(entries.size() - 1).getKey() : null);
+    }
+
+    private boolean collect(AckStatus status, String topic, K after, int limit, List<Map.Entry<K, AckItem<T>>> entries) {
+        return !snapshot().forEachView(after, (subject, view) -> {
+            final AckItem<T> ackItem = view.ackItem();
+            if (ackItem == null || status != null && AckStatus.of(ackItem) != status
+                    || topic != null && !topic.equals(subject.topic())) {
+                return true;
+            }
+            if (entries.size() == limit) {
+                return false;
+            }
+            entries.add(Map.entry(subject, ackItem));
+            return true;
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "VersionedAckReport [version=" + version() + ", ok=" + count(AckStatus.OK) + ", pending="
+                + count(AckStatus.PENDING) + ", deleted=" + count(AckStatus.DELETED) + "]";
+    }
+
+    private class ItemsView extends AbstractMap<K, AckItem<T>> {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public AckItem<T> get(Object key) {
+            if (!(key instanceof Subject)) {
+                return null;
+            }
+            final CatalogSnapshot.View<K, T> view = snapshot().view((K) key);
+            return view != null ? view.ackItem() : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<K, AckItem<T>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<K, AckItem<T>>> iterator() {
+                    return VersionedAckReport.this.stream(null, null).iterator();
+                }
+
+                @Override
+                public int size() {
+                    return (int) count(null);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.catalog;
+
+import java.nio.ByteBuffer;
+
+public interface WireCodec<K extends Subject, T, V> {
+
+    K subject(String topic, String id);
+
+    void writeOwner(ByteBuffer buffer, T owner);
+
+    T readOwner(ByteBuffer buffer);
+
+    void writePayload(ByteBuffer buffer, V payload);
+
+    V readPayload(ByteBuffer buffer, K subject);
+
+    CatalogItem<K, T> item(K subject, long version, boolean deleted, T owner, V payload);
+
+    V payloadOf(CatalogItem<K, T> item);
+
+    int ownerSize(T owner);
+
+    int payloadSize(V payload);
+
+}
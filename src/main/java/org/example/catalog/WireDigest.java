@@ -0,0 +1,31 @@
+package org.example.catalog;
+
+class WireDigest implements CatalogDigest {
+
+    private final String topic;
+
+    private final int depth;
+
+    private final long[] nodes;
+
+    WireDigest(String topic, int depth, long[] nodes) {
+        this.topic = topic;
+        this.depth = depth;
+        this.nodes = nodes;
+    }
+
+    @Override
+    public String topic() {
+        return topic;
+    }
+
+    @Override
+    public int depth() {
+        return depth;
+    }
+
+    @Override
+    public long digest(int level, int index) {
+        return nodes[MerkleDigestTree.offset(level) + index];
+    }
+}
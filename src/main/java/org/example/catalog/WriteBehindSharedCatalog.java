@@ -0,0 +1,303 @@
+package org.example.catalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+public abstract class WriteBehindSharedCatalog<K extends Subject, T> extends AbstractSharedCatalog<K, T> implements DigestSyncCatalog<K, T> {
+
+    private static final int LOCK_STRIPES = 1024;
+
+    protected final Map<String, Boolean> topics = new ConcurrentHashMap<>();
+
+    private final WriteBehindStore<K, T> store;
+
+    private volatile boolean writing;
+
+    public WriteBehindSharedCatalog(T owner, WriteBehindStore<K, T> store) {
+        super(owner);
+        this.store = store;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        store.checkpointFrom(this::writeState);
+    }
+
+    @Override
+    public void start() {
+        writing = false;
+        super.start();
+        store.store().load(this::replay);
+        writing = true;
+    }
+
+    public void barrier() {
+        store.barrier();
+    }
+
+    @Override
+    protected void clearMyOwnList() {
+        List.copyOf(own.keySet()).forEach(subject -> {
+            synchronized (lockOf(subject)) {
+                changeDigest(subject, () -> changes.replace(own.remove(subject), null));
+            }
+        });
+    }
+
+    @Override
+    protected void addToMyOwnList(CatalogItem<K, T> item) {
+        synchronized (lockOf(item.subject())) {
+            changeDigest(item.subject(), () -> changes.replace(own.put(item.subject(), item), item));
+        }
+    }
+
+    @Override
+    protected Optional<CatalogItem<K, T>> findInMyList(CatalogItem<K, T> otherItem) {
+        return Optional.ofNullable(own.get(otherItem.subject()));
+    }
+
+    @Override
+    protected void addToSendList(CatalogItem<K, T> item) {
+        synchronized (lockOf(item.subject())) {
+            if (send.put(item.subject(), item) != item) {
+                shareAdded(item);
+                write(JournalRecord.of(JournalRecord.Type.SEND, item.subject(), item));
+            }
+        }
+    }
+
+    @Override
+    protected void removeFromSendList(CatalogItem<K, T> item) {
+        synchronized (lockOf(item.subject())) {
+            final CatalogItem<K, T> removed = send.remove(item.subject());
+            if (removed != null) {
+                shareRemoved(removed);
+                write(JournalRecord.of(JournalRecord.Type.SEND, item.subject(), null));
+            }
+        }
+    }
+
+    @Override
+    protected void addToNewerList(CatalogItem<K, T> item) {
+        synchronized (lockOf(item.subject())) {
+            changeDigest(item.subject(), () -> newer.put(item.subject(), item));
+            write(JournalRecord.of(JournalRecord.Type.NEWER, item.subject(), item));
+        }
+    }
+
+    @Override
+    protected boolean existsInNewerList(CatalogItem<K, T> item) {
+        return newer.containsKey(item.subject());
+    }
+
+    @Override
+    protected void addToExpectedList(CatalogItem<K, T> item) {
+        synchronized (lockOf(item.subject())) {
+            expected.put(item.subject(), item);
+            write(JournalRecord.of(JournalRecord.Type.EXPECTED, item.subject(), item));
+            changeDigest(item.subject(), () -> {
+                if (ack.remove(item.subject()) != null) {
+                    write(JournalRecord.of(item.subject(), null));
+                }
+            });
+        }
+    }
+
+    @Override
+    protected Optional<CatalogItem<K, T>> removeFromExpectedList(CatalogItem<K, T> item) {
+        synchronized (lockOf(item.subject())) {
+            final CatalogItem<K, T> removed = expected.remove(item.subject());
+            if (removed != null) {
+                write(JournalRecord.of(JournalRecord.Type.EXPECTED, item.subject(), null));
+            }
+            return Optional.ofNullable(removed);
+        }
+    }
+
+    @Override
+    protected Optional<CatalogItem<K, T>> fromExpectedList(CatalogItem<K, T> item) {
+        return Optional.ofNullable(expected.get(item.subject()));
+    }
+
+    @Override
+    protected boolean expects(K subject) {
+        return expected.containsKey(subject);
+    }
+
+    @Override
+    protected long expectedCount() {
+        return expected.size();
+    }
+
+    @Override
+    protected boolean saveAckStatus(K id, AckItem<T> status) {
+        synchronized (lockOf(id)) {
+            final boolean[] added = new boolean[1];
+            changeDigest(id, () -> added[0] = ack.put(id, status) == null);
+            write(JournalRecord.of(id, status));
+            return added[0];
+        }
+    }
+
+    @Override
+    protected Map<K, AckItem<T>> fetchAckState() {
+        return new HashMap<>(ack);
+    }
+
+    @Override
+    protected Collection<CatalogItem<K, T>> fetchExpectedList() {
+        return expected.values();
+    }
+
+    @Override
+    public Collection<CatalogItem<K, T>> getItemsToShare() {
+        return new ArrayList<>(send.values());
+    }
+
+    @Override
+    protected Collection<String> getAvailableTopics() {
+        return topics.keySet();
+    }
+
+    @Override
+    public ChangePage<K, T> getItemsChangedSince(ChangeCursor cursor, int limit) {
+        return changes.page(cursor, limit);
+    }
+
+    @Override
+    public CatalogDigest getCatalogDigest(String topic) {
+        return digestOf(topic);
+    }
+
+    @Override
+    public Collection<CatalogItem<K, T>> getItemsInRanges(List<DigestRange> ranges) {
+        final Map<K, CatalogItem<K, T>> items = new LinkedHashMap<>();
+        ranges.forEach(range -> {
+            final MerkleDigestTree digest = digests.get(range.topic());
+            if (digest != null) {
+                digest.subjects(range, subject -> {
+                    final CatalogItem<K, T> current = currentOf(subject);
+                    if (current != null) {
+                        items.putIfAbsent(current.subject(), current);
+                    }
+                });
+            }
+        });
+        return new ArrayList<>(items.values());
+    }
+
+    private void replay(JournalRecord<K, T> record) {
+        final K subject = record.subject();
+        synchronized (lockOf(subject)) {
+            switch (record.type()) {
+                case SEND -> {
+                    final CatalogItem<K, T> item = own.get(subject);
+                    if (item != null && record.present()) {
+                        addToSendList(item);
+                    } else if (item != null) {
+                        removeFromSendList(item);
+                    }
+                }
+                case NEWER -> changeDigest(subject, () -> {
+                    if (record.present()) {
+                        newer.put(subject, item(record));
+                    } else {
+                        newer.remove(subject);
+                    }
+                });
+                case EXPECTED -> {
+                    if (record.present()) {
+                        expected.put(subject, item(record));
+                    } else {
+                        expected.remove(subject);
+                    }
+                }
+                case ACK -> changeDigest(subject, () -> {
+                    if (record.present()) {
+                        ack.put(subject, new DefaultAckItem<>(true, record.deleted(), record.owner(),
+                                HybridLogicalClock.toVersion(record.timestamp())));
+                    } else {
+                        ack.remove(subject);
+                    }
+                });
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void writeState(Consumer<JournalRecord<K, T>> sink) {
+        own.keySet().forEach(subject -> {
+            synchronized (lockOf(subject)) {
+                if (own.containsKey(subject)) {
+                    sink.accept(JournalRecord.of(JournalRecord.Type.SEND, subject, send.get(subject)));
+                }
+            }
+        });
+        newer.forEach((subject, item) -> sink.accept(JournalRecord.of(JournalRecord.Type.NEWER, subject, item)));
+        expected.forEach((subject, item) -> sink.accept(JournalRecord.of(JournalRecord.Type.EXPECTED, subject, item)));
+        ack.forEach((subject, ackItem) -> sink.accept(JournalRecord.of(subject, ackItem)));
+    }
+
+    private CatalogItem<K, T> item(JournalRecord<K, T> record) {
+        return store.store().codec().item(record.subject(), record.owner(), record.timestamp(), record.deleted());
+    }
+
+    private void write(JournalRecord<K, T> record) {
+        if (writing) {
+            store.write(record);
+        }
+    }
+
+    private CatalogItem<K, T> currentOf(Subject subject) {
+        final CatalogItem<K, T> newerItem = newer.get(subject);
+        return newerItem != null ? newerItem : own.get(subject);
+    }
+
+    private void changeDigest(K subject, Runnable change) {
+        final long before = digestHash(subject);
+        change.run();
+        digestOf(subject.topic()).replace(subject, before, digestHash(subject));
+    }
+
+    private long digestHash(K subject) {
+        final CatalogItem<K, T> current = currentOf(subject);
+        if (current != null) {
+            return MerkleDigestTree.itemHash(current);
+        }
+        final AckItem<T> ackItem = ack.get(subject);
+        return ackItem != null ? MerkleDigestTree.itemHash(subject, ackItem.version(), ackItem.deleted()) : 0L;
+    }
+
+    private MerkleDigestTree digestOf(String topic) {
+        return digests.computeIfAbsent(topic, key -> new MerkleDigestTree(key, digestDepth()));
+    }
+
+    private Object lockOf(Subject subject) {
+        final int h = subject.hashCode();
+        return locks[(h ^ (h >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private final Map<K, CatalogItem<K, T>> own = new ConcurrentHashMap<>();
+
+    private final Map<K, CatalogItem<K, T>> send = new ConcurrentHashMap<>();
+
+    private final Map<K, CatalogItem<K, T>> newer = new ConcurrentHashMap<>();
+
+    private final Map<K, CatalogItem<K, T>> expected = new ConcurrentHashMap<>();
+
+    private final Map<K, AckItem<T>> ack = new ConcurrentHashMap<>();
+
+    private final Map<String, MerkleDigestTree> digests = new ConcurrentHashMap<>();
+
+    private final ChangeIndex<K, T> changes = new ChangeIndex<>(own::get);
+
+}
@@ -0,0 +1,171 @@
+package org.example.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class WriteBehindStore<K extends Subject, T> implements Closeable {
+
+    private final static Logger LOGGER = LoggerFactory.getLogger(WriteBehindStore.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofMillis(50);
+
+    private final CatalogStore<K, T> store;
+
+    private final int batchSize;
+
+    private final ScheduledExecutorService flusher;
+
+    public WriteBehindStore(CatalogStore<K, T> store) {
+        this(store, DEFAULT_BATCH_SIZE, DEFAULT_MAX_DELAY);
+    }
+
+    public WriteBehindStore(CatalogStore<K, T> store, int batchSize, Duration maxDelay) {
+        if (batchSize < 1 || maxDelay.isNegative() || maxDelay.isZero()) {
+            throw new IllegalArgumentException("Batch size and delay must be positive");
+        }
+        this.store = store;
+        this.batchSize = batchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            final Thread thread = new Thread(task, "catalog-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, maxDelay.toMillis(), maxDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public CatalogStore<K, T> store() {
+        return store;
+    }
+
+    public void write(JournalRecord<K, T> record) {
+        final Pending<K, T> entry = new Pending<>(sequence.getAndIncrement(), record);
+        if (pending.put(Key.of(record), entry) == null && size.incrementAndGet() >= batchSize
+                && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    public int pending() {
+        return size.get();
+    }
+
+    public void flush() {
+        synchronized (flushLock) {
+            flushRequested.set(false);
+            final List<Pending<K, T>> drained = new ArrayList<>();
+            pending.forEach((key, entry) -> {
+                if (pending.remove(key, entry)) {
+                    size.decrementAndGet();
+                    drained.add(entry);
+                }
+            });
+            if (drained.isEmpty()) {
+                return;
+            }
+            drained.sort(Comparator.comparingLong(Pending::sequence));
+            final List<JournalRecord<K, T>> batch = new ArrayList<>(drained.size());
+            drained.forEach(entry -> batch.add(entry.record()));
+            final boolean checkpoint;
+            try {
+                checkpoint = store.write(batch);
+            } catch (RuntimeException e) {
+                requeue(drained);
+                throw e;
+            }
+            flushed += batch.size();
+            LOGGER.trace("Flushed {} catalog records", batch.size());
+            final Consumer<Consumer<JournalRecord<K, T>>> current = state;
+            if (checkpoint && current != null) {
+                try {
+                    store.checkpoint(current);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Catalog store checkpoint failed", e);
+                }
+            }
+        }
+    }
+
+    public void barrier() {
+        synchronized (flushLock) {
+            flush();
+            store.sync();
+        }
+    }
+
+    public long flushed() {
+        synchronized (flushLock) {
+            return flushed;
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        barrier();
+    }
+
+    void checkpointFrom(Consumer<Consumer<JournalRecord<K, T>>> state) {
+        this.state = state;
+    }
+
+    private void requeue(List<Pending<K, T>> drained) {
+        drained.forEach(entry -> {
+            if (pending.putIfAbsent(Key.of(entry.record()), entry) == null) {
+                size.incrementAndGet();
+            }
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOGGER.error("Catalog write-behind flush failed", e);
+        }
+    }
+
+    private record Key<K extends Subject, T>(JournalRecord.Type type, K subject, T peer) {
+
+        static <K extends Subject, T> Key<K, T> of(JournalRecord<K, T> record) {
+            return switch (record.type()) {
+                case PEER_JOINED, PEER_LEFT -> new Key<>(JournalRecord.Type.PEER_JOINED, record.subject(), record.owner());
+                default -> new Key<>(record.type(), record.subject(), null);
+            };
+        }
+    }
+
+    private record Pending<K extends Subject, T>(long sequence, JournalRecord<K, T> record) {
+    }
+
+    private final Object flushLock = new Object();
+
+    private final Map<Key<K, T>, Pending<K, T>> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private volatile Consumer<Consumer<JournalRecord<K, T>>> state;
+
+    private long flushed;
+
+}
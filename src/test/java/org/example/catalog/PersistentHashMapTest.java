@@ -0,0 +1,134 @@
+package org.example.catalog;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class PersistentHashMapTest {
+
+    @Test
+    public void testCollisions() {
+        final Key a = new Key("a", 7);
+        final Key b = new Key("b", 7);
+        final Key c = new Key("c", 7);
+        PersistentHashMap<Key, String> map = PersistentHashMap.<Key, String>empty().with(a, "a").with(b, "b").with(c, "c");
+        Assertions.assertEquals(3, map.size());
+        Assertions.assertEquals("a", map.get(a));
+        Assertions.assertEquals("b", map.get(b));
+        Assertions.assertEquals("c", map.get(c));
+        Assertions.assertNull(map.get(new Key("d", 7)));
+        Assertions.assertEquals(2, map.depth());
+
+        final PersistentHashMap<Key, String> replaced = map.with(b, "b2");
+        Assertions.assertEquals(3, replaced.size());
+        Assertions.assertEquals("b2", replaced.get(b));
+        Assertions.assertEquals("b", map.get(b));
+
+        map = map.without(b);
+        Assertions.assertEquals(2, map.size());
+        Assertions.assertNull(map.get(b));
+        Assertions.assertEquals("c", map.get(c));
+
+        map = map.without(a);
+        Assertions.assertEquals(1, map.size());
+        Assertions.assertEquals("c", map.get(c));
+        Assertions.assertEquals(1, map.depth());
+
+        final Key other = new Key("other", 7 + 32);
+        map = map.with(a, "a").with(other, "other");
+        Assertions.assertEquals(3, map.size());
+        Assertions.assertEquals("other", map.get(other));
+        Assertions.assertEquals("a", map.get(a));
+    }
+
+    @Test
+    public void testSplit() {
+        final Key first = new Key("first", 1);
+        final Key second = new Key("second", 1 + 32);
+        final Key third = new Key("third", 1 + 32 + 1024);
+        PersistentHashMap<Key, String> map = PersistentHashMap.<Key, String>empty().with(first, "first");
+        Assertions.assertEquals(1, map.depth());
+        map = map.with(second, "second");
+        Assertions.assertEquals(2, map.depth());
+        map = map.with(third, "third");
+        Assertions.assertEquals(3, map.depth());
+        Assertions.assertEquals(3, map.size());
+        Assertions.assertEquals("first", map.get(first));
+        Assertions.assertEquals("second", map.get(second));
+        Assertions.assertEquals("third", map.get(third));
+        Assertions.assertNull(map.get(new Key("missing", 1 + 64)));
+    }
+
+    @Test
+    public void testWithoutCollapse() {
+        final Key first = new Key("first", 1);
+        final Key second = new Key("second", 1 + 32);
+        final Key third = new Key("third", 1 + 32 + 1024);
+        final PersistentHashMap<Key, String> full = PersistentHashMap.<Key, String>empty()
+                .with(first, "first").with(second, "second").with(third, "third");
+
+        final PersistentHashMap<Key, String> two = full.without(third);
+        Assertions.assertEquals(2, two.depth());
+        Assertions.assertEquals("second", two.get(second));
+
+        final PersistentHashMap<Key, String> one = two.without(first);
+        Assertions.assertEquals(1, one.depth());
+        Assertions.assertEquals("second", one.get(second));
+
+        Assertions.assertEquals(1, full.without(first).without(second).depth());
+        Assertions.assertEquals("third", full.without(first).without(second).get(third));
+
+        Assertions.assertSame(one, one.without(first));
+        final PersistentHashMap<Key, String> none = one.without(second);
+        Assertions.assertTrue(none.isEmpty());
+        Assertions.assertSame(PersistentHashMap.empty(), none);
+        Assertions.assertEquals(3, full.size());
+        Assertions.assertEquals("third", full.get(third));
+    }
+
+    @Test
+    public void testForEachAfter() {
+        PersistentHashMap<Key, Integer> map = PersistentHashMap.empty();
+        final Map<Key, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            final Key key = new Key("k" + i, i % 700);
+            map = map.with(key, i);
+            expected.put(key, i);
+        }
+        Assertions.assertEquals(expected.size(), map.size());
+
+        final Set<Key> seen = new HashSet<>();
+        Key after = null;
+        while (true) {
+            final List<Key> page = new ArrayList<>();
+            map.forEachAfter(after, (key, value) -> {
+                page.add(key);
+                return page.size() < 64;
+            });
+            if (page.isEmpty()) {
+                break;
+            }
+            page.forEach(key -> Assertions.assertTrue(seen.add(key), "Visited twice: " + key));
+            after = page.get(page.size() - 1);
+        }
+        Assertions.assertEquals(expected.keySet(), seen);
+
+        final Map<Key, Integer> all = new HashMap<>();
+        map.forEach(all::put);
+        Assertions.assertEquals(expected, all);
+    }
+
+    private record Key(String name, int hash) {
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
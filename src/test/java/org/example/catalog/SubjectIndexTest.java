@@ -0,0 +1,61 @@
+package org.example.catalog;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class SubjectIndexTest {
+
+    @Test
+    public void testReleaseKeepsProbeChains() {
+        final SubjectIndex<Key> index = new SubjectIndex<>();
+        final Map<Key, Integer> ids = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            final Key key = new Key("id" + i, i % 7);
+            ids.put(key, index.intern(key));
+        }
+        for (int i = 0; i < 300; i += 3) {
+            final Key key = new Key("id" + i, i % 7);
+            index.release(ids.remove(key));
+            Assertions.assertEquals(-1, index.find(key));
+        }
+        ids.forEach((key, id) -> {
+            Assertions.assertEquals(id, index.find(key));
+            Assertions.assertSame(key, index.subject(id));
+        });
+    }
+
+    @Test
+    public void testReleasedIdsAreReused() {
+        final SubjectIndex<Key> index = new SubjectIndex<>();
+        final Key first = new Key("first", 1);
+        final Key second = new Key("second", 2);
+        final int firstId = index.intern(first);
+        index.intern(second);
+        index.release(firstId);
+        Assertions.assertNull(index.subject(firstId));
+        index.release(firstId);
+
+        final Key third = new Key("third", 3);
+        Assertions.assertEquals(firstId, index.intern(third));
+        Assertions.assertEquals(2, index.size());
+        Assertions.assertEquals(firstId, index.find(third));
+        Assertions.assertEquals(-1, index.find(first));
+        Assertions.assertEquals(2, index.intern(first));
+    }
+
+    private record Key(String id, int hash) implements Subject {
+
+        @Override
+        public String topic() {
+            return "topic";
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.catalog;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TimerWheelTest {
+
+    @Test
+    public void testCascade() {
+        final TimerWheel<String> wheel = new TimerWheel<>(1, 0);
+        wheel.schedule("level0", 10);
+        wheel.schedule("level1", 100);
+        wheel.schedule("level2", 5000);
+        wheel.schedule("level3", 300_000);
+        Assertions.assertEquals(4, wheel.size());
+
+        Assertions.assertEquals(List.of(), advance(wheel, 9));
+        Assertions.assertEquals(List.of("level0"), advance(wheel, 10));
+        Assertions.assertEquals(List.of(), advance(wheel, 99));
+        Assertions.assertEquals(List.of("level1"), advance(wheel, 100));
+        Assertions.assertEquals(List.of(), advance(wheel, 4999));
+        Assertions.assertEquals(List.of("level2"), advance(wheel, 5000));
+        Assertions.assertEquals(List.of(), advance(wheel, 299_999));
+        Assertions.assertEquals(List.of("level3"), advance(wheel, 300_000));
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testWraparound() {
+        final long origin = Long.MAX_VALUE - 5;
+        final TimerWheel<String> wheel = new TimerWheel<>(1, origin);
+        Assertions.assertEquals(List.of(), advance(wheel, origin + 60));
+        wheel.schedule("slot", 10);
+        wheel.schedule("clamped", Long.MAX_VALUE);
+        Assertions.assertEquals(List.of(), advance(wheel, origin + 69));
+        Assertions.assertEquals(List.of("slot"), advance(wheel, origin + 70));
+        Assertions.assertEquals(1, wheel.size());
+
+        final TimerWheel<String> ticks = new TimerWheel<>(10, 0);
+        ticks.schedule("rounded", 15);
+        Assertions.assertEquals(List.of(), advance(ticks, 19));
+        Assertions.assertEquals(List.of("rounded"), advance(ticks, 20));
+    }
+
+    @Test
+    public void testCancel() {
+        final TimerWheel<String> wheel = new TimerWheel<>(1, 0);
+        final TimerWheel.Timer<String> near = wheel.schedule("near", 5);
+        final TimerWheel.Timer<String> far = wheel.schedule("far", 200);
+        wheel.schedule("kept", 5);
+        wheel.cancel(near);
+        wheel.cancel(near);
+        Assertions.assertEquals(2, wheel.size());
+        Assertions.assertEquals(List.of("kept"), advance(wheel, 192));
+
+        wheel.cancel(far);
+        Assertions.assertEquals(0, wheel.size());
+        Assertions.assertEquals(List.of(), advance(wheel, 1000));
+
+        final TimerWheel.Timer<String> fired = wheel.schedule("fired", 1);
+        Assertions.assertEquals(List.of("fired"), advance(wheel, 1001));
+        wheel.cancel(fired);
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    private static List<String> advance(TimerWheel<String> wheel, long nowNanos) {
+        final List<String> expired = new ArrayList<>();
+        wheel.advance(nowNanos, expired::add);
+        return expired;
+    }
+}
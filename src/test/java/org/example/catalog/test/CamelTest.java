@@ -5,8 +5,10 @@ import org.apache.camel.RoutesBuilder;
 import org.apache.camel.ServiceStatus;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.test.junit5.CamelTestSupport;
+import org.example.catalog.AckStatus;
 import org.example.catalog.CatalogItem;
 import org.example.catalog.test.camel.CamelSharedCatalog;
+import org.example.catalog.test.camel.SharedCatalogRoute;
 import org.example.catalog.test.mock.CatalogItemTest;
 import org.example.catalog.test.mock.ItemPayload;
 import org.example.catalog.test.mock.ParticipantTest;
@@ -19,7 +21,14 @@ import org.slf4j.LoggerFactory;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
 
 
 
@@ -27,6 +36,34 @@ public class CamelTest extends CamelTestSupport {
 
     private final static Logger LOGGER = LoggerFactory.getLogger(CamelTest.class);
 
+    private static final int ITEMS = 20_000;
+
+    private static final int PARTITIONS = 4;
+
+    private final AtomicLongArray lastVersions = new AtomicLongArray(PARTITIONS);
+
+    private final AtomicIntegerArray inFlight = new AtomicIntegerArray(PARTITIONS);
+
+    private final Queue<String> violations = new ConcurrentLinkedQueue<>();
+
+    private final CamelSharedCatalog throughputCatalog = new CamelSharedCatalog(new ParticipantTest(UUID.randomUUID(), "owner")) {
+
+        @Override
+        public void acceptForeignCatalog(List<CatalogItem<SubjectTest, ParticipantTest>> otherItems) {
+            final int partition = SharedCatalogRoute.partitionOf(otherItems.get(0).subject(), PARTITIONS);
+            if (inFlight.incrementAndGet(partition) > 1) {
+                violations.add("Partition " + partition + " processed concurrently");
+            }
+            for (CatalogItem<SubjectTest, ParticipantTest> item : otherItems) {
+                if (lastVersions.getAndSet(partition, item.version()) >= item.version()) {
+                    violations.add("Partition " + partition + " reordered " + item.subject());
+                }
+            }
+            super.acceptForeignCatalog(otherItems);
+            inFlight.decrementAndGet(partition);
+        }
+    };
+
     @Test
     public void test() throws Exception {
 
@@ -46,15 +83,48 @@ public class CamelTest extends CamelTestSupport {
         assertMockEndpointsSatisfied();
     }
 
+    @Test
+    public void testThroughput() {
+        final ProducerTemplate producer = context.createProducerTemplate();
+        final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = IntStream.range(0, ITEMS)
+                .<CatalogItem<SubjectTest, ParticipantTest>>mapToObj(i -> new CatalogItemTest(Instant.ofEpochMilli(1000 + i), false, participant1, new ItemPayload("foreign" + i, "value" + i)))
+                .toList();
+
+        final long started = System.nanoTime();
+        foreignItems.forEach(item -> producer.sendBody(SharedCatalogRoute.INBOUND, item));
+        awaitCount(AckStatus.PENDING, ITEMS);
+        final long accepted = System.nanoTime();
+        foreignItems.forEach(item -> producer.sendBody(SharedCatalogRoute.ACKS, item));
+        awaitCount(AckStatus.OK, ITEMS);
+        final long acknowledged = System.nanoTime();
+
+        Assertions.assertTrue(throughputCatalog.acknowledged());
+        Assertions.assertEquals(List.of(), List.copyOf(violations));
+        LOGGER.info("Accepted {} items/s, acknowledged {} items/s",
+                ITEMS * 1_000_000_000L / (accepted - started), ITEMS * 1_000_000_000L / (acknowledged - accepted));
+    }
+
+    private void awaitCount(AckStatus status, int expected) {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (throughputCatalog.getAckReport().count(status) < expected) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Timed out waiting for " + expected + " " + status + " items");
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
     @Override
-    protected RoutesBuilder createRouteBuilder() throws Exception {
-        return new RouteBuilder() {
+    protected RoutesBuilder[] createRouteBuilders() throws Exception {
+        return new RoutesBuilder[]{
+                new RouteBuilder() {
 
-            @Override
-            public void configure() throws Exception {
-                from("seda:sharedCatalogOutbound")
-                        .to("mock:test");
-            }
+                    @Override
+                    public void configure() throws Exception {
+                        from("seda:sharedCatalogOutbound")
+                                .to("mock:test");
+                    }
+                },
+                new SharedCatalogRoute<>(throughputCatalog, PARTITIONS, 512, 20)
         };
     }
 }
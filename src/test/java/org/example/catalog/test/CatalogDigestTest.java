@@ -0,0 +1,121 @@
+package org.example.catalog.test;
+
+import org.example.catalog.*;
+import org.example.catalog.test.mock.CatalogItemTest;
+import org.example.catalog.test.mock.ItemPayload;
+import org.example.catalog.test.mock.ParticipantTest;
+import org.example.catalog.test.mock.SubjectTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.example.catalog.test.SharedCatalogTest.TEST_TOPIC;
+
+public class CatalogDigestTest {
+
+    private final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+
+    private final ParticipantTest participant2 = new ParticipantTest(UUID.randomUUID(), "participant2");
+
+    @Test
+    public void testIdenticalCatalogsHaveNoDifferences() {
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog1 = newCatalog(participant1, items(participant1, 500, -1));
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog2 = newCatalog(participant2, items(participant2, 500, -1));
+        catalog1.start();
+        catalog2.start();
+        final CatalogDigest digest1 = catalog1.getCatalogDigest(TEST_TOPIC);
+        final CatalogDigest digest2 = catalog2.getCatalogDigest(TEST_TOPIC);
+        Assertions.assertEquals(digest1.digest(0, 0), digest2.digest(0, 0));
+        Assertions.assertTrue(catalog1.diffCatalogDigest(digest2).isEmpty());
+    }
+
+    @Test
+    public void testChangedSubjectIsTheOnlyRangeToExchange() {
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog1 = newCatalog(participant1, items(participant1, 500, 42));
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog2 = newCatalog(participant2, items(participant2, 500, -1));
+        catalog1.start();
+        catalog2.start();
+
+        final List<DigestRange> ranges = catalog2.diffCatalogDigest(catalog1.getCatalogDigest(TEST_TOPIC));
+        Assertions.assertEquals(1, ranges.size());
+        Assertions.assertTrue(ranges.get(0).contains(new SubjectTest(TEST_TOPIC, "id42")));
+
+        final Collection<CatalogItem<SubjectTest, ParticipantTest>> changed = catalog1.getItemsInRanges(ranges);
+        Assertions.assertTrue(changed.size() < 10);
+        Assertions.assertTrue(changed.stream().anyMatch(item -> item.subject().id().equals("id42")));
+
+        catalog2.acceptForeignCatalog(new ArrayList<>(changed));
+        Assertions.assertTrue(catalog2.diffCatalogDigest(catalog1.getCatalogDigest(TEST_TOPIC)).isEmpty());
+    }
+
+    @Test
+    public void testPeerOnlySubjectsConverge() {
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog1 = newCatalog(participant1, items(participant1, 500, -1));
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog2 = newCatalog(participant2, items(participant2, 500, -1).subList(0, 250));
+        catalog1.start();
+        catalog2.start();
+
+        final List<DigestRange> ranges = catalog2.diffCatalogDigest(catalog1.getCatalogDigest(TEST_TOPIC));
+        Assertions.assertFalse(ranges.isEmpty());
+        final Collection<CatalogItem<SubjectTest, ParticipantTest>> changed = catalog1.getItemsInRanges(ranges);
+        Assertions.assertTrue(changed.stream().allMatch(item -> ranges.stream().anyMatch(range -> range.contains(item.subject()))));
+        Assertions.assertTrue(changed.stream().anyMatch(item -> item.subject().id().equals("id499")));
+
+        catalog2.acceptForeignCatalog(new ArrayList<>(changed));
+        Assertions.assertEquals(250, catalog2.getAckReport().count(AckStatus.PENDING));
+        changed.forEach(catalog2::acknowledgeReceivedItem);
+        Assertions.assertTrue(catalog2.acknowledged());
+        Assertions.assertTrue(catalog2.diffCatalogDigest(catalog1.getCatalogDigest(TEST_TOPIC)).isEmpty());
+        Assertions.assertTrue(catalog1.diffCatalogDigest(catalog2.getCatalogDigest(TEST_TOPIC)).isEmpty());
+    }
+
+    @Test
+    public void testConfiguredDepth() {
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog1 = newCatalog(participant1, items(participant1, 500, 42));
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog2 = newCatalog(participant2, items(participant2, 500, -1));
+        catalog1.digestDepth(2);
+        catalog2.digestDepth(2);
+        catalog1.start();
+        catalog2.start();
+
+        final List<DigestRange> ranges = catalog2.diffCatalogDigest(catalog1.getCatalogDigest(TEST_TOPIC));
+        Assertions.assertEquals(List.of(2), ranges.stream().map(DigestRange::depth).distinct().toList());
+        Assertions.assertTrue(ranges.get(0).contains(new SubjectTest(TEST_TOPIC, "id42")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> catalog1.digestDepth(MerkleDigestTree.MAX_DEPTH + 1));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> catalog2.diffCatalogDigest(new MerkleDigestTree(TEST_TOPIC, MerkleDigestTree.DEFAULT_DEPTH)));
+    }
+
+    private List<CatalogItem<SubjectTest, ParticipantTest>> items(ParticipantTest owner, int count, int touched) {
+        final List<CatalogItem<SubjectTest, ParticipantTest>> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(new CatalogItemTest(Instant.ofEpochMilli(i == touched ? 5000 : 100), false, owner,
+                    new ItemPayload("id" + i, "value" + i)));
+        }
+        return items;
+    }
+
+    private DefaultSharedCatalog<SubjectTest, ParticipantTest> newCatalog(ParticipantTest owner,
+                                                                  Collection<CatalogItem<SubjectTest, ParticipantTest>> myItems) {
+        return new DefaultSharedCatalog<>(owner) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return myItems;
+            }
+        };
+    }
+}
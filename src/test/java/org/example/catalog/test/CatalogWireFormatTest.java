@@ -0,0 +1,149 @@
+package org.example.catalog.test;
+
+import org.example.catalog.*;
+import org.example.catalog.test.mock.CatalogItemTest;
+import org.example.catalog.test.mock.ItemPayload;
+import org.example.catalog.test.mock.ParticipantTest;
+import org.example.catalog.test.mock.SubjectTest;
+import org.example.catalog.test.mock.WireCodecTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.example.catalog.test.SharedCatalogTest.TEST_TOPIC;
+
+public class CatalogWireFormatTest {
+
+    private final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+
+    private final ParticipantTest participant2 = new ParticipantTest(UUID.randomUUID(), "participant2");
+
+    private final CatalogWireFormat<SubjectTest, ParticipantTest, ItemPayload> format = new CatalogWireFormat<>(new WireCodecTest());
+
+    @Test
+    public void testItemsRoundTrip() {
+        final List<CatalogItem<SubjectTest, ParticipantTest>> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            items.add(new CatalogItemTest(Instant.ofEpochMilli(1_700_000_000_000L + (i * 7919L) % 1000), i % 3 == 0,
+                    i % 2 == 0 ? participant1 : participant2, new ItemPayload("id" + i, "value" + i)));
+        }
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        format.writeItems(buffer, items);
+        final int size = buffer.position();
+        Assertions.assertTrue(size < 1000 * 24, "encoded size " + size);
+        Assertions.assertEquals(size, format.encodedSize(items));
+
+        buffer.flip();
+        final Map<SubjectTest, CatalogItem<SubjectTest, ParticipantTest>> decoded = format.readItems(buffer).stream()
+                .collect(Collectors.toMap(CatalogItem::subject, Function.identity()));
+        Assertions.assertFalse(buffer.hasRemaining());
+        Assertions.assertEquals(items.size(), decoded.size());
+        for (CatalogItem<SubjectTest, ParticipantTest> item : items) {
+            final CatalogItemTest copy = (CatalogItemTest) decoded.get(item.subject());
+            Assertions.assertEquals(item.version(), copy.version());
+            Assertions.assertEquals(item.isDeleted(), copy.isDeleted());
+            Assertions.assertEquals(item.owner(), copy.owner());
+            Assertions.assertEquals(((CatalogItemTest) item).getPayload(), copy.getPayload());
+        }
+    }
+
+    @Test
+    public void testElidedPayloads() {
+        final List<CatalogItem<SubjectTest, ParticipantTest>> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(new CatalogItemTest(Instant.ofEpochMilli(1_700_000_000_000L + i), false, participant1,
+                    new ItemPayload("id" + i, "a fairly long payload value " + i)));
+        }
+        final ByteBuffer full = ByteBuffer.allocate(64 * 1024);
+        format.writeItems(full, items);
+        final ByteBuffer elided = ByteBuffer.allocate(64 * 1024);
+        format.writeItems(elided, items, item -> !item.subject().id().equals("id0"));
+        Assertions.assertTrue(elided.position() < full.position() / 2, elided.position() + " vs " + full.position());
+        Assertions.assertEquals(full.position(), format.encodedSize(items));
+        Assertions.assertEquals(elided.position(), format.encodedSize(items, item -> !item.subject().id().equals("id0")));
+
+        final Map<SubjectTest, CatalogItem<SubjectTest, ParticipantTest>> local = items.stream()
+                .filter(item -> !item.subject().id().equals("id1"))
+                .map(item -> (CatalogItem<SubjectTest, ParticipantTest>) new CatalogItemTest(Instant.ofEpochMilli(1000), false, participant2,
+                        ((CatalogItemTest) item).getPayload()))
+                .collect(Collectors.toMap(CatalogItem::subject, Function.identity()));
+        local.put(new SubjectTest(TEST_TOPIC, "id2"), new CatalogItemTest(Instant.ofEpochMilli(1000), false, participant2,
+                new ItemPayload("id2", "stale")));
+        final List<SubjectTest> missing = new ArrayList<>();
+        elided.flip();
+        final List<CatalogItem<SubjectTest, ParticipantTest>> decoded = format.readItems(elided, local::get, missing::add);
+        Assertions.assertFalse(elided.hasRemaining());
+        Assertions.assertEquals(Set.of("id1", "id2"), missing.stream().map(SubjectTest::id).collect(Collectors.toSet()));
+        Assertions.assertEquals(items.size() - 2, decoded.size());
+        for (CatalogItem<SubjectTest, ParticipantTest> copy : decoded) {
+            final CatalogItemTest item = (CatalogItemTest) items.get(Integer.parseInt(copy.subject().id().substring(2)));
+            Assertions.assertEquals(item.version(), copy.version());
+            Assertions.assertEquals(participant1, copy.owner());
+            Assertions.assertEquals(item.getPayload(), ((CatalogItemTest) copy).getPayload());
+        }
+
+        elided.rewind();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> format.readItems(elided));
+    }
+
+    @Test
+    public void testAcksDigestsAndRangesRoundTrip() {
+        final List<Acknowledgement<SubjectTest, ParticipantTest>> acks = List.of(
+                new Acknowledgement<>(new SubjectTest(TEST_TOPIC, "id1"), new DefaultAckItem<>(true, false, participant1, 300L)),
+                new Acknowledgement<>(new SubjectTest(TEST_TOPIC, "id2"), new DefaultAckItem<>(false, true, participant2, 100L)),
+                new Acknowledgement<>(new SubjectTest("otherTopic", "id3"), new DefaultAckItem<>(true, true, null, 200L)));
+        final ByteBuffer buffer = ByteBuffer.allocate(4096);
+        format.writeAcks(buffer, acks);
+        buffer.flip();
+        final Map<SubjectTest, AckItem<ParticipantTest>> decoded = format.readAcks(buffer).stream()
+                .collect(Collectors.toMap(Acknowledgement::subject, Acknowledgement::ackItem));
+        for (Acknowledgement<SubjectTest, ParticipantTest> ack : acks) {
+            final AckItem<ParticipantTest> copy = decoded.get(ack.subject());
+            Assertions.assertEquals(ack.ackItem().ok(), copy.ok());
+            Assertions.assertEquals(ack.ackItem().deleted(), copy.deleted());
+            Assertions.assertEquals(ack.ackItem().by(), copy.by());
+            Assertions.assertEquals(ack.ackItem().version(), copy.version());
+        }
+
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog = new DefaultSharedCatalog<>(participant1) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return List.of(new CatalogItemTest(Instant.ofEpochMilli(100), false, participant1, new ItemPayload("id1", "value1")),
+                        new CatalogItemTest(Instant.ofEpochMilli(200), false, participant1, new ItemPayload("id2", "value2")));
+            }
+        };
+        catalog.start();
+        buffer.clear();
+        CatalogWireFormat.writeDigest(buffer, catalog.getCatalogDigest(TEST_TOPIC));
+        buffer.flip();
+        final CatalogDigest digest = CatalogWireFormat.readDigest(buffer);
+        Assertions.assertTrue(catalog.diffCatalogDigest(digest).isEmpty());
+
+        final MerkleDigestTree empty = new MerkleDigestTree(TEST_TOPIC);
+        final List<DigestRange> ranges = MerkleDigestTree.diff(empty, digest);
+        Assertions.assertFalse(ranges.isEmpty());
+        buffer.clear();
+        CatalogWireFormat.writeRanges(buffer, ranges);
+        buffer.flip();
+        Assertions.assertEquals(ranges, CatalogWireFormat.readRanges(buffer));
+    }
+}
@@ -0,0 +1,194 @@
+package org.example.catalog.test;
+
+import org.example.catalog.*;
+import org.example.catalog.test.mock.CatalogItemTest;
+import org.example.catalog.test.mock.ItemPayload;
+import org.example.catalog.test.mock.ParticipantTest;
+import org.example.catalog.test.mock.SubjectTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.example.catalog.test.SharedCatalogTest.TEST_TOPIC;
+
+public class CompactSharedCatalogTest {
+
+    private final ParticipantTest owner = new ParticipantTest(UUID.randomUUID(), "owner");
+
+    private final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+
+    private final AtomicInteger loadedPayloads = new AtomicInteger();
+
+    @Test
+    public void testBehavesLikeDefaultCatalog() {
+        final Random random = new Random(7);
+        final List<CatalogItem<SubjectTest, ParticipantTest>> myItems = new ArrayList<>();
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            myItems.add(new CatalogItemTest(Instant.ofEpochMilli(1000 + i), i % 10 == 0, owner, new ItemPayload("id" + i, "value" + i)));
+            foreignItems.add(new CatalogItemTest(Instant.ofEpochSecond(1, 1_000_000L * (1000 + i) + random.nextInt(3) - 1),
+                    random.nextInt(4) == 0, participant1, new ItemPayload("id" + random.nextInt(4000), "value" + i)));
+        }
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> expected = newDefaultCatalog(myItems);
+        final CompactSharedCatalog<SubjectTest, ParticipantTest> compact = newCompactCatalog(myItems);
+        expected.start();
+        compact.start();
+        expected.reconcileForeignCatalog(foreignItems);
+        compact.reconcileForeignCatalog(foreignItems);
+        foreignItems.stream().filter(item -> random.nextBoolean()).forEach(item -> {
+            expected.acknowledgeReceivedItem(item);
+            compact.acknowledgeReceivedItem(item);
+        });
+
+        Assertions.assertEquals(subjects(expected.getItemsToShare()), subjects(compact.getItemsToShare()));
+        Assertions.assertEquals(statuses(expected.getAckReport()), statuses(compact.getAckReport()));
+        Assertions.assertEquals(expected.acknowledged(), compact.acknowledged());
+        Assertions.assertTrue(compact.diffCatalogDigest(expected.getCatalogDigest(TEST_TOPIC)).isEmpty());
+        final long since = HybridLogicalClock.toVersion(Instant.ofEpochMilli(3500));
+        final ChangePage<SubjectTest, ParticipantTest> expectedChanges = expected.getItemsChangedSince(since, 100);
+        final ChangePage<SubjectTest, ParticipantTest> compactChanges = compact.getItemsChangedSince(since, 100);
+        Assertions.assertEquals(expectedChanges.items().stream().map(CatalogItem::subject).toList(),
+                compactChanges.items().stream().map(CatalogItem::subject).toList());
+        Assertions.assertEquals(expectedChanges.next(), compactChanges.next());
+    }
+
+    @Test
+    public void testPayloadsAreLoadedOnDemand() {
+        final List<CatalogItem<SubjectTest, ParticipantTest>> myItems = Arrays.asList(
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, owner, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(200), false, owner, new ItemPayload("id2", "value2")),
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, owner, new ItemPayload("id3", "value3"))
+        );
+        final CompactSharedCatalog<SubjectTest, ParticipantTest> compact = newCompactCatalog(myItems);
+        compact.start();
+        compact.acceptForeignCatalog(List.of(
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id3", "value3"))));
+        Assertions.assertEquals(0, loadedPayloads.get());
+
+        final Collection<CatalogItem<SubjectTest, ParticipantTest>> toShare = compact.getItemsToShare();
+        Assertions.assertEquals(2, toShare.size());
+        Assertions.assertTrue(toShare.stream().allMatch(item -> item instanceof CatalogItemTest));
+        Assertions.assertEquals(2, loadedPayloads.get());
+    }
+
+    @Test
+    public void testShareEventsCarryPayloads() throws InterruptedException {
+        final List<CatalogItem<SubjectTest, ParticipantTest>> myItems = Arrays.asList(
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, owner, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, owner, new ItemPayload("id2", "value2"))
+        );
+        final CompactSharedCatalog<SubjectTest, ParticipantTest> compact = newCompactCatalog(myItems);
+        compact.start();
+        compact.acceptForeignCatalogItem(new CatalogItemTest(Instant.ofEpochMilli(50), false, participant1, new ItemPayload("id1", "value1")));
+        final BlockingQueue<ShareEvent<SubjectTest, ParticipantTest>> events = new LinkedBlockingQueue<>();
+        compact.shareEvents().subscribe(new Flow.Subscriber<>() {
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ShareEvent<SubjectTest, ParticipantTest> event) {
+                events.add(event);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        compact.acceptForeignCatalogItem(new CatalogItemTest(Instant.ofEpochMilli(50), true, participant1, new ItemPayload("id1", "value1")));
+
+        final Set<SubjectTest> shared = new HashSet<>();
+        for (int i = 0; i < 2; i++) {
+            final ShareEvent<SubjectTest, ParticipantTest> event = events.poll(5, TimeUnit.SECONDS);
+            Assertions.assertNotNull(event);
+            Assertions.assertEquals(ShareEvent.Type.ADDED, event.type());
+            Assertions.assertInstanceOf(CatalogItemTest.class, event.item());
+            shared.add(event.item().subject());
+        }
+        Assertions.assertEquals(subjects(myItems), shared);
+    }
+
+    @Test
+    public void testDedupesUnchangedPayloads() {
+        final List<CatalogItem<SubjectTest, ParticipantTest>> myItems = Arrays.asList(
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, owner, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, owner, new ItemPayload("id2", "value2"))
+        );
+        final CompactSharedCatalog<SubjectTest, ParticipantTest> compact = newCompactCatalog(myItems);
+        compact.dedupeUnchangedPayloads();
+        compact.start();
+        final ReconciliationDelta<SubjectTest, ParticipantTest> delta = compact.reconcileForeignCatalog(List.of(
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id2", "changed"))));
+
+        Assertions.assertEquals(Set.of(new SubjectTest(TEST_TOPIC, "id1")), subjects(delta.touched()));
+        Assertions.assertEquals(Set.of(new SubjectTest(TEST_TOPIC, "id2")), subjects(delta.toExpect()));
+        Assertions.assertEquals(1, compact.getAckReport().count(AckStatus.PENDING));
+    }
+
+    private Set<SubjectTest> subjects(Collection<CatalogItem<SubjectTest, ParticipantTest>> items) {
+        return items.stream().map(CatalogItem::subject).collect(Collectors.toSet());
+    }
+
+    private Map<SubjectTest, AckStatus> statuses(AckReport<SubjectTest, ParticipantTest> report) {
+        return report.getItems().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> AckStatus.of(entry.getValue())));
+    }
+
+    private DefaultSharedCatalog<SubjectTest, ParticipantTest> newDefaultCatalog(Collection<CatalogItem<SubjectTest, ParticipantTest>> myItems) {
+        return new DefaultSharedCatalog<>(owner) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return myItems;
+            }
+        };
+    }
+
+    private CompactSharedCatalog<SubjectTest, ParticipantTest> newCompactCatalog(Collection<CatalogItem<SubjectTest, ParticipantTest>> myItems) {
+        return new CompactSharedCatalog<>(owner) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            protected CatalogItem<SubjectTest, ParticipantTest> loadItem(SubjectTest subject, ParticipantTest owner,
+                                                                         Instant timestamp, boolean deleted) {
+                loadedPayloads.incrementAndGet();
+                return new CatalogItemTest(timestamp, deleted, owner, new ItemPayload(subject.id(), "loaded"));
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return myItems;
+            }
+        };
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.catalog.test;
+
+import org.example.catalog.*;
+import org.example.catalog.test.mock.CatalogItemTest;
+import org.example.catalog.test.mock.ItemPayload;
+import org.example.catalog.test.mock.ParticipantTest;
+import org.example.catalog.test.mock.SubjectTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.example.catalog.test.SharedCatalogTest.TEST_TOPIC;
+
+public class ConcurrentSharedCatalogTest {
+
+    private static final int SUBJECTS = 200;
+
+    private static final int THREADS = 8;
+
+    private static final int ROUNDS = 20;
+
+    private final ParticipantTest owner = new ParticipantTest(UUID.randomUUID(), "owner");
+
+    private final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+
+    private final ParticipantTest participant2 = new ParticipantTest(UUID.randomUUID(), "participant2");
+
+    private final AtomicInteger acknowledgements = new AtomicInteger();
+
+    @Test
+    public void testConcurrentTransitionsStayConsistent() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                runRound(executor, new Random(round));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void runRound(ExecutorService executor, Random random) throws Exception {
+        acknowledgements.set(0);
+        final List<CatalogItem<SubjectTest, ParticipantTest>> myItems = new ArrayList<>();
+        final List<CatalogItem<SubjectTest, ParticipantTest>> newerItems = new ArrayList<>();
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = new ArrayList<>();
+        for (int i = 0; i < SUBJECTS; i++) {
+            final ItemPayload payload = new ItemPayload("id" + i, "value" + i);
+            myItems.add(new CatalogItemTest(Instant.ofEpochMilli(1000 + i), false, owner, payload));
+            newerItems.add(new CatalogItemTest(Instant.ofEpochMilli(1001 + i), false, participant1, payload));
+            foreignItems.add(new CatalogItemTest(Instant.ofEpochMilli(999 + i), true, participant2, payload));
+            foreignItems.add(new CatalogItemTest(Instant.ofEpochMilli(999 + i), false, participant2, payload));
+        }
+        foreignItems.addAll(newerItems);
+        Collections.shuffle(foreignItems, random);
+
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog = newCatalog(myItems);
+        catalog.start();
+        runConcurrently(executor, foreignItems, (thread, items) -> {
+            if (thread % 2 == 0) {
+                items.forEach(catalog::acceptForeignCatalogItem);
+            } else {
+                catalog.reconcileForeignCatalog(items);
+            }
+        });
+
+        Assertions.assertTrue(catalog.getItemsToShare().isEmpty());
+        Assertions.assertEquals(0, catalog.getItemsToShare().stream().count());
+        Assertions.assertEquals(SUBJECTS, catalog.getAckReport().count(AckStatus.PENDING));
+        Assertions.assertEquals(SUBJECTS, catalog.getAckReport().stream(AckStatus.PENDING, TEST_TOPIC).count());
+
+        final MerkleDigestTree expectedDigest = new MerkleDigestTree(TEST_TOPIC);
+        newerItems.forEach(expectedDigest::add);
+        Assertions.assertTrue(catalog.diffCatalogDigest(expectedDigest).isEmpty());
+
+        final List<CatalogItem<SubjectTest, ParticipantTest>> acks = new ArrayList<>(newerItems);
+        acks.addAll(newerItems);
+        Collections.shuffle(acks, random);
+        runConcurrently(executor, acks, (thread, items) -> items.forEach(catalog::acknowledgeReceivedItem));
+
+        Assertions.assertTrue(catalog.acknowledged());
+        Assertions.assertEquals(SUBJECTS, acknowledgements.get());
+        Assertions.assertEquals(SUBJECTS, catalog.getAckReport().count(AckStatus.OK));
+        Assertions.assertEquals(SUBJECTS, catalog.getAckReport().getItems().size());
+    }
+
+    private void runConcurrently(ExecutorService executor,
+                                 List<CatalogItem<SubjectTest, ParticipantTest>> items,
+                                 Worker worker) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            final int index = thread;
+            final List<CatalogItem<SubjectTest, ParticipantTest>> slice = new ArrayList<>();
+            for (int i = thread; i < items.size(); i += THREADS) {
+                slice.add(items.get(i));
+            }
+            futures.add(executor.submit(() -> {
+                start.await();
+                worker.run(index, slice);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private interface Worker {
+        void run(int thread, List<CatalogItem<SubjectTest, ParticipantTest>> items);
+    }
+
+    private DefaultSharedCatalog<SubjectTest, ParticipantTest> newCatalog(Collection<CatalogItem<SubjectTest, ParticipantTest>> myItems) {
+        return new DefaultSharedCatalog<>(owner) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+                acknowledgements.incrementAndGet();
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return myItems;
+            }
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.catalog.test;
+
+import org.example.catalog.HybridLogicalClock;
+import org.example.catalog.test.mock.CatalogItemTest;
+import org.example.catalog.test.mock.ItemPayload;
+import org.example.catalog.test.mock.ParticipantTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+public class HybridLogicalClockTest {
+
+    private final ParticipantTest owner = new ParticipantTest(UUID.randomUUID(), "owner");
+
+    @Test
+    public void testVersionsOrderWithinMillisecond() {
+        final long first = HybridLogicalClock.toVersion(Instant.ofEpochMilli(1000));
+        final long second = first + 1;
+        Assertions.assertEquals(Instant.ofEpochMilli(1000).toEpochMilli(), HybridLogicalClock.toInstant(second).toEpochMilli());
+
+        final CatalogItemTest older = new CatalogItemTest(Instant.ofEpochMilli(1000), false, owner, new ItemPayload("id1", "value1"));
+        final CatalogItemTest item1 = new CatalogItemTest(first, false, owner, new ItemPayload("id1", "value1"));
+        final CatalogItemTest item2 = new CatalogItemTest(second, false, owner, new ItemPayload("id1", "value2"));
+        Assertions.assertTrue(item2.isNewerThan(item1));
+        Assertions.assertFalse(item1.isNewerThan(item2));
+        Assertions.assertFalse(item1.isNewerThan(older));
+        Assertions.assertEquals(older.getTimestamp(), item1.getTimestamp());
+    }
+
+    @Test
+    public void testObservedVersionsMoveClockForward() {
+        final HybridLogicalClock clock = new HybridLogicalClock(() -> 1000L);
+        clock.observe(5000L);
+        Assertions.assertEquals(5000L, clock.last());
+        clock.observe(10L);
+        Assertions.assertEquals(5000L, clock.last());
+    }
+
+    @Test
+    public void testDriftIsBounded() {
+        final HybridLogicalClock clock = new HybridLogicalClock(() -> 1000L);
+        clock.maxDrift(Duration.ofNanos(100));
+        Assertions.assertTrue(clock.observe(1100L));
+        Assertions.assertEquals(1100L, clock.last());
+        Assertions.assertFalse(clock.observe(1101L + Duration.ofHours(1).toNanos()));
+        Assertions.assertEquals(1100L, clock.last());
+    }
+
+    @Test
+    public void testVersionsSaturate() {
+        Assertions.assertEquals(Long.MAX_VALUE, HybridLogicalClock.toVersion(Instant.MAX));
+        Assertions.assertEquals(Long.MAX_VALUE, HybridLogicalClock.toVersion(Instant.parse("2262-04-11T23:47:16.854775808Z")));
+        Assertions.assertEquals(Long.MAX_VALUE - 1, HybridLogicalClock.toVersion(Instant.parse("2262-04-11T23:47:16.854775806Z")));
+        Assertions.assertEquals(Long.MIN_VALUE, HybridLogicalClock.toVersion(Instant.MIN));
+        Assertions.assertEquals(-1L, HybridLogicalClock.toVersion(Instant.ofEpochSecond(-1, 999_999_999)));
+    }
+}
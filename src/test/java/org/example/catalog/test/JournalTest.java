@@ -0,0 +1,411 @@
+package org.example.catalog.test;
+
+import org.example.catalog.*;
+import org.example.catalog.test.jdbc.H2CatalogStore;
+import org.example.catalog.test.mock.CatalogItemTest;
+import org.example.catalog.test.mock.ItemPayload;
+import org.example.catalog.test.mock.ParticipantTest;
+import org.example.catalog.test.mock.SubjectTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.example.catalog.test.SharedCatalogTest.TEST_TOPIC;
+
+public class JournalTest {
+
+    private final ParticipantTest owner = new ParticipantTest(UUID.randomUUID(), "owner");
+
+    private final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+
+    private final ParticipantTest participant2 = new ParticipantTest(UUID.randomUUID(), "participant2");
+
+    private final List<CatalogItem<SubjectTest, ParticipantTest>> myItems = new ArrayList<>(Arrays.asList(
+            new CatalogItemTest(Instant.ofEpochMilli(100), false, owner, new ItemPayload("id1", "value1")),
+            new CatalogItemTest(Instant.ofEpochMilli(200), false, owner, new ItemPayload("id2", "value2")),
+            new CatalogItemTest(Instant.ofEpochMilli(100), false, owner, new ItemPayload("id3", "value3"))
+    ));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRestartReplaysJournal() {
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog = newCatalog(4096);
+        catalog.start();
+        catalog.acceptForeignCatalog(List.of(
+                new CatalogItemTest(Instant.ofEpochMilli(50), false, participant1, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id3", "value3")),
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant2, new ItemPayload("id3", "value3")),
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, participant1, new ItemPayload("id4", "value4"))
+        ));
+        catalog.acknowledgeReceivedItem(
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, participant1, new ItemPayload("id4", "value4")));
+
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> restarted = newCatalog(4096);
+        restarted.start();
+        assertRestored(restarted);
+
+        restarted.checkpoint();
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> fromSnapshot = newCatalog(4096);
+        fromSnapshot.start();
+        assertRestored(fromSnapshot);
+
+        fromSnapshot.acknowledgeEveryPeer();
+        fromSnapshot.acknowledgeReceivedItem(
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id3", "value3")));
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> partial = newCatalog(4096);
+        partial.acknowledgeEveryPeer();
+        partial.start();
+        Assertions.assertEquals(Set.of(participant2), partial.getAckReport().missingPeers(new SubjectTest(TEST_TOPIC, "id3")));
+        partial.acknowledgeReceivedItem(
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant2, new ItemPayload("id3", "value3")));
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> acknowledged = newCatalog(4096);
+        acknowledged.start();
+        Assertions.assertTrue(acknowledged.acknowledged());
+        Assertions.assertEquals(Set.of("id3", "id4"), ids(acknowledged.getAckReport().getItems().keySet()));
+    }
+
+    @Test
+    public void testPurgeHorizonSurvivesRestart() {
+        final CatalogItemTest tombstone = new CatalogItemTest(Instant.ofEpochMilli(500), true, owner, new ItemPayload("id5", "value5"));
+        myItems.add(tombstone);
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog = newCatalog(4096);
+        catalog.start();
+        Assertions.assertEquals(new CompactionResult(0, 1),
+                catalog.compact(new CompactionPolicy(Duration.ZERO, Duration.ZERO, 100, Duration.ofMinutes(1))));
+        myItems.remove(tombstone);
+
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> restarted = newCatalog(4096);
+        restarted.start();
+        restarted.acceptForeignCatalogItem(new CatalogItemTest(Instant.ofEpochMilli(400), false, participant1, new ItemPayload("id5", "value5")));
+        Assertions.assertTrue(restarted.acknowledged());
+        restarted.acceptForeignCatalogItem(new CatalogItemTest(Instant.ofEpochMilli(400), false, participant1, new ItemPayload("id6", "value6")));
+        Assertions.assertEquals(Set.of("id6"), ids(restarted.getAckReport().stream(AckStatus.PENDING, null).map(Map.Entry::getKey).toList()));
+
+        restarted.checkpoint();
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> fromSnapshot = newCatalog(4096);
+        fromSnapshot.start();
+        fromSnapshot.acceptForeignCatalogItem(new CatalogItemTest(Instant.ofEpochMilli(450), false, participant2, new ItemPayload("id5", "value5")));
+        Assertions.assertEquals(Set.of("id6"), ids(fromSnapshot.getAckReport().stream(AckStatus.PENDING, null).map(Map.Entry::getKey).toList()));
+        fromSnapshot.acceptForeignCatalogItem(new CatalogItemTest(Instant.ofEpochMilli(600), false, participant2, new ItemPayload("id5", "value5")));
+        Assertions.assertEquals(Set.of("id5", "id6"), ids(fromSnapshot.getAckReport().stream(AckStatus.PENDING, null).map(Map.Entry::getKey).toList()));
+    }
+
+    @Test
+    public void testJournalSpansChunks() {
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog = newCatalog(256);
+        catalog.start();
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            foreignItems.add(new CatalogItemTest(Instant.ofEpochMilli(1000 + i), false, participant1, new ItemPayload("foreign" + i, "value")));
+        }
+        catalog.acceptForeignCatalog(foreignItems);
+
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> restarted = newCatalog(256);
+        restarted.start();
+        Assertions.assertEquals(100, restarted.getAckReport().count(AckStatus.PENDING));
+        Assertions.assertTrue(restarted.diffCatalogDigest(catalog.getCatalogDigest(TEST_TOPIC)).isEmpty());
+    }
+
+    @Test
+    public void testWriteBehindStore() {
+        final CountingStore store = new CountingStore(new JournalCatalogStore<>(
+                new CatalogJournal<>(directory, new TestCodec(), 4096, 512)));
+        final WriteBehindStore<SubjectTest, ParticipantTest> writeBehind = new WriteBehindStore<>(store, 1024, Duration.ofHours(1));
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog = newCatalog(null, writeBehind);
+        catalog.start();
+        reconcileAndAcknowledge(catalog);
+        Assertions.assertTrue(store.batches.isEmpty());
+        Assertions.assertTrue(writeBehind.pending() > 0);
+
+        writeBehind.barrier();
+        Assertions.assertEquals(1, store.batches.size());
+        Assertions.assertEquals(0, writeBehind.pending());
+        Assertions.assertEquals(3, store.writes.get(new SubjectTest(TEST_TOPIC, "id4")));
+        writeBehind.close();
+        ((JournalCatalogStore<SubjectTest, ParticipantTest>) store.delegate).close();
+
+        final JournalCatalogStore<SubjectTest, ParticipantTest> reopened = new JournalCatalogStore<>(
+                new CatalogJournal<>(directory, new TestCodec(), 4096, 512));
+        try (WriteBehindStore<SubjectTest, ParticipantTest> restartedStore = new WriteBehindStore<>(reopened)) {
+            final DefaultSharedCatalog<SubjectTest, ParticipantTest> restarted = newCatalog(null, restartedStore);
+            restarted.start();
+            assertRestored(restarted);
+        }
+    }
+
+    @Test
+    public void testEmbeddedStore() {
+        final H2CatalogStore<SubjectTest, ParticipantTest> h2 = new H2CatalogStore<>(directory, new TestCodec());
+        try (WriteBehindStore<SubjectTest, ParticipantTest> writeBehind = new WriteBehindStore<>(h2, 1024, Duration.ofHours(1))) {
+            final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog = newCatalog(null, writeBehind);
+            catalog.start();
+            reconcileAndAcknowledge(catalog);
+        }
+        h2.close();
+
+        final H2CatalogStore<SubjectTest, ParticipantTest> reopened = new H2CatalogStore<>(directory, new TestCodec());
+        try (WriteBehindStore<SubjectTest, ParticipantTest> restartedStore = new WriteBehindStore<>(reopened)) {
+            final DefaultSharedCatalog<SubjectTest, ParticipantTest> restarted = newCatalog(null, restartedStore);
+            restarted.start();
+            assertRestored(restarted);
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    public void testWriteBehindHooks() {
+        final CountingStore store = new CountingStore(new H2CatalogStore<>(directory, new TestCodec()));
+        final WriteBehindStore<SubjectTest, ParticipantTest> writeBehind = new WriteBehindStore<>(store, 1024, Duration.ofHours(1));
+        final WriteBehindSharedCatalog<SubjectTest, ParticipantTest> catalog = newWriteBehindCatalog(writeBehind);
+        catalog.start();
+        reconcileAndAcknowledge(catalog);
+        Assertions.assertTrue(store.batches.isEmpty());
+
+        catalog.barrier();
+        Assertions.assertEquals(1, store.batches.size());
+        Assertions.assertEquals(2, store.writes.get(new SubjectTest(TEST_TOPIC, "id4")));
+        writeBehind.close();
+        ((H2CatalogStore<SubjectTest, ParticipantTest>) store.delegate).close();
+
+        final H2CatalogStore<SubjectTest, ParticipantTest> reopened = new H2CatalogStore<>(directory, new TestCodec());
+        try (WriteBehindStore<SubjectTest, ParticipantTest> restartedStore = new WriteBehindStore<>(reopened)) {
+            final WriteBehindSharedCatalog<SubjectTest, ParticipantTest> restarted = newWriteBehindCatalog(restartedStore);
+            restarted.start();
+            Assertions.assertEquals(Set.of("id2"), ids(restarted.getItemsToShare().stream().map(CatalogItem::subject).toList()));
+            final AckReport<SubjectTest, ParticipantTest> report = restarted.getAckReport();
+            Assertions.assertEquals(AckStatus.PENDING, AckStatus.of(report.getItems().get(new SubjectTest(TEST_TOPIC, "id3"))));
+            Assertions.assertEquals(AckStatus.OK, AckStatus.of(report.getItems().get(new SubjectTest(TEST_TOPIC, "id4"))));
+            Assertions.assertEquals(2, report.getItems().size());
+            Assertions.assertTrue(restarted.diffCatalogDigest(catalog.getCatalogDigest(TEST_TOPIC)).isEmpty());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private void reconcileAndAcknowledge(SharedCatalog<SubjectTest, ParticipantTest> catalog) {
+        catalog.acceptForeignCatalog(List.of(
+                new CatalogItemTest(Instant.ofEpochMilli(50), false, participant1, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id3", "value3")),
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant2, new ItemPayload("id3", "value3")),
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, participant1, new ItemPayload("id4", "value4"))
+        ));
+        catalog.acceptForeignCatalog(List.of(
+                new CatalogItemTest(Instant.ofEpochMilli(60), false, participant2, new ItemPayload("id1", "value1"))));
+        catalog.acknowledgeReceivedItem(
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, participant1, new ItemPayload("id4", "value4")));
+    }
+
+    private void assertRestored(SharedCatalog<SubjectTest, ParticipantTest> catalog) {
+        Assertions.assertEquals(Set.of("id2"), ids(catalog.getItemsToShare().stream().map(CatalogItem::subject).toList()));
+        final AckReport<SubjectTest, ParticipantTest> report = catalog.getAckReport();
+        Assertions.assertEquals(1, report.count(AckStatus.PENDING));
+        Assertions.assertEquals(1, report.count(AckStatus.OK));
+        Assertions.assertEquals(AckStatus.PENDING, AckStatus.of(report.getItems().get(new SubjectTest(TEST_TOPIC, "id3"))));
+        Assertions.assertEquals(AckStatus.OK, AckStatus.of(report.getItems().get(new SubjectTest(TEST_TOPIC, "id4"))));
+        Assertions.assertEquals(Set.of(participant1, participant2), report.missingPeers(new SubjectTest(TEST_TOPIC, "id3")));
+    }
+
+    private Set<String> ids(Collection<SubjectTest> subjects) {
+        return subjects.stream().map(SubjectTest::id).collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testFailedCheckpointIsRequestedAgain() throws Exception {
+        final CatalogJournal<SubjectTest, ParticipantTest> journal = new CatalogJournal<>(directory, new TestCodec(), 4096, 256);
+        final JournalRecord<SubjectTest, ParticipantTest> record = new JournalRecord<>(JournalRecord.Type.SEND,
+                new SubjectTest(TEST_TOPIC, "id1"), true, owner, Instant.ofEpochMilli(100), false);
+        while (!journal.append(record)) {
+        }
+        Assertions.assertFalse(journal.append(record));
+        Assertions.assertThrows(IllegalStateException.class, () -> journal.checkpoint(sink -> {
+            throw new IllegalStateException("disk full");
+        }));
+        Assertions.assertTrue(journal.append(record));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> checkpoints = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                checkpoints.add(executor.submit(() -> journal.checkpoint(sink -> sink.accept(record))));
+            }
+            for (Future<?> checkpoint : checkpoints) {
+                checkpoint.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        journal.close();
+        final List<JournalRecord<SubjectTest, ParticipantTest>> recovered = new ArrayList<>();
+        new CatalogJournal<>(directory, new TestCodec(), 4096, 256).recover(recovered::add);
+        Assertions.assertEquals(List.of(record), recovered);
+    }
+
+    @Test
+    public void testRecoveryStopsAtCorruptFrame() throws Exception {
+        final CatalogJournal<SubjectTest, ParticipantTest> journal = new CatalogJournal<>(directory, new TestCodec(), 4096, 1 << 20);
+        final JournalRecord<SubjectTest, ParticipantTest> first = new JournalRecord<>(JournalRecord.Type.SEND,
+                new SubjectTest(TEST_TOPIC, "id1"), true, owner, Instant.ofEpochMilli(100), false);
+        final JournalRecord<SubjectTest, ParticipantTest> corrupt = new JournalRecord<>(JournalRecord.Type.SEND,
+                new SubjectTest(TEST_TOPIC, "corrupt"), true, owner, Instant.ofEpochMilli(200), false);
+        journal.append(first);
+        journal.append(corrupt);
+        journal.append(first);
+        journal.close();
+
+        final Path file;
+        try (Stream<Path> files = Files.list(directory)) {
+            file = files.filter(path -> path.toString().endsWith(".journal")).findFirst().orElseThrow();
+        }
+        final byte[] bytes = Files.readAllBytes(file);
+        final byte[] marker = "corrupt".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length - marker.length; i++) {
+            if (Arrays.equals(bytes, i, i + marker.length, marker, 0, marker.length)) {
+                bytes[i] ^= 1;
+                break;
+            }
+        }
+        Files.write(file, bytes);
+
+        final List<JournalRecord<SubjectTest, ParticipantTest>> recovered = new ArrayList<>();
+        new CatalogJournal<>(directory, new TestCodec(), 4096, 1 << 20).recover(recovered::add);
+        Assertions.assertEquals(List.of(first), recovered);
+    }
+
+    @Test
+    public void testOversizedRecordIsRejected() {
+        final CatalogJournal<SubjectTest, ParticipantTest> journal = new CatalogJournal<>(directory, new TestCodec(), 32, 1 << 20);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> journal.append(new JournalRecord<>(JournalRecord.Type.SEND,
+                new SubjectTest(TEST_TOPIC, "id1"), true, owner, Instant.ofEpochMilli(100), false)));
+        journal.close();
+    }
+
+    private DefaultSharedCatalog<SubjectTest, ParticipantTest> newCatalog(int chunkSize) {
+        return newCatalog(new CatalogJournal<>(directory, new TestCodec(), chunkSize, CatalogJournal.DEFAULT_CHECKPOINT_BYTES), null);
+    }
+
+    private DefaultSharedCatalog<SubjectTest, ParticipantTest> newCatalog(CatalogJournal<SubjectTest, ParticipantTest> journal,
+                                                                         WriteBehindStore<SubjectTest, ParticipantTest> store) {
+        return new DefaultSharedCatalog<>(owner, journal, store) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return myItems;
+            }
+        };
+    }
+
+    private WriteBehindSharedCatalog<SubjectTest, ParticipantTest> newWriteBehindCatalog(WriteBehindStore<SubjectTest, ParticipantTest> store) {
+        return new WriteBehindSharedCatalog<>(owner, store) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return myItems;
+            }
+        };
+    }
+
+    private static class CountingStore implements CatalogStore<SubjectTest, ParticipantTest> {
+
+        private final CatalogStore<SubjectTest, ParticipantTest> delegate;
+
+        private final List<Integer> batches = new ArrayList<>();
+
+        private final Map<SubjectTest, Integer> writes = new HashMap<>();
+
+        CountingStore(CatalogStore<SubjectTest, ParticipantTest> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public JournalCodec<SubjectTest, ParticipantTest> codec() {
+            return delegate.codec();
+        }
+
+        @Override
+        public boolean write(Collection<JournalRecord<SubjectTest, ParticipantTest>> records) {
+            batches.add(records.size());
+            records.forEach(record -> writes.merge(record.subject(), 1, Integer::sum));
+            return delegate.write(records);
+        }
+
+        @Override
+        public void sync() {
+            delegate.sync();
+        }
+
+        @Override
+        public void load(Consumer<JournalRecord<SubjectTest, ParticipantTest>> consumer) {
+            delegate.load(consumer);
+        }
+
+        @Override
+        public void checkpoint(Consumer<Consumer<JournalRecord<SubjectTest, ParticipantTest>>> state) {
+            delegate.checkpoint(state);
+        }
+    }
+
+    private static class TestCodec implements JournalCodec<SubjectTest, ParticipantTest> {
+
+        @Override
+        public SubjectTest subject(String topic, String id) {
+            return new SubjectTest(topic, id);
+        }
+
+        @Override
+        public void writeOwner(ByteBuffer buffer, ParticipantTest owner) {
+            buffer.putLong(owner.id().getMostSignificantBits());
+            buffer.putLong(owner.id().getLeastSignificantBits());
+            final byte[] name = owner.name().getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(name.length);
+            buffer.put(name);
+        }
+
+        @Override
+        public ParticipantTest readOwner(ByteBuffer buffer) {
+            final UUID id = new UUID(buffer.getLong(), buffer.getLong());
+            final byte[] name = new byte[buffer.getInt()];
+            buffer.get(name);
+            return new ParticipantTest(id, new String(name, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public CatalogItem<SubjectTest, ParticipantTest> item(SubjectTest subject, ParticipantTest owner,
+                                                              Instant timestamp, boolean deleted) {
+            return new CatalogItemTest(timestamp, deleted, owner, new ItemPayload(subject.id(), null));
+        }
+    }
+}
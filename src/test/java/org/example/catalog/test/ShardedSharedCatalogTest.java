@@ -0,0 +1,274 @@
+package org.example.catalog.test;
+
+import org.example.catalog.*;
+import org.example.catalog.test.mock.CatalogItemTest;
+import org.example.catalog.test.mock.ItemPayload;
+import org.example.catalog.test.mock.ParticipantTest;
+import org.example.catalog.test.mock.SubjectTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.example.catalog.test.SharedCatalogTest.TEST_TOPIC;
+
+public class ShardedSharedCatalogTest {
+
+    private final ParticipantTest owner = new ParticipantTest(UUID.randomUUID(), "owner");
+
+    private final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+
+    private final AtomicInteger acknowledgements = new AtomicInteger();
+
+    @Test
+    public void testBehavesLikeDefaultCatalog() {
+        final Random random = new Random(11);
+        final List<CatalogItem<SubjectTest, ParticipantTest>> myItems = new ArrayList<>();
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            myItems.add(new CatalogItemTest(Instant.ofEpochMilli(1000 + i), i % 10 == 0, owner, new ItemPayload("id" + i, "value" + i)));
+            foreignItems.add(new CatalogItemTest(Instant.ofEpochMilli(1000 + i + random.nextInt(3) - 1),
+                    random.nextInt(4) == 0, participant1, new ItemPayload("id" + random.nextInt(12_000), "value" + i)));
+        }
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> expected = newDefaultCatalog(myItems);
+        try (ShardedSharedCatalog<SubjectTest, ParticipantTest> sharded = newShardedCatalog(myItems)) {
+            expected.start();
+            sharded.start();
+            final CatalogSnapshot<SubjectTest, ParticipantTest> started = expected.snapshot();
+            final ReconciliationDelta<SubjectTest, ParticipantTest> expectedDelta = expected.reconcileForeignCatalog(foreignItems.subList(0, 5000));
+            final ReconciliationDelta<SubjectTest, ParticipantTest> shardedDelta = sharded.reconcileForeignCatalog(foreignItems.subList(0, 5000));
+            Assertions.assertEquals(subjects(expectedDelta.toExpect()), subjects(shardedDelta.toExpect()));
+            Assertions.assertEquals(subjects(expectedDelta.toSend()), subjects(shardedDelta.toSend()));
+            expected.acceptForeignCatalog(foreignItems.subList(5000, 10_000));
+            sharded.acceptForeignCatalog(foreignItems.subList(5000, 10_000));
+            for (CatalogItem<SubjectTest, ParticipantTest> item : foreignItems) {
+                if (random.nextBoolean()) {
+                    expected.acknowledgeReceivedItem(item);
+                    sharded.acknowledgeReceivedItem(item);
+                }
+            }
+
+            Assertions.assertEquals(subjects(expected.getItemsToShare()), subjects(sharded.getItemsToShare()));
+            Assertions.assertEquals(statuses(expected.getAckReport()), statuses(sharded.getAckReport()));
+            Assertions.assertEquals(expected.acknowledged(), sharded.acknowledged());
+            Assertions.assertEquals(expected.getAckReport().count(AckStatus.OK) + expected.getAckReport().count(AckStatus.DELETED),
+                    acknowledgements.get());
+            Assertions.assertTrue(sharded.diffCatalogDigest(expected.getCatalogDigest(TEST_TOPIC)).isEmpty());
+            final CatalogMetrics metrics = sharded.enableMetrics();
+            Assertions.assertEquals(expected.getItemsToShare().size(), metrics.gauge(CatalogMetrics.SEND));
+            Assertions.assertEquals(expected.getAckReport().count(AckStatus.PENDING), metrics.gauge(CatalogMetrics.EXPECTED));
+            Assertions.assertEquals(expected.getAckReport().count(AckStatus.OK) + expected.getAckReport().count(AckStatus.DELETED),
+                    metrics.gauge(CatalogMetrics.ACK));
+            final long since = HybridLogicalClock.toVersion(Instant.ofEpochMilli(9000));
+            Assertions.assertEquals(expected.getItemsChangedSince(since, 500), sharded.getItemsChangedSince(since, 500));
+
+            final CatalogSnapshot<SubjectTest, ParticipantTest> snapshot = expected.snapshot();
+            Assertions.assertEquals(subjects(expected.getItemsToShare()), subjects(snapshot.getItemsToShare()));
+            Assertions.assertEquals(statuses(expected.getAckReport()), statuses(snapshot.getAckReport()));
+            Assertions.assertEquals(statuses(snapshot.getAckReport()), statuses(sharded.snapshot().getAckReport()));
+            Assertions.assertEquals(subjects(myItems.stream().filter(item -> !item.isDeleted()).toList()), subjects(started.getItemsToShare()));
+            Assertions.assertEquals(0, started.expectedCount());
+        }
+    }
+
+    @Test
+    public void testAwaitAcknowledged() {
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            foreignItems.add(new CatalogItemTest(Instant.ofEpochMilli(1000 + i), false, participant1, new ItemPayload("id" + i, "value" + i)));
+        }
+        try (ShardedSharedCatalog<SubjectTest, ParticipantTest> sharded = newShardedCatalog(List.of())) {
+            sharded.start();
+            sharded.reconcileForeignCatalog(foreignItems);
+            final Duration timeout = Duration.ofSeconds(10);
+            final CompletableFuture<Void> all = sharded.awaitAcknowledged(timeout);
+            final CompletableFuture<Void> first = sharded.awaitAcknowledged(subjects(foreignItems.subList(0, 10)), timeout);
+            foreignItems.subList(0, 10).forEach(sharded::acknowledgeReceivedItem);
+            first.join();
+            Assertions.assertFalse(all.isDone());
+            foreignItems.subList(10, 1000).forEach(sharded::acknowledgeReceivedItem);
+            all.join();
+            Assertions.assertTrue(sharded.acknowledged());
+        }
+    }
+
+    @Test
+    public void testAcknowledgementsNeverBlockShards() {
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            foreignItems.add(new CatalogItemTest(Instant.ofEpochMilli(1000 + i), false, participant1, new ItemPayload("id" + i, "value" + i)));
+        }
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger batched = new AtomicInteger();
+        final AtomicInteger direct = new AtomicInteger();
+        final List<RuntimeException> failures = Collections.synchronizedList(new ArrayList<>());
+        try (ShardedSharedCatalog<SubjectTest, ParticipantTest> sharded = new ShardedSharedCatalog<>(owner, 4) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(List<Acknowledgement<SubjectTest, ParticipantTest>> acknowledgements) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                acknowledged();
+                batched.addAndGet(acknowledgements.size());
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+                direct.incrementAndGet();
+                try {
+                    acknowledged();
+                } catch (RuntimeException e) {
+                    failures.add(e);
+                }
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return List.of();
+            }
+        }) {
+            sharded.start();
+            sharded.reconcileForeignCatalog(foreignItems);
+            sharded.dispatchAcknowledgements(1, Duration.ofMillis(1), 1);
+            final CompletableFuture<Void> all = sharded.awaitAcknowledged(Duration.ofSeconds(10));
+            foreignItems.forEach(sharded::acknowledgeReceivedItem);
+            all.join();
+            Assertions.assertTrue(sharded.acknowledged());
+            Assertions.assertTrue(direct.get() >= 198);
+            Assertions.assertEquals(direct.get(), failures.size());
+            release.countDown();
+            Assertions.assertTrue(failures.stream().allMatch(failure -> failure instanceof IllegalStateException));
+        }
+    }
+
+    @Test
+    public void testCloseDeliversQueuedAcknowledgements() {
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            foreignItems.add(new CatalogItemTest(Instant.ofEpochMilli(1000 + i), false, participant1, new ItemPayload("id" + i, "value" + i)));
+        }
+        final ShardedSharedCatalog<SubjectTest, ParticipantTest> sharded = newShardedCatalog(List.of());
+        sharded.start();
+        sharded.reconcileForeignCatalog(foreignItems);
+        sharded.dispatchAcknowledgements(16, Duration.ofMillis(1), 64);
+        sharded.scheduleRetransmissions(Duration.ofMillis(5), Duration.ofMillis(10), (peer, items) -> {
+        });
+        foreignItems.forEach(sharded::acknowledgeReceivedItem);
+        sharded.close();
+        Assertions.assertEquals(1000, acknowledgements.get());
+
+        sharded.acknowledgeReceivedItem(foreignItems.get(0));
+        sharded.acceptForeignCatalog(foreignItems);
+        Assertions.assertEquals(1000, acknowledgements.get());
+    }
+
+    @Test
+    public void testAcknowledgementsMatchAcrossBackends() {
+        final ParticipantTest participant2 = new ParticipantTest(UUID.randomUUID(), "participant2");
+        final ParticipantTest participant3 = new ParticipantTest(UUID.randomUUID(), "participant3");
+        final List<CatalogItem<SubjectTest, ParticipantTest>> myItems = List.of(
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, owner, new ItemPayload("id1", "value1")));
+        final List<CatalogItem<SubjectTest, ParticipantTest>> offered = List.of(
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant2, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(200), false, participant3, new ItemPayload("id2", "value2")),
+                new CatalogItemTest(Instant.ofEpochMilli(200), false, participant3, new ItemPayload("id3", "value3")));
+        final List<CatalogItem<SubjectTest, ParticipantTest>> acks = List.of(
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant2, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(200), false, participant1, new ItemPayload("id2", "value2")),
+                new CatalogItemTest(Instant.ofEpochMilli(200), true, participant3, new ItemPayload("id3", "value3")));
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> expected = newDefaultCatalog(myItems);
+        final SharedCatalog<SubjectTest, ParticipantTest> compact = new CompactSharedCatalog<>(owner) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            protected CatalogItem<SubjectTest, ParticipantTest> loadItem(SubjectTest subject, ParticipantTest owner,
+                                                                         Instant timestamp, boolean deleted) {
+                return new CatalogItemTest(timestamp, deleted, owner, new ItemPayload(subject.id(), "loaded"));
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return myItems;
+            }
+        };
+        try (ShardedSharedCatalog<SubjectTest, ParticipantTest> sharded = newShardedCatalog(myItems)) {
+            final Map<SubjectTest, AckStatus> statuses = Map.of(
+                    new SubjectTest(TEST_TOPIC, "id1"), AckStatus.OK,
+                    new SubjectTest(TEST_TOPIC, "id2"), AckStatus.OK,
+                    new SubjectTest(TEST_TOPIC, "id3"), AckStatus.PENDING);
+            for (SharedCatalog<SubjectTest, ParticipantTest> catalog : List.of(expected, compact, sharded)) {
+                catalog.start();
+                catalog.acceptForeignCatalog(offered);
+                acks.forEach(catalog::acknowledgeReceivedItem);
+                Assertions.assertEquals(statuses, statuses(catalog.getAckReport()), catalog.getClass().getSuperclass().getSimpleName());
+            }
+        }
+    }
+
+    private Set<SubjectTest> subjects(Collection<CatalogItem<SubjectTest, ParticipantTest>> items) {
+        return items.stream().map(CatalogItem::subject).collect(Collectors.toSet());
+    }
+
+    private Map<SubjectTest, AckStatus> statuses(AckReport<SubjectTest, ParticipantTest> report) {
+        return report.getItems().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> AckStatus.of(entry.getValue())));
+    }
+
+    private DefaultSharedCatalog<SubjectTest, ParticipantTest> newDefaultCatalog(Collection<CatalogItem<SubjectTest, ParticipantTest>> myItems) {
+        return new DefaultSharedCatalog<>(owner) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return myItems;
+            }
+        };
+    }
+
+    private ShardedSharedCatalog<SubjectTest, ParticipantTest> newShardedCatalog(Collection<CatalogItem<SubjectTest, ParticipantTest>> myItems) {
+        return new ShardedSharedCatalog<>(owner, 4) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+                acknowledgements.incrementAndGet();
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return myItems;
+            }
+        };
+    }
+}
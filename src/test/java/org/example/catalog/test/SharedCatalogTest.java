@@ -9,15 +9,38 @@ import org.junit.jupiter.api.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 
 public class SharedCatalogTest {
 
     private final static Logger LOGGER = LoggerFactory.getLogger(SharedCatalogTest.class);
 
-    private SharedCatalog<SubjectTest, ParticipantTest> sharedCatalog;
+    private DefaultSharedCatalog<SubjectTest, ParticipantTest> sharedCatalog;
 
     private final ParticipantTest owner = new ParticipantTest(UUID.randomUUID(), "owner");
 
@@ -172,6 +195,847 @@ public class SharedCatalogTest {
         printReport(ackReport);
     }
 
+    @Test
+    public void testReconcileDelta() {
+        sharedCatalog.start();
+        final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = Arrays.asList(
+                new CatalogItemTest(Instant.ofEpochMilli(50), false, participant1, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(200), true, participant1, new ItemPayload("id2", "value2")),
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id3", "value3")),
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, participant1, new ItemPayload("id4", "value4"))
+        );
+        final ReconciliationDelta<SubjectTest, ParticipantTest> delta = sharedCatalog.reconcileForeignCatalog(foreignItems);
+        Assertions.assertEquals(List.of("id2"), delta.toSend().stream().map(item -> item.subject().id()).toList());
+        Assertions.assertEquals(Set.of("id3", "id4"), delta.toExpect().stream().map(item -> item.subject().id()).collect(Collectors.toSet()));
+        Assertions.assertEquals(List.of("id3"), delta.superseded().stream().map(item -> item.subject().id()).toList());
+        Assertions.assertEquals(1, sharedCatalog.getItemsToShare().size());
+        Assertions.assertFalse(sharedCatalog.acknowledged());
+
+        final ReconciliationDelta<SubjectTest, ParticipantTest> repeated = sharedCatalog.reconcileForeignCatalog(Arrays.asList(
+                new CatalogItemTest(Instant.ofEpochMilli(400), false, participant1, new ItemPayload("id5", "value5")),
+                new CatalogItemTest(Instant.ofEpochMilli(500), false, participant1, new ItemPayload("id5", "value5")),
+                new CatalogItemTest(Instant.ofEpochMilli(450), false, participant1, new ItemPayload("id5", "value5")),
+                new CatalogItemTest(Instant.ofEpochMilli(600), false, owner, new ItemPayload("id6", "value6"))
+        ));
+        Assertions.assertEquals(List.of(Instant.ofEpochMilli(500)), repeated.toExpect().stream().map(CatalogItem::getTimestamp).toList());
+    }
+
+    @Test
+    public void testDedupeUnchangedPayloads() {
+        ((AbstractSharedCatalog<SubjectTest, ParticipantTest>) sharedCatalog).dedupeUnchangedPayloads();
+        sharedCatalog.start();
+        final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = Arrays.asList(
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id2", "changed")),
+                new CatalogItemTest(Instant.ofEpochMilli(300), true, participant1, new ItemPayload("id3", "value3"))
+        );
+        Assertions.assertEquals(foreignItems.get(0).contentDigest(),
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, owner, new ItemPayload("id1", "value1")).contentDigest());
+        final ReconciliationDelta<SubjectTest, ParticipantTest> delta = sharedCatalog.reconcileForeignCatalog(foreignItems);
+        Assertions.assertEquals(Set.of("id1"), ids(delta.touched()));
+        Assertions.assertEquals(Set.of("id2", "id3"), ids(delta.toExpect()));
+        Assertions.assertEquals(Set.of("id1", "id2", "id3"), ids(delta.superseded()));
+        Assertions.assertTrue(sharedCatalog.getAckReport().getItems().get(new SubjectTest(TEST_TOPIC, "id1")).ok());
+        Assertions.assertEquals(2, sharedCatalog.getAckReport().count(AckStatus.PENDING));
+
+        final ReconciliationDelta<SubjectTest, ParticipantTest> repeated = sharedCatalog.reconcileForeignCatalog(List.of(
+                new CatalogItemTest(Instant.ofEpochMilli(400), false, participant1, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(400), false, participant1, new ItemPayload("id2", "changed"))));
+        Assertions.assertEquals(Set.of("id1"), ids(repeated.touched()));
+        Assertions.assertEquals(Set.of("id2"), ids(repeated.toExpect()));
+    }
+
+    @Test
+    public void testDedupeRequiresContentDigest() {
+        final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+        final ItemPayload aa = new ItemPayload("id1", "Aa");
+        final ItemPayload bb = new ItemPayload("id1", "BB");
+        Assertions.assertEquals(aa.hashCode(), bb.hashCode());
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog = newCatalog(List.of(
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, owner, aa),
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, owner, new ItemPayload("id2", "value2"))));
+        ((AbstractSharedCatalog<SubjectTest, ParticipantTest>) catalog).dedupeUnchangedPayloads();
+        catalog.start();
+        final CatalogItem<SubjectTest, ParticipantTest> undigested = new DefaultCatalogItem<SubjectTest, ParticipantTest, ItemPayload>(
+                Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id2", "value2")) {
+
+            @Override
+            public SubjectTest subject() {
+                return new SubjectTest(TEST_TOPIC, "id2");
+            }
+        };
+        Assertions.assertEquals(ContentDigest.NONE, undigested.contentDigest());
+        Assertions.assertEquals(ContentDigest.NONE, ContentDigest.of(aa));
+
+        final ReconciliationDelta<SubjectTest, ParticipantTest> delta = catalog.reconcileForeignCatalog(List.of(
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, bb), undigested));
+        Assertions.assertTrue(delta.touched().isEmpty());
+        Assertions.assertEquals(Set.of("id1", "id2"), ids(delta.toExpect()));
+    }
+
+    @Test
+    public void testTouchedItemsAreAcknowledged() {
+        final List<Acknowledgement<SubjectTest, ParticipantTest>> acknowledged = Collections.synchronizedList(new ArrayList<>());
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog = new DefaultSharedCatalog<>(owner) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+                acknowledged.add(new Acknowledgement<>(topic, ackItem));
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return List.of(
+                        new CatalogItemTest(Instant.ofEpochMilli(100), false, owner, new ItemPayload("id1", "value1")),
+                        new CatalogItemTest(Instant.ofEpochMilli(100), false, owner, new ItemPayload("id2", "value2")));
+            }
+        };
+        catalog.dedupeUnchangedPayloads();
+        catalog.start();
+        final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+        final CompletableFuture<Void> id1 = catalog.awaitAcknowledged(new SubjectTest(TEST_TOPIC, "id1"), Duration.ofSeconds(5));
+
+        catalog.acceptForeignCatalogItem(new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id1", "value1")));
+        catalog.reconcileForeignCatalog(List.of(new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id2", "value2"))));
+
+        Assertions.assertTrue(id1.isDone());
+        Assertions.assertEquals(Set.of("id1", "id2"), acknowledged.stream().map(ack -> ack.subject().id()).collect(Collectors.toSet()));
+        Assertions.assertTrue(acknowledged.stream().allMatch(ack -> ack.ackItem().ok() && ack.ackItem().by().equals(participant1)));
+    }
+
+    @Test
+    public void testAwaitAcknowledged() {
+        sharedCatalog.start();
+        final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = Arrays.asList(
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id2", "value2")),
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id4", "value4"))
+        );
+        sharedCatalog.reconcileForeignCatalog(foreignItems);
+        final Duration timeout = Duration.ofSeconds(10);
+        final CompletableFuture<Void> all = sharedCatalog.awaitAcknowledged(timeout);
+        final CompletableFuture<Void> id1 = sharedCatalog.awaitAcknowledged(new SubjectTest(TEST_TOPIC, "id1"), timeout);
+        final CompletableFuture<Void> both = sharedCatalog.awaitAcknowledged(
+                List.of(new SubjectTest(TEST_TOPIC, "id1"), new SubjectTest(TEST_TOPIC, "id2")), timeout);
+        Assertions.assertTrue(sharedCatalog.awaitAcknowledged(new SubjectTest(TEST_TOPIC, "id3"), timeout).isDone());
+        final CompletionException timedOut = Assertions.assertThrows(CompletionException.class,
+                () -> sharedCatalog.awaitAcknowledged(new SubjectTest(TEST_TOPIC, "id4"), Duration.ofMillis(10)).join());
+        Assertions.assertInstanceOf(TimeoutException.class, timedOut.getCause());
+
+        sharedCatalog.acknowledgeReceivedItem(foreignItems.get(0));
+        Assertions.assertTrue(id1.isDone());
+        Assertions.assertFalse(both.isDone());
+        sharedCatalog.acknowledgeReceivedItem(foreignItems.get(1));
+        Assertions.assertTrue(both.isDone());
+        Assertions.assertFalse(all.isDone());
+        sharedCatalog.acknowledgeReceivedItem(foreignItems.get(2));
+        all.join();
+        Assertions.assertTrue(sharedCatalog.awaitAcknowledged(timeout).isDone());
+    }
+
+    @Test
+    public void testRetransmission() throws InterruptedException {
+        final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+        final ParticipantTest participant2 = new ParticipantTest(UUID.randomUUID(), "participant2");
+        final BlockingQueue<Map.Entry<ParticipantTest, List<CatalogItem<SubjectTest, ParticipantTest>>>> requests = new LinkedBlockingQueue<>();
+        sharedCatalog.start();
+        try (RetransmissionScheduler<SubjectTest, ParticipantTest> scheduler = ((AbstractSharedCatalog<SubjectTest, ParticipantTest>) sharedCatalog)
+                .scheduleRetransmissions(Duration.ofMillis(50), Duration.ofMillis(200), (peer, items) -> requests.add(Map.entry(peer, List.copyOf(items))))) {
+            final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = Arrays.asList(
+                    new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id1", "value1")),
+                    new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id2", "value2")),
+                    new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id4", "value4")),
+                    new CatalogItemTest(Instant.ofEpochMilli(300), false, participant2, new ItemPayload("id5", "value5")),
+                    new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id5", "value5"))
+            );
+            sharedCatalog.reconcileForeignCatalog(foreignItems);
+            Assertions.assertEquals(4, scheduler.pending());
+            sharedCatalog.acknowledgeReceivedItem(foreignItems.get(0));
+            Assertions.assertEquals(3, scheduler.pending());
+
+            final Map<ParticipantTest, Set<String>> requested = new HashMap<>();
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (requested.values().stream().mapToInt(Set::size).sum() < 4 && System.nanoTime() < deadline) {
+                final Map.Entry<ParticipantTest, List<CatalogItem<SubjectTest, ParticipantTest>>> request = requests.poll(100, TimeUnit.MILLISECONDS);
+                if (request != null) {
+                    requested.computeIfAbsent(request.getKey(), peer -> new HashSet<>()).addAll(ids(request.getValue()));
+                }
+            }
+            Assertions.assertEquals(Map.of(participant1, Set.of("id2", "id4", "id5"), participant2, Set.of("id5")), requested);
+            Assertions.assertEquals(Set.of("id2", "id4", "id5"), ids(scheduler.overdue()));
+            Assertions.assertEquals(3, scheduler.overdueCount());
+
+            foreignItems.subList(1, 4).forEach(sharedCatalog::acknowledgeReceivedItem);
+            Assertions.assertEquals(0, scheduler.pending());
+            Assertions.assertEquals(0, scheduler.overdueCount());
+            Thread.sleep(50);
+            requests.clear();
+            Assertions.assertNull(requests.poll(300, TimeUnit.MILLISECONDS));
+            Assertions.assertTrue(scheduler.retransmitted() >= 3);
+        }
+    }
+
+    @Test
+    public void testReconcileMatchesItemByItem() {
+        final Random random = new Random(42);
+        final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+        final List<CatalogItem<SubjectTest, ParticipantTest>> myItems = new ArrayList<>();
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            myItems.add(new CatalogItemTest(Instant.ofEpochMilli(1000 + i), false, owner, new ItemPayload("id" + i, "value" + i)));
+            foreignItems.add(new CatalogItemTest(Instant.ofEpochMilli(1000 + i + random.nextInt(3) - 1), random.nextBoolean(),
+                    participant1, new ItemPayload("id" + random.nextInt(2000), "value" + i)));
+        }
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> itemByItem = newCatalog(myItems);
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> bulk = newCatalog(myItems);
+        itemByItem.start();
+        bulk.start();
+        foreignItems.forEach(itemByItem::acceptForeignCatalogItem);
+        bulk.reconcileForeignCatalog(foreignItems);
+        Assertions.assertEquals(subjects(itemByItem.getItemsToShare()), subjects(bulk.getItemsToShare()));
+        Assertions.assertEquals(itemByItem.getAckReport().getItems().keySet(), bulk.getAckReport().getItems().keySet());
+    }
+
+    @Test
+    public void testLateOlderItemKeepsNewerExpectation() {
+        sharedCatalog.start();
+        final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+        final ParticipantTest participant2 = new ParticipantTest(UUID.randomUUID(), "participant2");
+        final SubjectTest id4 = new SubjectTest(TEST_TOPIC, "id4");
+        sharedCatalog.acceptForeignCatalogItem(new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id4", "value4")));
+        sharedCatalog.acceptForeignCatalogItem(new CatalogItemTest(Instant.ofEpochMilli(200), false, participant2, new ItemPayload("id4", "older")));
+        sharedCatalog.reconcileForeignCatalog(List.of(new CatalogItemTest(Instant.ofEpochMilli(250), false, participant2, new ItemPayload("id4", "older"))));
+
+        final CatalogItem<SubjectTest, ParticipantTest> expected = sharedCatalog.snapshot().expectedItem(id4);
+        Assertions.assertEquals(Instant.ofEpochMilli(300), expected.getTimestamp());
+        Assertions.assertEquals(participant1, expected.owner());
+        Assertions.assertEquals(1, sharedCatalog.getAckReport().count(AckStatus.PENDING));
+
+        sharedCatalog.acceptForeignCatalogItem(new CatalogItemTest(Instant.ofEpochMilli(400), false, participant2, new ItemPayload("id4", "newest")));
+        Assertions.assertEquals(Instant.ofEpochMilli(400), sharedCatalog.snapshot().expectedItem(id4).getTimestamp());
+    }
+
+    @Test
+    public void testAckReportIsIncremental() {
+        sharedCatalog.start();
+        final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = Arrays.asList(
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id3", "value3")),
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, participant1, new ItemPayload("id4", "value4"))
+        );
+        sharedCatalog.acceptForeignCatalog(foreignItems);
+        final AckReport<SubjectTest, ParticipantTest> pendingReport = sharedCatalog.getAckReport();
+        Assertions.assertSame(pendingReport, sharedCatalog.getAckReport());
+        Assertions.assertEquals(2, pendingReport.count(AckStatus.PENDING));
+
+        sharedCatalog.acknowledgeReceivedItem(foreignItems.get(0));
+        final AckReport<SubjectTest, ParticipantTest> ackReport = sharedCatalog.getAckReport();
+        Assertions.assertNotEquals(pendingReport.version(), ackReport.version());
+        Assertions.assertEquals(1, ackReport.count(AckStatus.OK));
+        Assertions.assertEquals(1, ackReport.count(AckStatus.PENDING));
+        Assertions.assertEquals(0, ackReport.count(AckStatus.DELETED));
+        Assertions.assertEquals(2, ackReport.getItems().size());
+        Assertions.assertEquals(2, pendingReport.count(AckStatus.PENDING));
+        Assertions.assertEquals(AckStatus.PENDING, AckStatus.of(pendingReport.getItems().get(foreignItems.get(0).subject())));
+        Assertions.assertEquals(2, pendingReport.stream(AckStatus.PENDING, null).count());
+
+        final AckPage<SubjectTest, ParticipantTest> page = ackReport.page(AckStatus.PENDING, TEST_TOPIC, null, 10);
+        Assertions.assertEquals(1, page.items().size());
+        Assertions.assertTrue(page.isLast());
+        Assertions.assertEquals("id4", page.items().get(0).getKey().id());
+        Assertions.assertFalse(page.items().get(0).getValue().ok());
+        Assertions.assertEquals(0, ackReport.stream(null, "otherTopic").count());
+
+        final List<CatalogItem<SubjectTest, ParticipantTest>> moreItems = new ArrayList<>();
+        for (int i = 10; i < 60; i++) {
+            moreItems.add(new CatalogItemTest(Instant.ofEpochMilli(100), false, participant1, new ItemPayload("id" + i, "value" + i)));
+        }
+        sharedCatalog.acceptForeignCatalog(moreItems);
+        final AckReport<SubjectTest, ParticipantTest> report = sharedCatalog.getAckReport();
+        final Set<SubjectTest> paged = new HashSet<>();
+        SubjectTest cursor = null;
+        do {
+            final AckPage<SubjectTest, ParticipantTest> next = report.page(AckStatus.PENDING, TEST_TOPIC, cursor, 7);
+            next.items().forEach(entry -> Assertions.assertTrue(paged.add(entry.getKey())));
+            cursor = next.next();
+        } while (cursor != null);
+        Assertions.assertEquals(51, paged.size());
+        Assertions.assertEquals(report.count(AckStatus.PENDING), paged.size());
+    }
+
+    @Test
+    public void testShareEvents() throws InterruptedException {
+        final CatalogExecution execution = ((AbstractSharedCatalog<SubjectTest, ParticipantTest>) sharedCatalog).executeWith(CatalogExecution.forkJoinPool(1));
+        sharedCatalog.start();
+        final BlockingQueue<ShareEvent<SubjectTest, ParticipantTest>> events = new LinkedBlockingQueue<>();
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+        final AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+        sharedCatalog.shareEvents().subscribe(new Flow.Subscriber<>() {
+
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription.set(s);
+                s.request(2);
+            }
+
+            @Override
+            public void onNext(ShareEvent<SubjectTest, ParticipantTest> event) {
+                threads.add(Thread.currentThread().getName());
+                events.add(event);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                LOGGER.error("Share events failed", throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        final Set<String> snapshot = new HashSet<>();
+        for (int i = 0; i < 2; i++) {
+            final ShareEvent<SubjectTest, ParticipantTest> event = events.poll(5, TimeUnit.SECONDS);
+            Assertions.assertNotNull(event);
+            Assertions.assertEquals(ShareEvent.Type.ADDED, event.type());
+            snapshot.add(event.item().subject().id());
+        }
+        Assertions.assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+
+        final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+        sharedCatalog.acceptForeignCatalogItem(new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id3", "value3")));
+        subscription.get().request(Long.MAX_VALUE);
+        final ShareEvent<SubjectTest, ParticipantTest> last = events.poll(5, TimeUnit.SECONDS);
+        Assertions.assertNotNull(last);
+        Assertions.assertEquals(ShareEvent.Type.ADDED, last.type());
+        snapshot.add(last.item().subject().id());
+        Assertions.assertEquals(Set.of("id1", "id2", "id3"), snapshot);
+
+        final ShareEvent<SubjectTest, ParticipantTest> removed = events.poll(5, TimeUnit.SECONDS);
+        Assertions.assertNotNull(removed);
+        Assertions.assertEquals(ShareEvent.Type.REMOVED, removed.type());
+        Assertions.assertEquals("id3", removed.item().subject().id());
+        Assertions.assertEquals(2, sharedCatalog.getItemsToShare().size());
+        subscription.get().cancel();
+        Assertions.assertTrue(threads.stream().allMatch(name -> name.startsWith("catalog-worker-")), threads::toString);
+
+        ((AbstractSharedCatalog<SubjectTest, ParticipantTest>) sharedCatalog).executeWith(CatalogExecution.commonPool());
+        Assertions.assertTrue(((ExecutorService) execution.executor()).isShutdown());
+    }
+
+    @Test
+    public void testShareEventsFollowFlowContract() throws InterruptedException {
+        sharedCatalog.start();
+        final BlockingQueue<Object> failing = new LinkedBlockingQueue<>();
+        final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+        sharedCatalog.shareEvents().subscribe(subscriber(failing, true));
+        Assertions.assertInstanceOf(IllegalStateException.class, failing.poll(5, TimeUnit.SECONDS));
+        Assertions.assertNull(failing.poll(100, TimeUnit.MILLISECONDS));
+
+        sharedCatalog.shareEvents().subscribe(subscriber(signals, false));
+        final Set<Object> snapshot = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            snapshot.add(signals.poll(5, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(Set.of("ADDED id1", "ADDED id2", "ADDED id3"), snapshot);
+        ((AbstractSharedCatalog<SubjectTest, ParticipantTest>) sharedCatalog).close();
+        Assertions.assertEquals("complete", signals.poll(5, TimeUnit.SECONDS));
+        Assertions.assertNull(signals.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    private Flow.Subscriber<ShareEvent<SubjectTest, ParticipantTest>> subscriber(BlockingQueue<Object> signals, boolean failing) {
+        return new Flow.Subscriber<>() {
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ShareEvent<SubjectTest, ParticipantTest> event) {
+                if (failing) {
+                    throw new IllegalStateException("Subscriber failed");
+                }
+                signals.add(event.type() + " " + event.item().subject().id());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                signals.add(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                signals.add("complete");
+            }
+        };
+    }
+
+    @Test
+    public void testBatchedAcknowledgements() {
+        final List<List<Acknowledgement<SubjectTest, ParticipantTest>>> batches = Collections.synchronizedList(new ArrayList<>());
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> batching = new DefaultSharedCatalog<>(owner) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+                Assertions.fail("Acknowledgements must be delivered in batches");
+            }
+
+            @Override
+            public void onAcknowledged(List<Acknowledgement<SubjectTest, ParticipantTest>> acknowledgements) {
+                batches.add(acknowledgements);
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return List.of();
+            }
+        };
+        batching.start();
+        final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = IntStream.range(0, 25)
+                .<CatalogItem<SubjectTest, ParticipantTest>>mapToObj(i -> new CatalogItemTest(Instant.ofEpochMilli(100 + i), false, participant1, new ItemPayload("id" + i, "value" + i)))
+                .toList();
+        batching.acceptForeignCatalog(foreignItems);
+
+        final AckDispatcher<SubjectTest, ParticipantTest> replaced = batching.dispatchAcknowledgements(10, Duration.ofSeconds(10), 16);
+        foreignItems.subList(0, 5).forEach(batching::acknowledgeReceivedItem);
+        Assertions.assertEquals(5, replaced.pending());
+        final AckDispatcher<SubjectTest, ParticipantTest> dispatcher = batching.dispatchAcknowledgements(10, Duration.ofSeconds(10), 16);
+        Assertions.assertEquals(0, replaced.pending());
+        Assertions.assertEquals(5, batches.stream().mapToInt(List::size).sum());
+        foreignItems.subList(5, 25).forEach(batching::acknowledgeReceivedItem);
+        dispatcher.close();
+
+        Assertions.assertTrue(batching.acknowledged());
+        Assertions.assertEquals(0, dispatcher.pending());
+        Assertions.assertTrue(batches.stream().allMatch(batch -> batch.size() <= 10));
+        Assertions.assertEquals(foreignItems.stream().map(CatalogItem::subject).collect(Collectors.toSet()),
+                batches.stream().flatMap(List::stream).map(Acknowledgement::subject).collect(Collectors.toSet()));
+        Assertions.assertEquals(25, batches.stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    public void testFullDispatcherBlocksAcknowledgingThread() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Acknowledgement<SubjectTest, ParticipantTest>> delivered = Collections.synchronizedList(new ArrayList<>());
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> batching = new DefaultSharedCatalog<>(owner) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+                Assertions.fail("Acknowledgements must be delivered in batches");
+            }
+
+            @Override
+            public void onAcknowledged(List<Acknowledgement<SubjectTest, ParticipantTest>> acknowledgements) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                delivered.addAll(acknowledgements);
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return List.of();
+            }
+        };
+        batching.start();
+        final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = IntStream.range(0, 10)
+                .<CatalogItem<SubjectTest, ParticipantTest>>mapToObj(i -> new CatalogItemTest(Instant.ofEpochMilli(100 + i), false, participant1, new ItemPayload("id" + i, "value" + i)))
+                .toList();
+        batching.acceptForeignCatalog(foreignItems);
+        final AckDispatcher<SubjectTest, ParticipantTest> dispatcher = batching.dispatchAcknowledgements(1, Duration.ofMillis(1), 4);
+        final ExecutorService acknowledging = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> acknowledged = acknowledging.submit(() -> foreignItems.forEach(batching::acknowledgeReceivedItem));
+            Assertions.assertThrows(TimeoutException.class, () -> acknowledged.get(200, TimeUnit.MILLISECONDS));
+            Assertions.assertEquals(4, dispatcher.pending());
+            release.countDown();
+            acknowledged.get(10, TimeUnit.SECONDS);
+        } finally {
+            acknowledging.shutdownNow();
+        }
+        dispatcher.close();
+        Assertions.assertEquals(10, delivered.size());
+    }
+
+    @Test
+    public void testMetricsAndSyncEvents() throws Exception {
+        final CatalogMetrics metrics = ((DefaultSharedCatalog<SubjectTest, ParticipantTest>) sharedCatalog).enableMetrics();
+        sharedCatalog.start();
+        final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = Arrays.asList(
+                new CatalogItemTest(Instant.ofEpochMilli(50), false, participant1, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(200), true, participant1, new ItemPayload("id2", "value2")),
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id3", "value3")),
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, participant1, new ItemPayload("id4", "value4")),
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, owner, new ItemPayload("id5", "value5"))
+        );
+        final Path dump = Files.createTempFile("catalog", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.example.catalog.Sync");
+            recording.start();
+            sharedCatalog.reconcileForeignCatalog(foreignItems);
+            recording.stop();
+            recording.dump(dump);
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            Assertions.assertEquals(1, events.size());
+            Assertions.assertEquals(5, events.get(0).getInt("items"));
+            Assertions.assertEquals(1, events.get(0).getLong("newerForeign"));
+            Assertions.assertEquals(1, events.get(0).getLong("sameOwner"));
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+        sharedCatalog.acknowledgeReceivedItem(new CatalogItemTest(Instant.ofEpochMilli(100), false, participant1, new ItemPayload("id4", "value4")));
+
+        Assertions.assertEquals(1, metrics.count(ReconcileOutcome.OLDER_FOREIGN));
+        Assertions.assertEquals(1, metrics.count(ReconcileOutcome.DELETED_FOREIGN));
+        Assertions.assertEquals(1, metrics.count(ReconcileOutcome.NEWER_FOREIGN));
+        Assertions.assertEquals(1, metrics.count(ReconcileOutcome.UNKNOWN));
+        Assertions.assertEquals(1, metrics.count(ReconcileOutcome.SAME_OWNER));
+        Assertions.assertEquals(Map.of(CatalogMetrics.SEND, 1L, CatalogMetrics.EXPECTED, 1L,
+                CatalogMetrics.NEWER, 1L, CatalogMetrics.ACK, 1L), metrics.gauges());
+        Assertions.assertEquals(1, metrics.acceptLatency().count());
+        Assertions.assertEquals(1, metrics.acknowledgeLatency().count());
+        LOGGER.info("{}", metrics);
+    }
+
+    @Test
+    public void testCompaction() {
+        final DefaultSharedCatalog<SubjectTest, ParticipantTest> compacting = new DefaultSharedCatalog<>(owner) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return Arrays.asList(
+                        new CatalogItemTest(Instant.now().minusSeconds(1), true, owner, new ItemPayload("id1", "value1")),
+                        new CatalogItemTest(Instant.ofEpochMilli(200), false, owner, new ItemPayload("id2", "value2"))
+                );
+            }
+        };
+        final CatalogMetrics metrics = compacting.enableMetrics();
+        compacting.start();
+        final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = Arrays.asList(
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, participant1, new ItemPayload("id3", "value3")),
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, participant1, new ItemPayload("id4", "value4"))
+        );
+        compacting.acceptForeignCatalog(foreignItems);
+        foreignItems.forEach(compacting::acknowledgeReceivedItem);
+        Assertions.assertEquals(2, compacting.getAckReport().getItems().size());
+
+        final CompactionResult bounded = compacting.compact(new CompactionPolicy(Duration.ofHours(1), Duration.ofDays(1), 1, Duration.ofMinutes(1)));
+        Assertions.assertEquals(new CompactionResult(1, 0), bounded);
+        Assertions.assertEquals(1, compacting.getAckReport().getItems().size());
+
+        final CompactionResult expired = compacting.compact(new CompactionPolicy(Duration.ZERO, Duration.ZERO, 100, Duration.ofMinutes(1)));
+        Assertions.assertEquals(new CompactionResult(1, 1), expired);
+        Assertions.assertTrue(compacting.getAckReport().getItems().isEmpty());
+        Assertions.assertTrue(compacting.acknowledged());
+        Assertions.assertEquals(List.of("id2"), compacting.getItemsToShare().stream().map(item -> item.subject().id()).toList());
+
+        compacting.acceptForeignCatalogItem(new CatalogItemTest(Instant.ofEpochMilli(50), false, participant1, new ItemPayload("id1", "value1")));
+        Assertions.assertTrue(compacting.acknowledged());
+        Assertions.assertEquals(1, metrics.blockedResurrections());
+
+        final CatalogItemTest untouched = new CatalogItemTest(Instant.ofEpochMilli(50), false, participant1, new ItemPayload("id6", "value6"));
+        compacting.acceptForeignCatalogItem(untouched);
+        Assertions.assertFalse(compacting.acknowledged());
+        Assertions.assertEquals(1, metrics.blockedResurrections());
+        compacting.acknowledgeReceivedItem(untouched);
+        Assertions.assertTrue(compacting.acknowledged());
+
+        compacting.acceptForeignCatalogItem(new CatalogItemTest(Instant.now(), false, participant1, new ItemPayload("id5", "value5")));
+        Assertions.assertFalse(compacting.acknowledged());
+        Assertions.assertEquals(2, metrics.compactedAcks());
+        Assertions.assertEquals(1, metrics.compactedTombstones());
+    }
+
+    @Test
+    public void testItemsChangedSince() {
+        sharedCatalog.start();
+        final ChangePage<SubjectTest, ParticipantTest> all = sharedCatalog.getItemsChangedSince(0, 10);
+        Assertions.assertEquals(List.of("id1", "id3", "id2"), all.items().stream().map(item -> item.subject().id()).toList());
+
+        final ChangePage<SubjectTest, ParticipantTest> first = sharedCatalog.getItemsChangedSince(HybridLogicalClock.toVersion(Instant.ofEpochMilli(100)), 1);
+        Assertions.assertEquals(List.of("id1"), first.items().stream().map(item -> item.subject().id()).toList());
+        final ChangePage<SubjectTest, ParticipantTest> second = sharedCatalog.getItemsChangedSince(first.next(), 1);
+        Assertions.assertEquals(List.of("id3"), second.items().stream().map(item -> item.subject().id()).toList());
+        final ChangePage<SubjectTest, ParticipantTest> third = sharedCatalog.getItemsChangedSince(second.next(), 10);
+        Assertions.assertEquals(List.of("id2"), third.items().stream().map(item -> item.subject().id()).toList());
+        Assertions.assertTrue(sharedCatalog.getItemsChangedSince(third.next(), 10).isEmpty());
+        Assertions.assertTrue(sharedCatalog.getItemsChangedSince(HybridLogicalClock.toVersion(Instant.ofEpochMilli(201)), 10).isEmpty());
+    }
+
+    @Test
+    public void testSnapshot() {
+        final ParticipantTest participant = new ParticipantTest(UUID.randomUUID(), "participant");
+        sharedCatalog.start();
+        final CatalogSnapshot<SubjectTest, ParticipantTest> before = sharedCatalog.snapshot();
+        Assertions.assertSame(before, sharedCatalog.snapshot());
+        sharedCatalog.acceptForeignCatalog(List.of(
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, participant, new ItemPayload("id4", "value4"))
+        ));
+        final CatalogSnapshot<SubjectTest, ParticipantTest> after = sharedCatalog.snapshot();
+        sharedCatalog.acknowledgeReceivedItem(new CatalogItemTest(Instant.ofEpochMilli(100), false, participant, new ItemPayload("id4", "value4")));
+        final CatalogSnapshot<SubjectTest, ParticipantTest> acknowledged = sharedCatalog.snapshot();
+
+        Assertions.assertEquals(Set.of("id1", "id2", "id3"), ids(before.getItemsToShare()));
+        Assertions.assertTrue(before.acknowledged());
+        Assertions.assertEquals(Set.of("id2", "id3"), ids(after.getItemsToShare()));
+        Assertions.assertEquals(Set.of("id1", "id4"), ids(after.getExpectedItems()));
+        Assertions.assertFalse(after.acknowledged());
+        Assertions.assertEquals(2, after.getAckReport().count(AckStatus.PENDING));
+        Assertions.assertEquals(1, acknowledged.ackCount());
+        Assertions.assertEquals(AckStatus.OK, AckStatus.of(acknowledged.ackItem(new SubjectTest(TEST_TOPIC, "id4"))));
+        Assertions.assertEquals(sharedCatalog.getAckReport().getItems().keySet(), acknowledged.getAckReport().getItems().keySet());
+        Assertions.assertEquals(2, after.expectedCount());
+    }
+
+    @Test
+    public void testPluggableExecution() {
+        final ParticipantTest participant = new ParticipantTest(UUID.randomUUID(), "participant");
+        final List<CatalogItem<SubjectTest, ParticipantTest>> foreignItems = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            foreignItems.add(new CatalogItemTest(Instant.ofEpochMilli(1000 + i), false, participant, new ItemPayload("foreign" + i, "value" + i)));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(3, task -> new Thread(task, "catalog-caller"));
+        try {
+            for (CatalogExecution execution : List.of(CatalogExecution.forkJoinPool(2), CatalogExecution.virtualThreads(2),
+                    CatalogExecution.using(executor, 3))) {
+                final Set<String> threads = ConcurrentHashMap.newKeySet();
+                final DefaultSharedCatalog<SubjectTest, ParticipantTest> catalog = new DefaultSharedCatalog<>(owner) {
+
+                    {
+                        topics.put(TEST_TOPIC, true);
+                    }
+
+                    @Override
+                    protected ReconcileOutcome reconcileItem(CatalogItem<SubjectTest, ParticipantTest> otherItem,
+                                                             DefaultReconciliationDelta<SubjectTest, ParticipantTest> delta) {
+                        threads.add(Thread.currentThread().getName());
+                        return super.reconcileItem(otherItem, delta);
+                    }
+
+                    @Override
+                    public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+                    }
+
+                    @Override
+                    protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                        return List.of();
+                    }
+                };
+                try (execution) {
+                    Assertions.assertSame(execution, catalog.executeWith(execution));
+                    catalog.start();
+                    final ReconciliationDelta<SubjectTest, ParticipantTest> delta = catalog.reconcileForeignCatalog(foreignItems);
+                    Assertions.assertEquals(foreignItems.size(), delta.toExpect().size());
+                    Assertions.assertEquals(foreignItems.size(), catalog.getAckReport().count(AckStatus.PENDING));
+                    Assertions.assertTrue(threads.size() <= execution.parallelism(), threads::toString);
+                    Assertions.assertTrue(threads.stream().allMatch(name -> name.startsWith("catalog-") || name.isEmpty()), threads::toString);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testStreamingBootstrap() {
+        final List<Long> progress = Collections.synchronizedList(new ArrayList<>());
+        final SharedCatalog<SubjectTest, ParticipantTest> streaming = new DefaultSharedCatalog<>(owner) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            protected Stream<CatalogItem<SubjectTest, ParticipantTest>> streamMyItems() {
+                return IntStream.range(0, 10_000).mapToObj(i ->
+                        new CatalogItemTest(Instant.ofEpochMilli(1000 + i), i % 4 == 0, owner, new ItemPayload("id" + i, "value" + i)));
+            }
+
+            @Override
+            protected int bootstrapChunkSize() {
+                return 256;
+            }
+
+            @Override
+            protected void onBootstrapProgress(long loaded) {
+                progress.add(loaded);
+            }
+        };
+        streaming.start();
+        Assertions.assertEquals(7500, streaming.getItemsToShare().size());
+        Assertions.assertEquals(40, progress.size());
+        Assertions.assertEquals(10_000L, Collections.max(progress));
+        Assertions.assertEquals(progress.stream().sorted().toList(), progress);
+
+        streaming.acceptForeignCatalogItem(new CatalogItemTest(Instant.ofEpochMilli(1001), false,
+                new ParticipantTest(UUID.randomUUID(), "participant1"), new ItemPayload("id1", "value1")));
+        Assertions.assertEquals(7499, streaming.getItemsToShare().size());
+    }
+
+    @Test
+    public void testStreamingBootstrapFailure() {
+        final List<Long> progress = Collections.synchronizedList(new ArrayList<>());
+        final SharedCatalog<SubjectTest, ParticipantTest> streaming = new DefaultSharedCatalog<>(owner) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            protected Stream<CatalogItem<SubjectTest, ParticipantTest>> streamMyItems() {
+                return IntStream.range(0, 10_000).mapToObj(i -> {
+                    if (i == 5000) {
+                        throw new IllegalStateException("Source failed");
+                    }
+                    return new CatalogItemTest(Instant.ofEpochMilli(1000 + i), false, owner, new ItemPayload("id" + i, "value" + i));
+                });
+            }
+
+            @Override
+            protected int bootstrapChunkSize() {
+                return 256;
+            }
+
+            @Override
+            protected void onBootstrapProgress(long loaded) {
+                progress.add(loaded);
+            }
+        };
+        Assertions.assertThrows(IllegalStateException.class, streaming::start);
+        Assertions.assertEquals(19, progress.size());
+        Assertions.assertEquals(19 * 256L, Collections.max(progress));
+    }
+
+    @Test
+    public void testMultiplePeers() {
+        final List<SubjectTest> acknowledged = new ArrayList<>();
+        final SharedCatalog<SubjectTest, ParticipantTest> catalog = new DefaultSharedCatalog<>(owner) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+                acknowledged.add(topic);
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return List.of(new CatalogItemTest(Instant.ofEpochMilli(100), false, owner, new ItemPayload("id1", "value1")));
+            }
+        };
+        ((DefaultSharedCatalog<SubjectTest, ParticipantTest>) catalog).acknowledgeEveryPeer();
+        catalog.start();
+        final ParticipantTest participant1 = new ParticipantTest(UUID.randomUUID(), "participant1");
+        final ParticipantTest participant2 = new ParticipantTest(UUID.randomUUID(), "participant2");
+        final ParticipantTest participant3 = new ParticipantTest(UUID.randomUUID(), "participant3");
+        final SubjectTest id1 = new SubjectTest(TEST_TOPIC, "id1");
+        catalog.acceptForeignCatalog(List.of(
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(300), false, participant2, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(200), false, participant3, new ItemPayload("id1", "value1")),
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, participant1, new ItemPayload("id5", "value5")),
+                new CatalogItemTest(Instant.ofEpochMilli(100), false, participant2, new ItemPayload("id5", "value5"))
+        ));
+        Assertions.assertEquals(Set.of(participant1, participant2), catalog.getAckReport().missingPeers(id1));
+        Assertions.assertEquals(Instant.ofEpochMilli(300), catalog.getAckReport().getItems().get(id1).when());
+        Assertions.assertEquals(2, catalog.getAckReport().missing(participant2));
+        Assertions.assertEquals(0, catalog.getAckReport().missing(participant3));
+
+        catalog.acknowledgeReceivedItem(new CatalogItemTest(Instant.ofEpochMilli(300), false, participant1, new ItemPayload("id1", "value1")));
+        catalog.acknowledgeReceivedItem(new CatalogItemTest(Instant.ofEpochMilli(200), false, participant3, new ItemPayload("id1", "value1")));
+        Assertions.assertEquals(Set.of(participant2), catalog.getAckReport().missingPeers(id1));
+        Assertions.assertEquals(1, catalog.getAckReport().missing(participant1));
+        Assertions.assertTrue(acknowledged.isEmpty());
+
+        catalog.acknowledgeReceivedItem(new CatalogItemTest(Instant.ofEpochMilli(300), false, participant2, new ItemPayload("id1", "value1")));
+        Assertions.assertEquals(List.of(id1), acknowledged);
+        Assertions.assertEquals(AckStatus.OK, AckStatus.of(catalog.getAckReport().getItems().get(id1)));
+        Assertions.assertTrue(catalog.getAckReport().missingPeers(id1).isEmpty());
+        Assertions.assertFalse(catalog.acknowledged());
+
+        catalog.acknowledgeReceivedItem(new CatalogItemTest(Instant.ofEpochMilli(100), false, participant1, new ItemPayload("id5", "value5")));
+        catalog.acknowledgeReceivedItem(new CatalogItemTest(Instant.ofEpochMilli(100), false, participant2, new ItemPayload("id5", "value5")));
+        Assertions.assertTrue(catalog.acknowledged());
+        Assertions.assertEquals(0, catalog.getAckReport().missing(participant2));
+    }
+
+    private Set<SubjectTest> subjects(Collection<CatalogItem<SubjectTest, ParticipantTest>> items) {
+        return items.stream().map(CatalogItem::subject).collect(Collectors.toSet());
+    }
+
+    private Set<String> ids(Collection<CatalogItem<SubjectTest, ParticipantTest>> items) {
+        return items.stream().map(item -> item.subject().id()).collect(Collectors.toSet());
+    }
+
+    private DefaultSharedCatalog<SubjectTest, ParticipantTest> newCatalog(Collection<CatalogItem<SubjectTest, ParticipantTest>> myItems) {
+        return new DefaultSharedCatalog<>(owner) {
+
+            {
+                topics.put(TEST_TOPIC, true);
+            }
+
+            @Override
+            public void onAcknowledged(SubjectTest topic, AckItem<ParticipantTest> ackItem) {
+            }
+
+            @Override
+            protected Collection<CatalogItem<SubjectTest, ParticipantTest>> fetchMyItems() {
+                return myItems;
+            }
+        };
+    }
+
     private void printReport(AckReport<SubjectTest, ParticipantTest> ackReport) {
         LOGGER.debug("Report");
         ackReport.getItems().forEach((id, item) -> {
@@ -27,8 +27,20 @@ public class CamelSharedCatalog extends DefaultSharedCatalog<SubjectTest, Partic
     @Handler
     public void onCamelMessage(CamelContext context, CatalogItem<SubjectTest, ParticipantTest> item) {
         acceptForeignCatalogItem(item);
-        ProducerTemplate producer = context.createProducerTemplate();
-        producer.sendBody("seda:sharedCatalogOutbound", item);
+        producer(context).sendBody("seda:sharedCatalogOutbound", item);
+    }
+
+    private ProducerTemplate producer(CamelContext context) {
+        ProducerTemplate current = producer;
+        if (current == null) {
+            synchronized (this) {
+                if (producer == null) {
+                    producer = context.createProducerTemplate();
+                }
+                current = producer;
+            }
+        }
+        return current;
     }
 
     @Override
@@ -44,4 +56,6 @@ public class CamelSharedCatalog extends DefaultSharedCatalog<SubjectTest, Partic
     public void onAcknowledged(SubjectTest key, AckItem<ParticipantTest> ackItem) {
 
     }
+
+    private volatile ProducerTemplate producer;
 }
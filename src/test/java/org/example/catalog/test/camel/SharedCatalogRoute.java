@@ -1,12 +1,83 @@
 package org.example.catalog.test.camel;
 
+import org.apache.camel.Exchange;
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.processor.aggregate.GroupedBodyAggregationStrategy;
+import org.example.catalog.CatalogItem;
+import org.example.catalog.SharedCatalog;
+import org.example.catalog.Subject;
 
-public class SharedCatalogRoute extends RouteBuilder {
+import java.util.List;
+
+public class SharedCatalogRoute<K extends Subject, T> extends RouteBuilder {
+
+    public static final String INBOUND = "seda:sharedCatalogInbound?size=65536&blockWhenFull=true";
+
+    public static final String ACKS = "seda:sharedCatalogAcks?size=65536&blockWhenFull=true";
+
+    private static final String PARTITION = "seda:sharedCatalogPartition";
+
+    private static final String PARTITION_HEADER = "sharedCatalogPartition";
+
+    private final SharedCatalog<K, T> catalog;
+
+    private final int partitions;
+
+    private final int batchSize;
+
+    private final long batchTimeout;
+
+    public SharedCatalogRoute(SharedCatalog<K, T> catalog, int partitions, int batchSize, long batchTimeout) {
+        this.catalog = catalog;
+        this.partitions = Math.max(1, partitions);
+        this.batchSize = batchSize;
+        this.batchTimeout = batchTimeout;
+    }
 
     @Override
     public void configure() {
+        from(INBOUND)
+                .routeId("sharedCatalogInbound")
+                .process(this::partition)
+                .toD(PARTITION + "-${header." + PARTITION_HEADER + "}?size=65536&blockWhenFull=true");
 
+        for (int partition = 0; partition < partitions; partition++) {
+            from(PARTITION + "-" + partition + "?size=65536&blockWhenFull=true")
+                    .routeId("sharedCatalogPartition-" + partition)
+                    .aggregate(constant(true), new GroupedBodyAggregationStrategy())
+                    .completionSize(batchSize)
+                    .completionTimeout(batchTimeout)
+                    .parallelProcessing(false)
+                    .executorService(getContext().getExecutorServiceManager()
+                            .newSingleThreadExecutor(this, "sharedCatalogPartition-" + partition))
+                    .process(this::accept);
+        }
+
+        from(ACKS + "&concurrentConsumers=" + partitions)
+                .routeId("sharedCatalogAcks")
+                .process(this::acknowledge);
+    }
+
+    private void partition(Exchange exchange) {
+        final CatalogItem<K, T> item = item(exchange);
+        exchange.getIn().setHeader(PARTITION_HEADER, partitionOf(item.subject(), partitions));
+    }
+
+    public static int partitionOf(Subject subject, int partitions) {
+        return Math.floorMod(subject.hashCode(), partitions);
     }
 
+    @SuppressWarnings("unchecked")
+    private void accept(Exchange exchange) {
+        catalog.acceptForeignCatalog(exchange.getIn().getBody(List.class));
+    }
+
+    private void acknowledge(Exchange exchange) {
+        catalog.acknowledgeReceivedItem(item(exchange));
+    }
+
+    @SuppressWarnings("unchecked")
+    private CatalogItem<K, T> item(Exchange exchange) {
+        return exchange.getIn().getBody(CatalogItem.class);
+    }
 }
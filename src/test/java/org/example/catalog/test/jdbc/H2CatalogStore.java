@@ -0,0 +1,160 @@
+package org.example.catalog.test.jdbc;
+
+import org.example.catalog.CatalogStore;
+import org.example.catalog.JournalCodec;
+import org.example.catalog.JournalRecord;
+import org.example.catalog.Subject;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+public class H2CatalogStore<K extends Subject, T> implements CatalogStore<K, T>, Closeable {
+
+    private static final byte[] NO_PEER = new byte[0];
+
+    private static final String CREATE = "CREATE TABLE IF NOT EXISTS catalog_state ("
+            + "topic VARCHAR NOT NULL, id VARCHAR NOT NULL, kind TINYINT NOT NULL, peer VARBINARY NOT NULL, "
+            + "type TINYINT NOT NULL, owner VARBINARY, seconds BIGINT, nanos INT, deleted BOOLEAN NOT NULL, "
+            + "PRIMARY KEY (topic, id, kind, peer))";
+
+    private static final String UPSERT = "MERGE INTO catalog_state (topic, id, kind, peer, type, owner, seconds, nanos, deleted) "
+            + "KEY (topic, id, kind, peer) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE = "DELETE FROM catalog_state WHERE topic = ? AND id = ? AND kind = ? AND peer = ?";
+
+    private static final String SELECT = "SELECT topic, id, type, owner, seconds, nanos, deleted FROM catalog_state "
+            + "ORDER BY topic, id, kind";
+
+    private final JournalCodec<K, T> codec;
+
+    private final Connection connection;
+
+    private final ByteBuffer scratch = ByteBuffer.allocate(4096);
+
+    public H2CatalogStore(Path directory, JournalCodec<K, T> codec) {
+        this.codec = codec;
+        try {
+            connection = DriverManager.getConnection("jdbc:h2:" + directory.resolve("catalog").toAbsolutePath());
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot open catalog store in " + directory, e);
+        }
+    }
+
+    @Override
+    public JournalCodec<K, T> codec() {
+        return codec;
+    }
+
+    @Override
+    public synchronized boolean write(Collection<JournalRecord<K, T>> records) {
+        try (PreparedStatement upsert = connection.prepareStatement(UPSERT);
+             PreparedStatement delete = connection.prepareStatement(DELETE)) {
+            for (JournalRecord<K, T> record : records) {
+                final boolean peer = record.type() == JournalRecord.Type.PEER_JOINED || record.type() == JournalRecord.Type.PEER_LEFT;
+                final JournalRecord.Type kind = peer ? JournalRecord.Type.PEER_JOINED : record.type();
+                final byte[] peerKey = peer ? encode(record.owner()) : NO_PEER;
+                if (record.type() == JournalRecord.Type.PEER_LEFT
+                        || !record.present() && record.type() != JournalRecord.Type.SEND) {
+                    bindKey(delete, record, kind, peerKey);
+                    delete.addBatch();
+                    continue;
+                }
+                bindKey(upsert, record, kind, peerKey);
+                upsert.setByte(5, (byte) record.type().ordinal());
+                if (record.present()) {
+                    upsert.setBytes(6, encode(record.owner()));
+                    upsert.setLong(7, record.timestamp().getEpochSecond());
+                    upsert.setInt(8, record.timestamp().getNano());
+                } else {
+                    upsert.setNull(6, Types.VARBINARY);
+                    upsert.setNull(7, Types.BIGINT);
+                    upsert.setNull(8, Types.INTEGER);
+                }
+                upsert.setBoolean(9, record.deleted());
+                upsert.addBatch();
+            }
+            delete.executeBatch();
+            upsert.executeBatch();
+            connection.commit();
+            return false;
+        } catch (SQLException e) {
+            rollback(e);
+            throw new IllegalStateException("Cannot write " + records.size() + " catalog records", e);
+        }
+    }
+
+    @Override
+    public synchronized void sync() {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CHECKPOINT SYNC");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot sync catalog store", e);
+        }
+    }
+
+    @Override
+    public synchronized void load(Consumer<JournalRecord<K, T>> consumer) {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(SELECT)) {
+            while (rows.next()) {
+                final K subject = codec.subject(rows.getString(1), rows.getString(2));
+                final JournalRecord.Type type = JournalRecord.Type.values()[rows.getByte(3)];
+                final byte[] owner = rows.getBytes(4);
+                consumer.accept(owner == null
+                        ? new JournalRecord<>(type, subject, false, null, null, false)
+                        : new JournalRecord<>(type, subject, true, codec.readOwner(ByteBuffer.wrap(owner)),
+                        Instant.ofEpochSecond(rows.getLong(5), rows.getInt(6)), rows.getBoolean(7)));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot load catalog store", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot close catalog store", e);
+        }
+    }
+
+    private void bindKey(PreparedStatement statement, JournalRecord<K, T> record, JournalRecord.Type kind,
+                         byte[] peerKey) throws SQLException {
+        statement.setString(1, record.subject().topic());
+        statement.setString(2, record.subject().id());
+        statement.setByte(3, (byte) kind.ordinal());
+        statement.setBytes(4, peerKey);
+    }
+
+    private byte[] encode(T owner) {
+        scratch.clear();
+        codec.writeOwner(scratch, owner);
+        return Arrays.copyOf(scratch.array(), scratch.position());
+    }
+
+    private void rollback(SQLException failure) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            failure.addSuppressed(e);
+        }
+    }
+}
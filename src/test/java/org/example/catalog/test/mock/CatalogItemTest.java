@@ -1,5 +1,6 @@
 package org.example.catalog.test.mock;
 
+import org.example.catalog.ContentDigest;
 import org.example.catalog.DefaultCatalogItem;
 
 import java.time.Instant;
@@ -15,6 +16,11 @@ public class CatalogItemTest extends DefaultCatalogItem<SubjectTest, Participant
         subject = new SubjectTest(TEST_TOPIC, payload.id());
     }
 
+    public CatalogItemTest(long version, boolean deleted, ParticipantTest owner, ItemPayload payload) {
+        super(version, deleted, owner, payload);
+        subject = new SubjectTest(TEST_TOPIC, payload.id());
+    }
+
     @Override
     public String toString() {
         return "CatalogItemTest{" +
@@ -24,6 +30,11 @@ public class CatalogItemTest extends DefaultCatalogItem<SubjectTest, Participant
                 '}';
     }
 
+    @Override
+    protected long digest(ItemPayload payload) {
+        return ContentDigest.of(payload.id() + '\u0000' + payload.value());
+    }
+
     @Override
     public SubjectTest subject() {
         return subject;
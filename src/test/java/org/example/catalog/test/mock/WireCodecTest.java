@@ -0,0 +1,76 @@
+package org.example.catalog.test.mock;
+
+import org.example.catalog.CatalogItem;
+import org.example.catalog.WireCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+public class WireCodecTest implements WireCodec<SubjectTest, ParticipantTest, ItemPayload> {
+
+    @Override
+    public SubjectTest subject(String topic, String id) {
+        return new SubjectTest(topic, id);
+    }
+
+    @Override
+    public void writeOwner(ByteBuffer buffer, ParticipantTest owner) {
+        buffer.putLong(owner.id().getMostSignificantBits());
+        buffer.putLong(owner.id().getLeastSignificantBits());
+        putString(buffer, owner.name());
+    }
+
+    @Override
+    public ParticipantTest readOwner(ByteBuffer buffer) {
+        final UUID id = new UUID(buffer.getLong(), buffer.getLong());
+        return new ParticipantTest(id, getString(buffer));
+    }
+
+    @Override
+    public void writePayload(ByteBuffer buffer, ItemPayload payload) {
+        putString(buffer, payload.value());
+    }
+
+    @Override
+    public ItemPayload readPayload(ByteBuffer buffer, SubjectTest subject) {
+        return new ItemPayload(subject.id(), getString(buffer));
+    }
+
+    @Override
+    public CatalogItem<SubjectTest, ParticipantTest> item(SubjectTest subject, long version, boolean deleted,
+                                                          ParticipantTest owner, ItemPayload payload) {
+        return new CatalogItemTest(version, deleted, owner, payload);
+    }
+
+    @Override
+    public ItemPayload payloadOf(CatalogItem<SubjectTest, ParticipantTest> item) {
+        return ((CatalogItemTest) item).getPayload();
+    }
+
+    @Override
+    public int ownerSize(ParticipantTest owner) {
+        return 2 * Long.BYTES + stringSize(owner.name());
+    }
+
+    @Override
+    public int payloadSize(ItemPayload payload) {
+        return stringSize(payload.value());
+    }
+
+    private static int stringSize(String value) {
+        return Short.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}